@@ -0,0 +1,46 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Chording a numbered block whose mines are all marked, which reveals its other neighbors. The revealed blocks
+ * are covered again after each chord, so every invocation does the same work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ChordBenchmark
+{
+    private World world;
+    private Coordinate chord;
+
+    @Setup
+    public void setUp()
+    {
+        world = new World(100, 100, 1, Fixtures.SEED);
+        chord = Fixtures.prepareChord(world);
+    }
+
+    @Benchmark
+    public int forceExpand()
+    {
+        int hit = world.forceExpand(chord, BlockType.DISCOVERED);
+        int revealed = world.getLastRevealed().size();
+        Fixtures.cover(world);
+        return hit + revealed;
+    }
+}
@@ -0,0 +1,85 @@
+package minesweeper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Boards and inputs shared by the benchmarks, all built from fixed seeds so runs are comparable.
+ */
+final class Fixtures
+{
+    static final long SEED = 42;
+
+    private Fixtures() {}
+
+    /**
+     * Reveals the first numbered block that is not next to the border and marks all its mines,
+     * so chording it reveals every other neighbor.
+     */
+    static Coordinate prepareChord(World world)
+    {
+        for (int x = 1; x < world.getRows() - 1; x++) {
+            for (int y = 1; y < world.getColumns() - 1; y++) {
+                Coordinate coordinate = new Coordinate(x, y);
+                if (world.getOriginalState(coordinate) != BlockType.MINE && world.getAdjacentMinesCount(coordinate) > 0) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        for (int dy = -1; dy <= 1; dy++) {
+                            Coordinate neighbor = new Coordinate(x + dx, y + dy);
+                            if (world.getOriginalState(neighbor) == BlockType.MINE) {
+                                world.modifyBlock(neighbor, BlockType.MARKED);
+                            }
+                        }
+                    }
+                    world.check(coordinate);
+                    return coordinate;
+                }
+            }
+        }
+        throw new IllegalStateException("No block to chord");
+    }
+
+    /**
+     * Returns the first covered blank block, whose reveal uncovers the opening around it.
+     */
+    static Coordinate opening(World world)
+    {
+        for (int index = 0; index < world.getRows() * world.getColumns(); index++) {
+            if (world.stateAt(index) == BlockType.UNKNOWN && !world.isMineAt(index) && world.adjacentMinesAt(index) == 0) {
+                return new Coordinate(index / world.getColumns(), index % world.getColumns());
+            }
+        }
+        throw new IllegalStateException("No opening to reveal");
+    }
+
+    /**
+     * Covers the blocks the last reveal or chord uncovered again, so the same move can be measured repeatedly.
+     */
+    static void cover(World world)
+    {
+        IntList revealed = world.getLastRevealed();
+        for (int i = 0; i < revealed.size(); i++) {
+            world.restoreState(revealed.get(i), BlockType.UNKNOWN);
+        }
+        world.adjustCounters(revealed.size(), 0, 0);
+    }
+
+    /**
+     * Returns random moves on a 1000x1000 board, as a choice, row and column per line for the console's prompts,
+     * or as batches of ten moves per line.
+     */
+    static byte[] script(int count, boolean batched)
+    {
+        Random random = new Random(SEED);
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int x = random.nextInt(1000), y = random.nextInt(1000);
+            if (batched) {
+                script.append("cmux".charAt(random.nextInt(4))).append(' ').append(x).append(' ').append(y)
+                        .append(i % 10 == 9 ? "\n" : "; ");
+            } else {
+                script.append(x).append('\n').append(y).append('\n').append(1 + random.nextInt(4)).append('\n');
+            }
+        }
+        return script.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,82 @@
+package minesweeper;
+
+import java.io.ByteArrayInputStream;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A scripted game of 100,000 moves piped into the console: the numeric prompts read with {@link Scanner} against
+ * the hand-written tokenizer, and the same moves as batches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InputBenchmark
+{
+    private static final int SCRIPTED_MOVES = 100_000;
+
+    private byte[] numbers;
+    private byte[] moves;
+
+    @Setup
+    public void setUp()
+    {
+        numbers = Fixtures.script(SCRIPTED_MOVES, false);
+        moves = Fixtures.script(SCRIPTED_MOVES, true);
+    }
+
+    @Benchmark
+    public long scannerNextInt()
+    {
+        Scanner scanner = new Scanner(new ByteArrayInputStream(numbers));
+        long sum = 0;
+        while (scanner.hasNextInt()) {
+            sum += scanner.nextInt();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long inputReaderNextInt()
+    {
+        InputReader reader = new InputReader(new ByteArrayInputStream(numbers));
+        long sum = 0;
+        try {
+            while (true) {
+                sum += reader.nextInt();
+            }
+        } catch (NoSuchElementException end) {
+            return sum;
+        }
+    }
+
+    @Benchmark
+    public long inputReaderNextCommand()
+    {
+        InputReader reader = new InputReader(new ByteArrayInputStream(moves));
+        long sum = 0;
+        try {
+            do {
+                sum += reader.nextCommand().x();
+            } while (reader.hasMoreCommands() || reader.hasCommand());
+        } catch (NoSuchElementException end) {
+            return sum;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,54 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading the board: adjacency counts of every block of a 100x100 board through the public API, and rendering.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LookupBenchmark
+{
+    @Param({"100", "1000"})
+    int side;
+
+    private World world;
+
+    @Setup
+    public void setUp() {
+        world = new World(side, side, 1, Fixtures.SEED);
+    }
+
+    @Benchmark
+    public long getAdjacentMinesCount()
+    {
+        long sum = 0;
+        for (int x = 0; x < world.getRows(); x++) {
+            for (int y = 0; y < world.getColumns(); y++) {
+                sum += world.getAdjacentMinesCount(new Coordinate(x, y));
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public String worldToString() {
+        return world.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reveals and chords through the {@link GameEngine} on a 100x100 board, each move covered again afterwards so the
+ * same blocks are uncovered every time: once through {@link GameEngine#play}, which reuses its result, and once
+ * through {@link GameEngine#apply(Command)}, which creates a command and a result per move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MoveBenchmark
+{
+    private World world;
+    private GameEngine engine;
+    private Coordinate chorded;
+    private Coordinate opening;
+
+    @Setup
+    public void setUp()
+    {
+        world = new World(100, 100, 1, Fixtures.SEED);
+        engine = new GameEngine(world);
+        chorded = Fixtures.prepareChord(world);
+        opening = Fixtures.opening(world);
+    }
+
+    @Benchmark
+    public int revealByPlay()
+    {
+        engine.play(Command.Type.REVEAL, opening.x(), opening.y());
+        int revealed = engine.getLastRevealed().size();
+        Fixtures.cover(world);
+        return revealed;
+    }
+
+    @Benchmark
+    public int revealByCommand()
+    {
+        int revealed = engine.apply(new Command(Command.Type.REVEAL, opening.x(), opening.y())).revealed().length;
+        Fixtures.cover(world);
+        return revealed;
+    }
+
+    @Benchmark
+    public int chordByPlay()
+    {
+        engine.play(Command.Type.CHORD, chorded.x(), chorded.y());
+        int revealed = engine.getLastRevealed().size();
+        Fixtures.cover(world);
+        return revealed;
+    }
+
+    @Benchmark
+    public int chordByCommand()
+    {
+        int revealed = engine.apply(new Command(Command.Type.CHORD, chorded.x(), chorded.y())).revealed().length;
+        Fixtures.cover(world);
+        return revealed;
+    }
+}
@@ -0,0 +1,54 @@
+package minesweeper;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A 20x30 window of a large board, scrolled back and forth so every frame is drawn in full.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RenderBenchmark
+{
+    @Param({"1000", "4000"})
+    int side;
+
+    private Viewport viewport;
+    private BoardRenderer renderer;
+    private int step = 1;
+
+    @Setup
+    public void setUp()
+    {
+        World world = new World(side, side, 1, Fixtures.SEED);
+        viewport = new Viewport(world, 20, 30);
+        viewport.centerOn(world.indexOf(side / 2, side / 2));
+        renderer = new BoardRenderer(world, new PrintStream(OutputStream.nullOutputStream()), false, viewport);
+    }
+
+    @Benchmark
+    public int viewport()
+    {
+        step = -step;
+        viewport.scroll(step, 0);
+        renderer.render();
+        return viewport.getTop();
+    }
+}
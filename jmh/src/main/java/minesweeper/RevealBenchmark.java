@@ -0,0 +1,46 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The worst case of check: on an empty board the flood fill reveals every block.
+ * <p>
+ * Every invocation gets a fresh board. The fill takes tens of microseconds at least, far more than the
+ * timestamps JMH takes around an invocation with its own setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RevealBenchmark
+{
+    @Param({"100", "1000"})
+    int side;
+
+    private World world;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        world = new World(side, side, 1, Fixtures.SEED, 0);
+    }
+
+    @Benchmark
+    public int checkEmpty() {
+        return world.check(0, 0).size();
+    }
+}
@@ -0,0 +1,53 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One simulated game per operation, on a pooled board with a strategy kept across games as {@link Simulation} does,
+ * so the GC profiler reports the allocation per game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SimulationBenchmark
+{
+    @Param({"16x30", "100x100"})
+    String size;
+
+    @Param({"solver", "random"})
+    String strategy;
+
+    private Simulation simulation;
+    private Strategy player;
+    private long seed;
+
+    @Setup
+    public void setUp()
+    {
+        int rows = Integer.parseInt(size.substring(0, size.indexOf('x')));
+        int columns = Integer.parseInt(size.substring(size.indexOf('x') + 1));
+        simulation = new Simulation(rows, columns, 1, () -> Strategy.named(strategy));
+        player = Strategy.named(strategy);
+        seed = Fixtures.SEED;
+    }
+
+    @Benchmark
+    public long game() {
+        return simulation.play(++seed, player)[2];
+    }
+}
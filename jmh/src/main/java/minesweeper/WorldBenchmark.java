@@ -0,0 +1,75 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building a board: planting the mines and counting the neighbors of every block.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WorldBenchmark
+{
+    @Param({"16x30", "100x100", "1000x1000", "4000x4000"})
+    String size;
+
+    @Param({"1", "2"})
+    int difficulty;
+
+    private int rows;
+    private int columns;
+    private World reused;
+    private World deferred;
+    private long seed;
+
+    @Setup
+    public void setUp()
+    {
+        rows = Integer.parseInt(size.substring(0, size.indexOf('x')));
+        columns = Integer.parseInt(size.substring(size.indexOf('x') + 1));
+        reused = new World(rows, columns, difficulty, Fixtures.SEED);
+        deferred = new World(rows, columns, difficulty, Fixtures.SEED, MineLayout.SAFE_START);
+        seed = Fixtures.SEED;
+    }
+
+    @Benchmark
+    public World create() {
+        return new World(rows, columns, difficulty, Fixtures.SEED);
+    }
+
+    /**
+     * Starts a new game on the same board, with a new seed every time as a pool would.
+     */
+    @Benchmark
+    public int reset()
+    {
+        reused.reset(++seed);
+        return reused.getMineCount();
+    }
+
+    /**
+     * Starts a new safe start game on the same board and plants it around a first reveal in the middle.
+     */
+    @Benchmark
+    public int resetAndPlantAround()
+    {
+        deferred.reset(++seed);
+        deferred.plantAround(rows / 2, columns / 2, seed, false);
+        return deferred.getMineCount();
+    }
+}
@@ -0,0 +1,281 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Difficulty ratings of a planted board, see {@link World#getBoardMetrics()}.
+ *
+ * @param threeBV         The board's 3BV: the fewest clicks that clear it, one per opening and one per isolated number.
+ * @param openings        The number of openings, regions of connected blank blocks that a single click uncovers
+ *                        together with the numbered blocks around them.
+ * @param isolatedNumbers Numbered blocks next to no opening, each of which has to be clicked on its own.
+ * @param largestOpening  The number of blocks a click into the largest opening uncovers, 0 without openings.
+ * @param openingSizes    Openings per size class: element k counts the openings uncovering 2^k to 2^(k+1) - 1 blocks.
+ *                        The array is copied in and out, as one instance is shared by every caller of a world.
+ */
+public record BoardMetrics(
+        int threeBV,
+        int openings,
+        int isolatedNumbers,
+        int largestOpening,
+        int[] openingSizes
+) {
+    public BoardMetrics {
+        openingSizes = openingSizes.clone();
+    }
+
+    @Override
+    public int[] openingSizes() {
+        return openingSizes.clone();
+    }
+
+    /**
+     * Rates a planted board in a single pass over its rows.
+     * <p>
+     * Blank blocks are labeled row by row and the labels of touching blanks are joined in a union-find, so only the
+     * labels of the last three rows are kept besides one entry per label. A numbered block is counted towards the
+     * openings around it once the row below it is labeled. Next to several labels it is set aside, as they may
+     * still turn out to be the same opening, and counted once all openings are known.
+     */
+    static BoardMetrics of(World world)
+    {
+        Rating rating = new Rating(world);
+        for (int x = 0; x < world.getRows(); x++) {
+            rating.label(x);
+            if (x > 0) {
+                rating.count(x - 1);
+            }
+        }
+        rating.count(world.getRows() - 1);
+        return rating.result();
+    }
+
+    /**
+     * The state of a pass: the labels of the last rows and a union-find over all labels, with the blank and
+     * bordering numbered blocks counted per label.
+     */
+    private static final class Rating
+    {
+        private final World world;
+        private final int rows;
+        private final int columns;
+        /**
+         * Labels of the blank blocks of the last three rows in rotation, -1 for all other blocks. Column y is stored
+         * at y + 1, so that the borders read -1 as well.
+         */
+        private final int[][] labels;
+        /** Stands for the rows above and below the board. */
+        private final int[] outside;
+        /** Per column, whether one of the three rows around the counted one has a blank block in it. */
+        private final boolean[] blankInColumn;
+        private final int[] around = new int[8];
+
+        private int[] parents = new int[64];
+        private int[] blanks = new int[64];
+        private int[] borders = new int[64];
+        private int size;
+        /** Numbered blocks next to more than one label: the number of labels followed by the labels. */
+        private final IntList shared = new IntList();
+        private int isolated;
+
+        Rating(World world)
+        {
+            this.world = world;
+            this.rows = world.getRows();
+            this.columns = world.getColumns();
+            labels = new int[3][columns + 2];
+            outside = new int[columns + 2];
+            for (int[] row : labels) {
+                Arrays.fill(row, -1);
+            }
+            Arrays.fill(outside, -1);
+            blankInColumn = new boolean[columns + 2];
+        }
+
+        private int[] row(int x) {
+            return x < 0 || x >= rows ? outside : labels[x % 3];
+        }
+
+        /**
+         * Labels the blank blocks of a row, joining them with the touching ones to the left and above.
+         */
+        void label(int x)
+        {
+            int[] row = row(x);
+            int[] above = row(x - 1);
+            int base = x * columns - 1;
+            for (int y = 1; y <= columns; y++) {
+                byte cell = world.cellAt(base + y);
+                if (Cell.isMine(cell) || Cell.adjacentMines(cell) != 0) {
+                    row[y] = -1;
+                    continue;
+                }
+                int label = row[y - 1];
+                for (int ny = y - 1; ny <= y + 1; ny++) {
+                    if (above[ny] >= 0 && above[ny] != label) {
+                        label = label < 0 ? above[ny] : union(label, above[ny]);
+                    }
+                }
+                if (label < 0) {
+                    label = add();
+                }
+                row[y] = label;
+                blanks[label]++;
+            }
+        }
+
+        /**
+         * Counts the numbered blocks of a row, whose neighbors in the rows above and below are labeled.
+         */
+        void count(int x)
+        {
+            int[] above = row(x - 1), row = row(x), below = row(x + 1);
+            for (int y = 1; y <= columns; y++) {
+                // Only -1 has the sign bit set, so the and of the labels is negative unless one is a label
+                blankInColumn[y] = (above[y] & row[y] & below[y]) >= 0;
+            }
+            int base = x * columns - 1;
+            for (int y = 1; y <= columns; y++) {
+                byte cell = world.cellAt(base + y);
+                if (Cell.isMine(cell) || Cell.adjacentMines(cell) == 0) {
+                    continue;
+                }
+                // Most numbered blocks have no blank neighbor, which the columns tell without any lookup
+                if (!(blankInColumn[y - 1] | blankInColumn[y] | blankInColumn[y + 1])) {
+                    isolated++;
+                    continue;
+                }
+                int count = labelsAround(above, y, 0);
+                count = labelsAround(row, y, count);
+                count = labelsAround(below, y, count);
+                if (count == 1) {
+                    borders[around[0]]++;
+                } else {
+                    shared.add(count);
+                    for (int k = 0; k < count; k++) {
+                        shared.add(around[k]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds the distinct openings of the three blocks of a row around column y to {@link #around}.
+         */
+        private int labelsAround(int[] row, int y, int count)
+        {
+            int last = -1;
+            for (int ny = y - 1; ny <= y + 1; ny++) {
+                // Neighbors mostly share their label, which is looked up once
+                if (row[ny] >= 0 && row[ny] != last) {
+                    last = row[ny];
+                    count = addDistinct(around, count, find(last));
+                }
+            }
+            return count;
+        }
+
+        private int add()
+        {
+            if (size == parents.length) {
+                parents = Arrays.copyOf(parents, size << 1);
+                blanks = Arrays.copyOf(blanks, size << 1);
+                borders = Arrays.copyOf(borders, size << 1);
+            }
+            parents[size] = size;
+            return size++;
+        }
+
+        private int find(int label)
+        {
+            int root = label;
+            while (parents[root] != root) {
+                root = parents[root];
+            }
+            // Path compression, so later lookups take a step or two
+            while (parents[label] != root) {
+                int next = parents[label];
+                parents[label] = root;
+                label = next;
+            }
+            return root;
+        }
+
+        /**
+         * Joins the sets of two labels and returns the root of the result, always the lower label.
+         */
+        private int union(int a, int b)
+        {
+            int rootA = find(a), rootB = find(b);
+            if (rootA == rootB) {
+                return rootA;
+            }
+            parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+            return Math.min(rootA, rootB);
+        }
+
+        BoardMetrics result()
+        {
+            int[] sizes = new int[size];
+            int openings = 0;
+            for (int label = 0; label < size; label++) {
+                int root = find(label);
+                if (root == label) {
+                    openings++;
+                }
+                sizes[root] += blanks[label] + borders[label];
+            }
+            for (int k = 0; k < shared.size(); k += shared.get(k) + 1) {
+                int count = 0;
+                for (int j = k + 1; j <= k + shared.get(k); j++) {
+                    count = addDistinct(around, count, find(shared.get(j)));
+                }
+                for (int j = 0; j < count; j++) {
+                    sizes[around[j]]++;
+                }
+            }
+            int[] histogram = new int[32];
+            int largest = 0;
+            for (int label = 0; label < size; label++) {
+                if (parents[label] == label) {
+                    histogram[31 - Integer.numberOfLeadingZeros(sizes[label])]++;
+                    largest = Math.max(largest, sizes[label]);
+                }
+            }
+            return new BoardMetrics(openings + isolated, openings, isolated, largest,
+                    Arrays.copyOf(histogram, 32 - Integer.numberOfLeadingZeros(largest)));
+        }
+
+        private static int addDistinct(int[] values, int count, int value)
+        {
+            for (int k = 0; k < count; k++) {
+                if (values[k] == value) {
+                    return count;
+                }
+            }
+            values[count] = value;
+            return count + 1;
+        }
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof BoardMetrics metrics && threeBV == metrics.threeBV && openings == metrics.openings
+                && isolatedNumbers == metrics.isolatedNumbers && largestOpening == metrics.largestOpening
+                && Arrays.equals(openingSizes, metrics.openingSizes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(threeBV, openings, isolatedNumbers, largestOpening) + Arrays.hashCode(openingSizes);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "3BV " + threeBV + ", " + openings + " openings (largest " + largestOpening + " blocks, per size class "
+                + Arrays.toString(openingSizes) + "), " + isolatedNumbers + " isolated numbers";
+    }
+}
@@ -0,0 +1,261 @@
+package minesweeper;
+
+import java.io.PrintStream;
+
+/**
+ * Draws a {@link World} onto a byte-oriented {@link PrintStream} using the same layout as {@link World#toString()}.
+ * <p>
+ * Frames are assembled in a buffer that is allocated once per world, so drawing does not allocate.
+ * In ANSI mode only the cells the world reports as dirty are redrawn, each through a cursor-addressing
+ * escape sequence, and the lines below the board are cleared for the next prompt. Without ANSI, or
+ * when most of the board changed, the whole board is written in one go.
+ * <p>
+ * With a {@link Viewport} only its window is drawn, with headers for the rows and columns it shows, followed by its
+ * map; cells outside the window are skipped and scrolling redraws the window, so the cost of a frame depends on the
+ * size of the window and not of the board.
+ */
+public class BoardRenderer
+{
+    private static final byte ESC = 0x1B;
+    /** Bytes written per dirty cell at most: ESC [ row ; column H and the character. */
+    private static final int MAX_CELL_UPDATE = 2 + 10 + 1 + 10 + 1 + 1;
+
+    private final World world;
+    private final PrintStream out;
+    private final boolean ansi;
+    private final int rows;
+    private final int columns;
+    /** The window drawn, or null to draw the whole board. */
+    private final Viewport viewport;
+    private final int height;
+    private final int width;
+    private int top;
+    private int left;
+
+    private byte[] buffer;
+    private int length;
+    private boolean drawn;
+
+    public BoardRenderer(World world, PrintStream out, boolean ansi) {
+        this(world, out, ansi, null);
+    }
+
+    /**
+     * Creates a renderer that draws the window of the given viewport, or the whole board if it is null.
+     */
+    public BoardRenderer(World world, PrintStream out, boolean ansi, Viewport viewport)
+    {
+        this.world = world;
+        this.out = out;
+        this.ansi = ansi;
+        this.rows = world.getRows();
+        this.columns = world.getColumns();
+        this.viewport = viewport;
+        this.height = viewport == null ? rows : viewport.getHeight();
+        this.width = viewport == null ? columns : viewport.getWidth();
+        buffer = new byte[fullFrameSize()];
+        if (ansi) {
+            world.setDirtyTracking(true);
+        }
+    }
+
+    /**
+     * Returns true if the current terminal is likely to understand ANSI cursor addressing.
+     */
+    public static boolean ansiSupported()
+    {
+        String property = System.getProperty("minesweeper.ansi");
+        if (property != null) {
+            return Boolean.parseBoolean(property);
+        }
+        String term = System.getenv("TERM");
+        return System.console() != null && term != null && !term.equals("dumb");
+    }
+
+    /**
+     * Brings the screen up to date with the world and leaves the cursor on the line below the board.
+     */
+    public void render()
+    {
+        IntList dirty = world.getDirtyCells();
+        boolean mapChanged = viewport != null && viewport.update(dirty);
+        boolean moved = viewport != null && viewport.takeMoved();
+        if (!ansi || !drawn || moved || dirty.size() > (height * width) / 3) {
+            renderFull();
+        } else {
+            renderDirty(dirty, mapChanged);
+        }
+        world.clearDirty();
+    }
+
+    /**
+     * Writes the whole board or window, clearing the screen first in ANSI mode.
+     */
+    public void renderFull()
+    {
+        if (viewport != null) {
+            top = viewport.getTop();
+            left = viewport.getLeft();
+        }
+        length = 0;
+        if (ansi) {
+            csi();
+            put('H');
+            csi();
+            put('2');
+            put('J');
+        }
+        put(' ');
+        put(' ');
+        for (int j = left; j < left + width; j++) {
+            putInt(j);
+            put(' ');
+        }
+        for (int i = top; i < top + height; i++) {
+            put('\n');
+            putInt(i);
+            put(' ');
+            for (int j = left; j < left + width; j++) {
+                put(Cell.character(world.cellAt(i * columns + j)));
+                put(' ');
+            }
+        }
+        put('\n');
+        if (viewport != null) {
+            putMap();
+        }
+        flush();
+        drawn = true;
+    }
+
+    private void renderDirty(IntList dirty, boolean mapChanged)
+    {
+        ensureCapacity((dirty.size() + 1) * MAX_CELL_UPDATE + 4 + mapSize());
+        length = 0;
+        for (int k = 0; k < dirty.size(); k++) {
+            int index = dirty.get(k);
+            int i = index / columns;
+            int j = index % columns;
+            if (i < top || i >= top + height || j < left || j >= left + width) {
+                continue;
+            }
+            // Row i is on terminal line i - top + 2, its cells start after the row label and a space
+            moveTo(i - top + 2, digits(i) + 2 + 2 * (j - left));
+            put(Cell.character(world.cellAt(index)));
+        }
+        if (mapChanged) {
+            // The map is small, its rows are written again as a whole
+            for (int i = 0; i < viewport.getMapRows(); i++) {
+                moveTo(height + 3 + i, 2);
+                for (int j = 0; j < viewport.getMapColumns(); j++) {
+                    put(viewport.mapCharacter(i, j));
+                }
+            }
+        }
+        moveTo(height + 2 + (viewport == null ? 0 : viewport.getMapRows() + 2), 1);
+        csi();
+        put('J');
+        flush();
+    }
+
+    /**
+     * Writes the title of the map, a line per map row with '>' in front of the rows the window shows, and a line
+     * with '^' below the columns it shows.
+     */
+    private void putMap()
+    {
+        String title = viewport.title();
+        for (int k = 0; k < title.length(); k++) {
+            put(title.charAt(k));
+        }
+        for (int i = 0; i < viewport.getMapRows(); i++) {
+            put('\n');
+            put(viewport.isMapRowShown(i) ? '>' : ' ');
+            for (int j = 0; j < viewport.getMapColumns(); j++) {
+                put(viewport.mapCharacter(i, j));
+            }
+        }
+        put('\n');
+        put(' ');
+        for (int j = 0; j < viewport.getMapColumns(); j++) {
+            put(viewport.isMapColumnShown(j) ? '^' : ' ');
+        }
+        put('\n');
+    }
+
+    private void moveTo(int line, int column)
+    {
+        csi();
+        putInt(line);
+        put(';');
+        putInt(column);
+        put('H');
+    }
+
+    /**
+     * Writes the control sequence introducer ESC [ that starts every sequence used here.
+     */
+    private void csi()
+    {
+        buffer[length++] = ESC;
+        put('[');
+    }
+
+    private void put(char c) {
+        buffer[length++] = (byte) c;
+    }
+
+    private void putInt(int value)
+    {
+        int end = length + digits(value);
+        for (int at = end - 1; at >= length; at--) {
+            buffer[at] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length = end;
+    }
+
+    private void flush()
+    {
+        out.write(buffer, 0, length);
+        out.flush();
+    }
+
+    private void ensureCapacity(int size)
+    {
+        if (buffer.length < size) {
+            buffer = new byte[size];
+        }
+    }
+
+    /**
+     * Returns the size of a full frame at most, wherever the window is.
+     */
+    private int fullFrameSize()
+    {
+        long size = 16 + 2;
+        size += (long) width * (digits(columns - 1) + 1);
+        size += (long) height * (1 + digits(rows - 1) + 1 + 2L * width);
+        return (int) Math.min(Integer.MAX_VALUE - 8, size + 1 + mapSize());
+    }
+
+    private int mapSize()
+    {
+        if (viewport == null) {
+            return 0;
+        }
+        // The title holds eight numbers of at most ten digits and some sixty characters of text
+        return 160 + (viewport.getMapRows() + 1) * (viewport.getMapColumns() + 2)
+                + viewport.getMapRows() * MAX_CELL_UPDATE;
+    }
+
+    private static int digits(int value)
+    {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
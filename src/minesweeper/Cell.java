@@ -0,0 +1,70 @@
+package minesweeper;
+
+/**
+ * Bit layout of a single packed board cell.
+ * <pre>
+ *   bit  7    mine flag
+ *   bits 4-6  visible state (ordinal of {@link BlockType})
+ *   bits 0-3  number of adjacent mines (0-8)
+ * </pre>
+ * A freshly zeroed byte is therefore a covered, mine-free cell with no adjacent mines.
+ */
+final class Cell
+{
+    static final int MINE_BIT = 0x80;
+    static final int STATE_MASK = 0x70;
+    static final int STATE_SHIFT = 4;
+    static final int COUNT_MASK = 0x0F;
+
+    private static final BlockType[] STATES = BlockType.values();
+    private static final char[] CHARACTERS = characters();
+
+    private Cell() {}
+
+    static boolean isMine(byte cell) {
+        return (cell & MINE_BIT) != 0;
+    }
+
+    static int adjacentMines(byte cell) {
+        return cell & COUNT_MASK;
+    }
+
+    static BlockType state(byte cell) {
+        return STATES[(cell & STATE_MASK) >>> STATE_SHIFT];
+    }
+
+    static byte withState(byte cell, BlockType state) {
+        return (byte) ((cell & ~STATE_MASK) | (state.ordinal() << STATE_SHIFT));
+    }
+
+    static byte withAdjacentMines(byte cell, int count) {
+        return (byte) ((cell & ~COUNT_MASK) | count);
+    }
+
+    /**
+     * Returns the character shown on the board for the given cell.
+     */
+    static char character(byte cell) {
+        return CHARACTERS[cell & (STATE_MASK | COUNT_MASK)];
+    }
+
+    /**
+     * The characters of all states and counts, so rendering a cell is a single lookup.
+     */
+    private static char[] characters()
+    {
+        char[] characters = new char[STATES.length << STATE_SHIFT];
+        for (int i = 0; i < characters.length; i++) {
+            BlockType state = STATES[i >>> STATE_SHIFT];
+            characters[i] = switch (state) {
+                case UNKNOWN -> '-';
+                case MINE -> '*';
+                case MARKED -> '?';
+                case BLANK -> ' ';
+                case DISCOVERED -> (char) ('0' + (i & COUNT_MASK));
+                case IN_PROGRESS -> 'X';
+            };
+        }
+        return characters;
+    }
+}
@@ -0,0 +1,586 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A world for boards far too large to allocate up front, up to the full int range in endless mode.
+ * <p>
+ * The board is cut into 64x64 tiles. A tile's mines are planted only when the tile is first needed,
+ * from the world seed and the tile coordinates, using the same exact-count rule as {@link World} per
+ * tile. Untouched tiles take no memory. Touching a tile also plants the mine bitmaps of its eight
+ * neighbors so adjacency counts, flood fills and chords work across tile borders. A tile whose safe
+ * cells are all revealed is compacted to its mine, flag and exploded-mine bitmaps, so memory grows
+ * with the explored area rather than the board area.
+ * <p>
+ * Neighbors are visited with long coordinates, so the blocks at {@link Integer#MIN_VALUE} and
+ * {@link Integer#MAX_VALUE} of an endless world simply have no neighbors beyond them.
+ */
+public class ChunkedWorld
+{
+    static final int TILE_BITS = 6;
+    static final int TILE_SIZE = 1 << TILE_BITS;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final int WORDS = TILE_SIZE * TILE_SIZE / Long.SIZE;
+    private static final int MIN_TILE = Integer.MIN_VALUE >> TILE_BITS;
+    private static final int MAX_TILE = Integer.MAX_VALUE >> TILE_BITS;
+
+    private final long seed;
+    private final int difficulty;
+    private final boolean endless;
+    private final int ROWS;
+    private final int COLUMNS;
+
+    private final Map<Long, Tile> tiles = new HashMap<>();
+
+    private long mineCount;
+    private long revealedCount;
+    private long marks;
+    private long minesHit;
+    private int activeTiles;
+    private int compactedTiles;
+
+    /** Work queue of packed coordinates for flood fills, reused between calls. */
+    private long[] queue = new long[64];
+
+    /**
+     * Creates a bounded world of the given size. Sizes beyond what {@link World} can hold are fine here.
+     */
+    public ChunkedWorld(int x, int y, int difficulty, long seed) throws IndexOutOfBoundsException
+    {
+        if (x <= 0 || y <= 0) {
+            throw new IndexOutOfBoundsException("Dimensions must be positive. Current: " + x + "X" + y);
+        }
+        this.seed = seed;
+        this.difficulty = difficulty;
+        this.endless = false;
+        ROWS = x;
+        COLUMNS = y;
+        mineCount = countMines(x, y);
+    }
+
+    private ChunkedWorld(int difficulty, long seed)
+    {
+        this.seed = seed;
+        this.difficulty = difficulty;
+        this.endless = true;
+        ROWS = -1;
+        COLUMNS = -1;
+        mineCount = -1;
+    }
+
+    /**
+     * Creates a world without borders: every int coordinate, negative ones included, is a valid cell.
+     */
+    public static ChunkedWorld endless(int difficulty, long seed) {
+        return new ChunkedWorld(difficulty, seed);
+    }
+
+    /**
+     * Sums the per-tile mine counts of a bounded board without planting anything.
+     */
+    private long countMines(int x, int y)
+    {
+        long fullRows = x >>> TILE_BITS, fullColumns = y >>> TILE_BITS;
+        int restRows = x & TILE_MASK, restColumns = y & TILE_MASK;
+        return fullRows * fullColumns * World.minesFor(TILE_SIZE * TILE_SIZE, difficulty)
+                + fullRows * (restColumns == 0 ? 0 : World.minesFor(TILE_SIZE * restColumns, difficulty))
+                + fullColumns * (restRows == 0 ? 0 : World.minesFor(restRows * TILE_SIZE, difficulty))
+                + (restRows == 0 || restColumns == 0 ? 0 : World.minesFor(restRows * restColumns, difficulty));
+    }
+
+    public boolean isEndless() {
+        return endless;
+    }
+
+    public int getRows() {
+        return ROWS;
+    }
+
+    public int getColumns() {
+        return COLUMNS;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Returns the total number of mines, or -1 for an endless world.
+     */
+    public long getMineCount() {
+        return mineCount;
+    }
+
+    public long getRevealedCount() {
+        return revealedCount;
+    }
+
+    public long getMarks() {
+        return marks;
+    }
+
+    public long getMinesHit() {
+        return minesHit;
+    }
+
+    /**
+     * Returns true if every safe cell of a bounded world has been revealed.
+     */
+    public boolean won() {
+        return !endless && revealedCount == (long) ROWS * COLUMNS - mineCount;
+    }
+
+    public boolean isValid(int x, int y) {
+        return endless || (x >= 0 && x < ROWS && y >= 0 && y < COLUMNS);
+    }
+
+    /**
+     * Returns true for the neighbor of a block, which may lie beyond the int range.
+     */
+    private boolean isValid(long x, long y) {
+        return x == (int) x && y == (int) y && isValid((int) x, (int) y);
+    }
+
+    public BlockType getState(int x, int y)
+    {
+        Tile tile = tiles.get(tileKey(x >> TILE_BITS, y >> TILE_BITS));
+        int local = local(x, y);
+        if (tile == null) {
+            return BlockType.UNKNOWN;
+        } else if (tile.cells != null) {
+            return Cell.state(tile.cells[local]);
+        } else if (!tile.compacted) {
+            return BlockType.UNKNOWN;
+        } else if (!tile.isMine(local)) {
+            return countAdjacentMines(x, y) == 0 ? BlockType.BLANK : BlockType.DISCOVERED;
+        } else if (isSet(tile.exploded, local)) {
+            return BlockType.MINE;
+        } else {
+            return isSet(tile.marked, local) ? BlockType.MARKED : BlockType.UNKNOWN;
+        }
+    }
+
+    /**
+     * Returns a window of the board drawn like {@link World#toString(int, int, int, int)}, clipped to the board.
+     * Only the tiles holding uncovered blocks of the window are looked at.
+     */
+    public String toString(int top, int left, int height, int width)
+    {
+        long bottom = endless ? (long) top + height : Math.min(ROWS, (long) top + height);
+        long right = endless ? (long) left + width : Math.min(COLUMNS, (long) left + width);
+        if (!endless) {
+            top = Math.max(0, top);
+            left = Math.max(0, left);
+        }
+        StringBuilder sb = new StringBuilder("  ");
+        for (long j = left; j < right && j == (int) j; j++) {
+            sb.append(j).append(" ");
+        }
+        for (long i = top; i < bottom && i == (int) i; i++) {
+            sb.append("\n").append(i).append(" ");
+            for (long j = left; j < right && j == (int) j; j++) {
+                BlockType state = getState((int) i, (int) j);
+                byte cell = Cell.withState((byte) 0, state);
+                if (state == BlockType.DISCOVERED) {
+                    cell = Cell.withAdjacentMines(cell, getAdjacentMinesCount((int) i, (int) j));
+                }
+                sb.append(Cell.character(cell)).append(" ");
+            }
+        }
+        return sb.toString();
+    }
+
+    public BlockType getOriginalState(int x, int y) {
+        return isMine(x, y) ? BlockType.MINE : BlockType.BLANK;
+    }
+
+    public int getAdjacentMinesCount(int x, int y)
+    {
+        Tile tile = tiles.get(tileKey(x >> TILE_BITS, y >> TILE_BITS));
+        if (tile != null && tile.cells != null) {
+            return Cell.adjacentMines(tile.cells[local(x, y)]);
+        }
+        return countAdjacentMines(x, y);
+    }
+
+    /**
+     * Reveals the given block and flood fills the connected blank area, crossing tile borders as needed.
+     *
+     * @return The number of cells revealed.
+     */
+    public int check(int x, int y)
+    {
+        if (!isValid(x, y) || isMine(x, y) || getState(x, y) != BlockType.UNKNOWN) {
+            return 0;
+        }
+        int tail = 0;
+        tail = reveal(x, y, tail);
+        return floodFill(0, tail);
+    }
+
+    /**
+     * Flags a covered block.
+     *
+     * @return False if the block is not covered.
+     */
+    public boolean mark(int x, int y)
+    {
+        if (!isValid(x, y) || getState(x, y) != BlockType.UNKNOWN) {
+            return false;
+        }
+        Tile tile = tile(x, y);
+        if (tile.compacted) {
+            tile.marked = set(tile.marked, local(x, y));
+        } else {
+            setState(tile, local(x, y), BlockType.MARKED);
+        }
+        marks++;
+        return true;
+    }
+
+    /**
+     * Removes a flag.
+     *
+     * @return False if the block is not flagged.
+     */
+    public boolean unmark(int x, int y)
+    {
+        if (!isValid(x, y) || getState(x, y) != BlockType.MARKED) {
+            return false;
+        }
+        Tile tile = tile(x, y);
+        if (tile.compacted) {
+            tile.marked[local(x, y) >>> 6] &= ~(1L << local(x, y));
+        } else {
+            setState(tile, local(x, y), BlockType.UNKNOWN);
+        }
+        marks--;
+        return true;
+    }
+
+    /**
+     * Reveals a mine the player stepped on.
+     */
+    public void explode(int x, int y)
+    {
+        Tile tile = tile(x, y);
+        if (tile.compacted) {
+            tile.exploded = set(tile.exploded, local(x, y));
+        } else {
+            setState(tile, local(x, y), BlockType.MINE);
+        }
+        minesHit++;
+    }
+
+    /**
+     * Auto-expands neighbors if the number of flags matches adjacent mines (Chord).
+     *
+     * @return The number of mines hit, or -1 if the block cannot be chorded.
+     */
+    public int forceExpand(int x, int y)
+    {
+        if (!isValid(x, y) || getState(x, y) != BlockType.DISCOVERED
+                || countAdjacent(x, y, BlockType.MARKED) != getAdjacentMinesCount(x, y)) {
+            return -1;
+        }
+        int hitMines = 0;
+        int tail = 0;
+        for (long nx = x - 1L; nx <= x + 1L; nx++) {
+            for (long ny = y - 1L; ny <= y + 1L; ny++) {
+                if ((nx == x && ny == y) || !isValid(nx, ny)) continue;
+                int cx = (int) nx, cy = (int) ny;
+                BlockType state = getState(cx, cy);
+                if (state == BlockType.UNKNOWN) {
+                    if (isMine(cx, cy)) {
+                        explode(cx, cy);
+                        hitMines++;
+                    } else {
+                        tail = reveal(cx, cy, tail);
+                    }
+                } else if (state == BlockType.MARKED && !isMine(cx, cy)) {
+                    // Incorrectly marked safe spot
+                    unmark(cx, cy);
+                }
+            }
+        }
+        floodFill(0, tail);
+        return hitMines;
+    }
+
+    private int countAdjacent(int x, int y, BlockType state)
+    {
+        int count = 0;
+        for (long nx = x - 1L; nx <= x + 1L; nx++) {
+            for (long ny = y - 1L; ny <= y + 1L; ny++) {
+                if ((nx != x || ny != y) && isValid(nx, ny) && getState((int) nx, (int) ny) == state) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Expands the queued cells in {@code [head, tail)}, appending newly revealed ones.
+     *
+     * @return The total number of cells revealed, i.e. the final queue length.
+     */
+    private int floodFill(int head, int tail)
+    {
+        for (; head < tail; head++) {
+            int x = (int) (queue[head] >> 32);
+            int y = (int) queue[head];
+            if (getAdjacentMinesCount(x, y) != 0) continue;
+            for (long nx = x - 1L; nx <= x + 1L; nx++) {
+                for (long ny = y - 1L; ny <= y + 1L; ny++) {
+                    if (isValid(nx, ny) && !isMine((int) nx, (int) ny) && getState((int) nx, (int) ny) == BlockType.UNKNOWN) {
+                        tail = reveal((int) nx, (int) ny, tail);
+                    }
+                }
+            }
+        }
+        return tail;
+    }
+
+    private int reveal(int x, int y, int tail)
+    {
+        Tile tile = tile(x, y);
+        int local = local(x, y);
+        setState(tile, local, Cell.adjacentMines(tile.cells[local]) == 0 ? BlockType.BLANK : BlockType.DISCOVERED);
+        revealedCount++;
+        if (--tile.coveredSafe == 0) {
+            compact(tile);
+        }
+        if (tail == queue.length) {
+            queue = Arrays.copyOf(queue, tail << 1);
+        }
+        queue[tail] = ((long) x << 32) | (y & 0xFFFFFFFFL);
+        return tail + 1;
+    }
+
+    private void setState(Tile tile, int local, BlockType state) {
+        tile.cells[local] = Cell.withState(tile.cells[local], state);
+    }
+
+    /**
+     * Drops the packed cells of a resolved tile. Safe cells are all revealed and their numbers can be
+     * recomputed from the mine bitmaps, so only flags and exploded mines need to be kept.
+     */
+    private void compact(Tile tile)
+    {
+        for (int i = 0; i < tile.cells.length; i++) {
+            BlockType state = Cell.state(tile.cells[i]);
+            if (state == BlockType.MARKED) {
+                tile.marked = set(tile.marked, i);
+            } else if (state == BlockType.MINE) {
+                tile.exploded = set(tile.exploded, i);
+            }
+        }
+        tile.cells = null;
+        tile.compacted = true;
+        activeTiles--;
+        compactedTiles++;
+    }
+
+    public boolean isMine(int x, int y) {
+        return mineTile(x >> TILE_BITS, y >> TILE_BITS).isMine(local(x, y));
+    }
+
+    private int countAdjacentMines(int x, int y)
+    {
+        int mines = 0;
+        for (long nx = x - 1L; nx <= x + 1L; nx++) {
+            for (long ny = y - 1L; ny <= y + 1L; ny++) {
+                if ((nx != x || ny != y) && isValid(nx, ny) && isMine((int) nx, (int) ny)) {
+                    mines++;
+                }
+            }
+        }
+        return mines;
+    }
+
+    /**
+     * Returns the tile holding the given cell with its packed cells allocated, unless it has been compacted.
+     */
+    private Tile tile(int x, int y)
+    {
+        int tx = x >> TILE_BITS, ty = y >> TILE_BITS;
+        Tile tile = mineTile(tx, ty);
+        if (tile.cells == null && !tile.compacted) {
+            activate(tile, tx, ty);
+        }
+        return tile;
+    }
+
+    private void activate(Tile tile, int tx, int ty)
+    {
+        // The tile and its eight neighbors, so border cells can be counted without map lookups
+        Tile[] around = new Tile[9];
+        for (int i = -1; i <= 1; i++) {
+            for (int j = -1; j <= 1; j++) {
+                if (isValidTile(tx + i, ty + j)) {
+                    around[(i + 1) * 3 + j + 1] = mineTile(tx + i, ty + j);
+                }
+            }
+        }
+        byte[] cells = new byte[TILE_SIZE * TILE_SIZE];
+        int safe = 0;
+        for (int lx = 0; lx < tile.rows; lx++) {
+            for (int ly = 0; ly < tile.columns; ly++) {
+                int mines = 0;
+                for (int nx = lx - 1; nx <= lx + 1; nx++) {
+                    for (int ny = ly - 1; ny <= ly + 1; ny++) {
+                        if ((nx != lx || ny != ly) && isMine(around, nx, ny)) {
+                            mines++;
+                        }
+                    }
+                }
+                int local = (lx << TILE_BITS) | ly;
+                if (tile.isMine(local)) {
+                    cells[local] = (byte) Cell.MINE_BIT;
+                } else {
+                    safe++;
+                }
+                cells[local] = Cell.withAdjacentMines(cells[local], mines);
+            }
+        }
+        tile.cells = cells;
+        tile.coveredSafe = safe;
+        activeTiles++;
+        if (safe == 0) {
+            compact(tile);
+        }
+    }
+
+    /**
+     * Looks up a mine relative to the center of a 3x3 block of tiles, {@code lx} and {@code ly} range from -1 to 64.
+     */
+    private static boolean isMine(Tile[] around, int lx, int ly)
+    {
+        Tile tile = around[((lx >> TILE_BITS) + 1) * 3 + (ly >> TILE_BITS) + 1];
+        return tile != null && tile.isMine(local(lx, ly));
+    }
+
+    private boolean isValidTile(int tx, int ty)
+    {
+        if (endless) {
+            // The tiles beyond the int range hold no blocks
+            return tx >= MIN_TILE && tx <= MAX_TILE && ty >= MIN_TILE && ty <= MAX_TILE;
+        }
+        return tx >= 0 && ty >= 0 && tx << TILE_BITS < ROWS && ty << TILE_BITS < COLUMNS;
+    }
+
+    /**
+     * Returns the tile at the given tile coordinates, planting its mines if this is the first time it is needed.
+     */
+    private Tile mineTile(int tx, int ty)
+    {
+        long key = tileKey(tx, ty);
+        Tile tile = tiles.get(key);
+        if (tile == null) {
+            tile = plant(tx, ty);
+            tiles.put(key, tile);
+        }
+        return tile;
+    }
+
+    private Tile plant(int tx, int ty)
+    {
+        int rows = endless ? TILE_SIZE : Math.min(TILE_SIZE, ROWS - (tx << TILE_BITS));
+        int columns = endless ? TILE_SIZE : Math.min(TILE_SIZE, COLUMNS - (ty << TILE_BITS));
+        Tile tile = new Tile(rows, columns);
+        byte[] layout = new byte[rows * columns];
+        MinePlanter.plant(layout, World.minesFor(layout.length, difficulty), MinePlanter.key(seed, tileKey(tx, ty)));
+        for (int i = 0; i < layout.length; i++) {
+            if (Cell.isMine(layout[i])) {
+                int local = ((i / columns) << TILE_BITS) | (i % columns);
+                tile.mines[local >>> 6] |= 1L << local;
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Returns the number of tiles holding packed cells, i.e. touched but not yet resolved.
+     */
+    public int getActiveTiles() {
+        return activeTiles;
+    }
+
+    public int getCompactedTiles() {
+        return compactedTiles;
+    }
+
+    /**
+     * Returns the number of tiles of any kind currently in memory.
+     */
+    public int getLoadedTiles() {
+        return tiles.size();
+    }
+
+    /**
+     * Returns a rough estimate of the heap used by the tiles, in bytes.
+     */
+    public long estimateFootprint()
+    {
+        long bytes = (long) tiles.size() * (WORDS * Long.BYTES + 64);
+        bytes += (long) activeTiles * TILE_SIZE * TILE_SIZE;
+        for (Tile tile : tiles.values()) {
+            bytes += tile.marked == null ? 0 : WORDS * Long.BYTES;
+            bytes += tile.exploded == null ? 0 : WORDS * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    private static long tileKey(int tx, int ty) {
+        return ((long) tx << 32) | (ty & 0xFFFFFFFFL);
+    }
+
+    private static int local(int x, int y) {
+        return ((x & TILE_MASK) << TILE_BITS) | (y & TILE_MASK);
+    }
+
+    private static boolean isSet(long[] bits, int i) {
+        return bits != null && (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static long[] set(long[] bits, int i)
+    {
+        if (bits == null) {
+            bits = new long[WORDS];
+        }
+        bits[i >>> 6] |= 1L << i;
+        return bits;
+    }
+
+    /**
+     * One 64x64 tile. Cells are indexed as {@code row * 64 + column} even for partial tiles at the board edge.
+     */
+    private static final class Tile
+    {
+        final int rows;
+        final int columns;
+        final long[] mines = new long[WORDS];
+        /** Packed cells while the tile is being played, null before activation and after compaction. */
+        byte[] cells;
+        boolean compacted;
+        int coveredSafe;
+        long[] marked;
+        long[] exploded;
+
+        Tile(int rows, int columns) {
+            this.rows = rows;
+            this.columns = columns;
+        }
+
+        boolean isMine(int local) {
+            return (mines[local >>> 6] & (1L << local)) != 0;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package minesweeper;
+
+/**
+ * A single player move understood by the {@link GameEngine}.
+ *
+ * @param type The kind of move.
+ * @param x    The row of the targeted block, ignored for {@link Type#RESIGN}.
+ * @param y    The column of the targeted block, ignored for {@link Type#RESIGN}.
+ */
+public record Command(
+        Type type,
+        int x,
+        int y
+) {
+    /**
+     * Enumeration of the moves a player can make.
+     */
+    public enum Type {
+        REVEAL,     // Uncover a block, flood filling blank areas.
+        FLAG,       // Mark a covered block as a suspected mine.
+        UNFLAG,     // Remove a mark.
+        CHORD,      // Auto-expand around a discovered block whose mines are all marked.
+        RESIGN      // Give up the game.
+    }
+
+    public static Command reveal(int x, int y) {
+        return new Command(Type.REVEAL, x, y);
+    }
+
+    public static Command flag(int x, int y) {
+        return new Command(Type.FLAG, x, y);
+    }
+
+    public static Command unflag(int x, int y) {
+        return new Command(Type.UNFLAG, x, y);
+    }
+
+    public static Command chord(int x, int y) {
+        return new Command(Type.CHORD, x, y);
+    }
+
+    public static Command resign() {
+        return new Command(Type.RESIGN, -1, -1);
+    }
+}
@@ -0,0 +1,197 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary form of a game: a fixed header followed by three bit planes.
+ * <pre>
+ *   int   magic "MSWP"       short version        short reserved
+ *   int   rows               int   columns
+ *   byte  difficulty         byte  status ordinal byte  layout ordinal     byte guess-free
+ *   long  seed
+ *   int   mine count         int   toCover        int   marksLeft
+ *   int   minesLeft          int   livesLeft
+ *   long  journal entries
+ *   long  plant seed
+ *   long[] mines, long[] revealed, long[] marked   (ceil(cells / 64) words each)
+ * </pre>
+ * Bit {@code i % 64} of word {@code i / 64} of a plane stands for the cell with row-major index i. Adjacency
+ * counts are not stored, they follow from the mines. The journal entries are the number of {@link MoveJournal}
+ * entries that lead to the saved game, {@link #NO_JOURNAL} if it was not journaled. The layout, plant seed and
+ * guess-free flag let a restored game continue the journal of a deferred layout. Version 1 lacks the journal
+ * entries and is read as not journaled, versions 1 and 2 lack the planting and are read as seeded boards. All
+ * values are big-endian.
+ */
+final class GameCodec
+{
+    static final int MAGIC = 0x4D535750;
+    static final short VERSION = 3;
+    static final int HEADER_BYTES = 64;
+    private static final int VERSION_1_HEADER_BYTES = 48;
+    private static final int VERSION_2_HEADER_BYTES = 56;
+    static final long NO_JOURNAL = -1;
+
+    private static final GameStatus[] STATUSES = GameStatus.values();
+    private static final MineLayout[] LAYOUTS = MineLayout.values();
+
+    private GameCodec() {}
+
+    /**
+     * Returns the number of bytes {@link #write} needs for the given world.
+     */
+    static long encodedSize(World world) {
+        return HEADER_BYTES + 3L * planeWords(world.getRows() * world.getColumns()) * Long.BYTES;
+    }
+
+    static int planeWords(int cellCount) {
+        return (cellCount + 63) >>> 6;
+    }
+
+    static void write(GameEngine engine, ByteBuffer out) {
+        write(engine, NO_JOURNAL, out);
+    }
+
+    /**
+     * Writes the game at the position of the buffer, which must have {@link #encodedSize} bytes left.
+     *
+     * @param journalEntries The number of journal entries up to the game, or {@link #NO_JOURNAL}.
+     * @throws IllegalStateException If the world still waits for its first reveal to plant its mines.
+     */
+    static void write(GameEngine engine, long journalEntries, ByteBuffer out)
+    {
+        World world = engine.getWorld();
+        if (!world.isPlanted()) {
+            throw new IllegalStateException("Nothing to save before the first reveal");
+        }
+        int cellCount = world.getRows() * world.getColumns();
+        out.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) 0)
+                .putInt(world.getRows())
+                .putInt(world.getColumns())
+                .put((byte) world.getDifficulty())
+                .put((byte) engine.getStatus().ordinal())
+                .put((byte) world.getLayout().ordinal())
+                .put((byte) (world.isGuessFree() ? 1 : 0))
+                .putLong(world.getSeed())
+                .putInt(world.getMineCount())
+                .putInt(world.getToCover())
+                .putInt(world.getMarksLeft())
+                .putInt(world.getMinesLeft())
+                .putInt(engine.getLivesLeft())
+                .putLong(journalEntries)
+                .putLong(world.getPlantSeed());
+        for (int plane = 0; plane < 3; plane++) {
+            for (int word = 0; word < planeWords(cellCount); word++) {
+                long bits = 0;
+                int end = Math.min(cellCount, (word + 1) << 6);
+                for (int i = word << 6; i < end; i++) {
+                    if (inPlane(plane, world.cellAt(i))) {
+                        bits |= 1L << i;
+                    }
+                }
+                out.putLong(bits);
+            }
+        }
+    }
+
+    /**
+     * Reads a game written by {@link #write} from the position of the buffer.
+     *
+     * @throws IOException If the buffer does not hold a game of a known version.
+     */
+    static GameEngine read(ByteBuffer in) throws IOException
+    {
+        Header header = readHeader(in);
+        int words = planeWords(header.rows() * header.columns());
+        long[][] planes = new long[3][words];
+        for (long[] plane : planes) {
+            for (int word = 0; word < words; word++) {
+                plane[word] = in.getLong();
+            }
+        }
+        World world = new World(header.rows(), header.columns(), header.difficulty(), header.seed(), header.layout(),
+                header.plantSeed(), header.guessFree(), planes[0], planes[1], planes[2],
+                header.toCover(), header.marksLeft(), header.minesLeft());
+        if (world.getMineCount() != header.mineCount()) {
+            throw new IOException("Corrupted game: " + world.getMineCount() + " mines, expected " + header.mineCount());
+        }
+        return new GameEngine(world, header.livesLeft(), header.status());
+    }
+
+    /**
+     * Reads and checks the header at the position of the buffer.
+     */
+    static Header readHeader(ByteBuffer in) throws IOException
+    {
+        if (in.remaining() < VERSION_1_HEADER_BYTES || in.getInt() != MAGIC) {
+            throw new IOException("Not a MineSweeper game");
+        }
+        short version = in.getShort();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported game version " + version);
+        }
+        int headerBytes = version == 1 ? VERSION_1_HEADER_BYTES : version == 2 ? VERSION_2_HEADER_BYTES : HEADER_BYTES;
+        if (in.remaining() < headerBytes - 6) {
+            throw new IOException("Not a MineSweeper game");
+        }
+        in.getShort();
+        int rows = in.getInt();
+        int columns = in.getInt();
+        int difficulty = in.get();
+        int status = in.get();
+        int layout = version < 3 ? MineLayout.SEEDED.ordinal() : in.get();
+        boolean guessFree = version >= 3 && in.get() != 0;
+        if (version < 3) {
+            in.getShort();
+        }
+        long seed = in.getLong();
+        int mineCount = in.getInt(), toCover = in.getInt(), marksLeft = in.getInt(), minesLeft = in.getInt(), livesLeft = in.getInt();
+        long journalEntries = version == 1 ? NO_JOURNAL : in.getLong();
+        long plantSeed = version < 3 ? seed : in.getLong();
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > World.MAX_CELLS || (difficulty != 1 && difficulty != 2)
+                || status < 0 || status >= STATUSES.length || layout < 0 || layout >= LAYOUTS.length) {
+            throw new IOException("Corrupted game header");
+        }
+        Header header = new Header(rows, columns, difficulty, STATUSES[status], LAYOUTS[layout], seed, mineCount,
+                toCover, marksLeft, minesLeft, livesLeft, journalEntries, plantSeed, guessFree);
+        if (in.remaining() < 3L * planeWords(rows * columns) * Long.BYTES) {
+            throw new IOException("Truncated game: " + in.remaining() + " bytes of bit planes left");
+        }
+        return header;
+    }
+
+    /**
+     * Returns whether a cell belongs to the mine (0), revealed (1) or marked (2) plane.
+     */
+    private static boolean inPlane(int plane, byte cell)
+    {
+        BlockType state = Cell.state(cell);
+        return switch (plane) {
+            case 0 -> Cell.isMine(cell);
+            case 1 -> state == BlockType.BLANK || state == BlockType.DISCOVERED || state == BlockType.MINE;
+            default -> state == BlockType.MARKED;
+        };
+    }
+
+    /**
+     * The fixed-size part of a saved game.
+     */
+    record Header(
+            int rows,
+            int columns,
+            int difficulty,
+            GameStatus status,
+            MineLayout layout,
+            long seed,
+            int mineCount,
+            int toCover,
+            int marksLeft,
+            int minesLeft,
+            int livesLeft,
+            long journalEntries,
+            long plantSeed,
+            boolean guessFree
+    ) {}
+}
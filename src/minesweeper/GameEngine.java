@@ -0,0 +1,315 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Headless game rules on top of a {@link World}: commands go in, typed results come out, nothing is printed or read.
+ */
+public class GameEngine
+{
+    private final World world;
+
+    private int livesLeft;
+    private GameStatus status = GameStatus.PLAYING;
+    private UndoHistory history;
+    private final IntList hit = new IntList(1);
+    private final IntList none = new IntList(1);
+    /** Blocks uncovered by the last move: the world's reveal list, {@link #hit} or {@link #none}. */
+    private IntList lastRevealed = none;
+    private int lastMinesHit;
+    private long searchNanos = NoGuessGenerator.MAX_SEARCH_NANOS;
+
+    public GameEngine(World world)
+    {
+        this.world = world;
+        this.livesLeft = livesFor(world.getDifficulty());
+    }
+
+    /**
+     * Resumes a saved game.
+     */
+    GameEngine(World world, int livesLeft, GameStatus status)
+    {
+        this.world = world;
+        this.livesLeft = livesLeft;
+        this.status = status;
+    }
+
+    public GameEngine(int x, int y, int difficulty, long seed) {
+        this(new World(x, y, difficulty, seed));
+    }
+
+    /**
+     * Returns the number of extra lives granted on the given difficulty: one on Medium, none on Hard.
+     */
+    public static int livesFor(int difficulty) {
+        return difficulty == 2 ? 0 : 1;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    public int getLivesLeft() {
+        return livesLeft;
+    }
+
+    /**
+     * Applies every command in order. Commands after the end of the game are answered with {@link MoveResult.Outcome#GAME_OVER}.
+     */
+    public List<MoveResult> apply(List<Command> commands)
+    {
+        List<MoveResult> results = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            results.add(apply(command));
+        }
+        return results;
+    }
+
+    /**
+     * Starts keeping the moves applied from now on, so they can be undone and redone. At most the given number of
+     * cell changes is kept move by move, older moves are folded together, see {@link UndoHistory}.
+     */
+    public void enableUndo(int maxChanges) {
+        history = new UndoHistory(this, maxChanges);
+    }
+
+    public void enableUndo() {
+        enableUndo(UndoHistory.DEFAULT_MAX_CHANGES);
+    }
+
+    public boolean canUndo() {
+        return history != null && history.canUndo();
+    }
+
+    public boolean canRedo() {
+        return history != null && history.canRedo();
+    }
+
+    /**
+     * Takes back the last move, or the last group of moves folded into a checkpoint, even after the game ended.
+     *
+     * @return False if there is nothing to undo.
+     */
+    public boolean undo() {
+        return history != null && history.undo();
+    }
+
+    /**
+     * Applies the last undone move again. Any new move drops the undone ones.
+     *
+     * @return False if there is nothing to redo.
+     */
+    public boolean redo() {
+        return history != null && history.redo();
+    }
+
+    /**
+     * Sets the lives and status an undo or redo returns to.
+     */
+    void restore(int livesLeft, GameStatus status)
+    {
+        this.livesLeft = livesLeft;
+        this.status = status;
+    }
+
+    /**
+     * Applies a single command.
+     */
+    public MoveResult apply(Command command)
+    {
+        MoveResult.Outcome outcome = play(command.type(), command.x(), command.y());
+        if (outcome != MoveResult.Outcome.APPLIED) {
+            return MoveResult.rejected(outcome, livesLeft, status);
+        }
+        int[] revealed = lastRevealed.size() == 0 ? MoveResult.NONE : lastRevealed.toArray();
+        return new MoveResult(outcome, revealed, lastMinesHit, livesLeft, status);
+    }
+
+    /**
+     * Applies a single move like {@link #apply(Command)}, but without creating a command or result: the blocks it
+     * uncovered are read from {@link #getLastRevealed()} and {@link #getLastMinesHit()}, the lives and status from
+     * their getters. Without {@link #enableUndo undo} a move allocates nothing, apart from planting the mines on
+     * the first reveal.
+     *
+     * @param x The row of the targeted block, ignored for {@link Command.Type#RESIGN} like the column y.
+     */
+    public MoveResult.Outcome play(Command.Type type, int x, int y)
+    {
+        lastRevealed = none;
+        lastMinesHit = 0;
+        if (history == null) {
+            return applyMove(type, x, y);
+        }
+        history.begin();
+        try {
+            return applyMove(type, x, y);
+        } finally {
+            history.end();
+        }
+    }
+
+    /**
+     * Returns the row-major indices of the blocks uncovered by the last move, mines included. The list belongs to the
+     * engine and is reused: it must not be modified and is only valid until the next move, undo or redo.
+     */
+    public IntList getLastRevealed() {
+        return lastRevealed;
+    }
+
+    /**
+     * Returns the number of mines uncovered by the last move.
+     */
+    public int getLastMinesHit() {
+        return lastMinesHit;
+    }
+
+    private MoveResult.Outcome applyMove(Command.Type type, int x, int y)
+    {
+        if (status != GameStatus.PLAYING) {
+            return MoveResult.Outcome.GAME_OVER;
+        }
+        if (type == Command.Type.RESIGN) {
+            status = GameStatus.LOST;
+            return MoveResult.Outcome.APPLIED;
+        }
+        if (!world.isValid(x, y)) {
+            return MoveResult.Outcome.OUT_OF_BOUNDS;
+        }
+        if (!world.isPlanted()) {
+            if (type != Command.Type.REVEAL) {
+                return MoveResult.Outcome.NOT_STARTED;
+            }
+            plantAround(x, y);
+        }
+        int index = world.indexOf(x, y);
+        MoveResult.Outcome outcome = switch (type) {
+            case REVEAL -> reveal(index);
+            case FLAG -> flag(index);
+            case UNFLAG -> unflag(index);
+            case CHORD -> chord(index);
+            case RESIGN -> throw new IllegalStateException();
+        };
+        if (outcome == MoveResult.Outcome.APPLIED) {
+            updateStatus();
+        }
+        return outcome;
+    }
+
+    /**
+     * Reveals a block and handles consequences (Game Over or Recursive Reveal).
+     */
+    private MoveResult.Outcome reveal(int index)
+    {
+        BlockType state = world.stateAt(index);
+        if (state == BlockType.MARKED) {
+            return MoveResult.Outcome.MARKED;
+        } else if (state != BlockType.UNKNOWN) {
+            return MoveResult.Outcome.ALREADY_REVEALED;
+        }
+
+        if (world.isMineAt(index)) {
+            world.decrementMinesLeft();
+            world.decrementToCover();
+            world.modifyBlock(index, BlockType.MINE);
+            loseLives(1);
+            hit.clear();
+            hit.add(index);
+            lastRevealed = hit;
+            lastMinesHit = 1;
+            return MoveResult.Outcome.APPLIED;
+        }
+        lastRevealed = world.check(index);
+        return MoveResult.Outcome.APPLIED;
+    }
+
+    /**
+     * Sets how long the first reveal of a {@link MineLayout#NO_GUESS} game searches for a guess-free board,
+     * {@link NoGuessGenerator#MAX_SEARCH_NANOS} by default.
+     */
+    void setSearchNanos(long searchNanos) {
+        this.searchNanos = searchNanos;
+    }
+
+    /**
+     * Lays out the mines of a deferred world around the first revealed block. A guess-free board is only searched
+     * where {@link NoGuessGenerator#isSupported supported}, otherwise it just starts safely.
+     */
+    private void plantAround(int x, int y)
+    {
+        if (world.getLayout() == MineLayout.NO_GUESS) {
+            NoGuessGenerator.plant(world, x, y, searchNanos);
+        } else {
+            world.plantAround(x, y, world.getSeed(), false);
+        }
+    }
+
+    private MoveResult.Outcome flag(int index)
+    {
+        if (world.stateAt(index) != BlockType.UNKNOWN) {
+            return MoveResult.Outcome.NOT_MARKABLE;
+        } else if (world.getMarksLeft() <= 0) {
+            return MoveResult.Outcome.NO_MARKS_LEFT;
+        }
+        if (world.isMineAt(index)) {
+            world.decrementMinesLeft();
+        }
+        world.decrementMarksLeft();
+        world.decrementToCover();
+        world.modifyBlock(index, BlockType.MARKED);
+        return MoveResult.Outcome.APPLIED;
+    }
+
+    private MoveResult.Outcome unflag(int index)
+    {
+        if (world.stateAt(index) != BlockType.MARKED) {
+            return MoveResult.Outcome.NOT_MARKED;
+        }
+        if (world.isMineAt(index)) {
+            world.incrementMinesLeft();
+        }
+        world.incrementMarksLeft();
+        world.incrementToCover();
+        world.modifyBlock(index, BlockType.UNKNOWN);
+        return MoveResult.Outcome.APPLIED;
+    }
+
+    private MoveResult.Outcome chord(int index)
+    {
+        int minesHit = world.forceExpand(index, world.stateAt(index));
+        if (minesHit < 0) {
+            return MoveResult.Outcome.INVALID_CHORD;
+        }
+        if (minesHit > 0) {
+            loseLives(minesHit);
+        }
+        lastRevealed = world.getLastRevealed();
+        lastMinesHit = minesHit;
+        return MoveResult.Outcome.APPLIED;
+    }
+
+    /**
+     * Ends the game if more mines were hit than lives are left, otherwise spends the 'Second Chance' life.
+     */
+    private void loseLives(int minesHit)
+    {
+        if (minesHit > livesLeft) {
+            status = GameStatus.LOST;
+        } else {
+            world.decrementMarksLeft();
+            livesLeft = 0;
+        }
+    }
+
+    private void updateStatus()
+    {
+        if (status == GameStatus.PLAYING && (world.won() || world.getToCover() == 0)) {
+            status = GameStatus.WON;
+        }
+    }
+}
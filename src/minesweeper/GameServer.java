@@ -0,0 +1,324 @@
+package minesweeper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many games in one JVM over a line-based TCP protocol on the loopback interface.
+ * <p>
+ * Every connection is served by its own thread and may play any number of games. Games live in a
+ * {@link SessionCache} keyed by their ID and each one is guarded by its own lock, so moves on different games
+ * never wait for each other; idle games are spilled to disk and read back on their next move. Requests and
+ * responses are single lines of space-separated tokens:
+ * <pre>
+ * NEW rows columns difficulty [seed]   -> GAME id rows columns mines
+ * REVEAL|FLAG|UNFLAG|CHORD id x y      -> outcome status livesLeft minesHit n index1 ... indexN
+ * RESIGN id                            -> outcome status livesLeft minesHit 0
+ * BOARD id                             -> BOARD rows, followed by one line of block characters per row
+ * END id                               -> ENDED id
+ * STATS                                -> STATS games resident hits misses evictions
+ * QUIT                                 -> BYE, then the connection is closed
+ * </pre>
+ * Malformed requests are answered with {@code ERR message}. A game can only be played, shown and ended on the
+ * connection that started it, other connections are told it is unknown. Games started on a connection are
+ * dropped when it closes.
+ */
+public class GameServer implements Closeable
+{
+    public static final int DEFAULT_PORT = 7777;
+    /** Largest board a client may start, keeps a single request from taking a large share of the heap. */
+    public static final int MAX_GAME_CELLS = 1 << 20;
+    public static final long DEFAULT_RESIDENT_BYTES = 256L << 20;
+    public static final Duration DEFAULT_IDLE = Duration.ofMinutes(5);
+    /** Cells of the boards of ended games kept for new ones, about 32 MB. */
+    public static final long POOLED_CELLS = 1L << 24;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = newThreadPerTaskExecutor();
+    private final SessionCache sessions;
+    /** Boards of ended games. A game is only reachable from its own connection, so its board is free once it ends. */
+    private final WorldPool worlds = new WorldPool(Runtime.getRuntime().availableProcessors(), POOLED_CELLS);
+    private final ScheduledExecutorService sweeper;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Thread acceptor;
+
+    /**
+     * Binds to the given port on the loopback interface, 0 picks a free one, and spills idle games to a
+     * temporary directory with the default bounds.
+     */
+    public GameServer(int port) throws IOException {
+        this(port, new SessionCache(Files.createTempDirectory("minesweeper-sessions"), DEFAULT_RESIDENT_BYTES, DEFAULT_IDLE));
+    }
+
+    /**
+     * Binds to the given port on the loopback interface, 0 picks a free one. The server closes the cache
+     * when it is closed.
+     */
+    public GameServer(int port, SessionCache sessions) throws IOException
+    {
+        this.sessions = sessions;
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::accept, "minesweeper-acceptor");
+        sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "minesweeper-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns an executor that runs every task on a new virtual thread where the JVM has them (Java 21+),
+     * otherwise on a cached pool of platform threads.
+     */
+    static ExecutorService newThreadPerTaskExecutor()
+    {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException exc) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public void start()
+    {
+        acceptor.start();
+        sweeper.scheduleWithFixedDelay(sessions::evict, 1, 1, TimeUnit.SECONDS);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public SessionCache getSessions() {
+        return sessions;
+    }
+
+    public WorldPool getWorlds() {
+        return worlds;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        serverSocket.close();
+        connections.shutdownNow();
+        sweeper.shutdownNow();
+        try {
+            acceptor.join(TimeUnit.SECONDS.toMillis(5));
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        }
+        sessions.close();
+    }
+
+    private void accept()
+    {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> serve(socket));
+            } catch (IOException exc) {
+                if (!serverSocket.isClosed()) {
+                    System.out.println("Accept failed: " + exc.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers the requests of one connection until it is closed.
+     */
+    private void serve(Socket socket)
+    {
+        Set<Long> owned = new HashSet<>();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            socket.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String response = handle(line, owned);
+                if (response == null) {
+                    out.write("BYE\n");
+                    out.flush();
+                    break;
+                }
+                out.write(response);
+                out.write('\n');
+                out.flush();
+            }
+        } catch (SocketException exc) {
+            // The client went away
+        } catch (IOException exc) {
+            System.out.println("Connection failed: " + exc.getMessage());
+        } finally {
+            for (long id : owned) {
+                sessions.remove(id, worlds);
+            }
+        }
+    }
+
+    /**
+     * Answers a single request line.
+     *
+     * @param owned The games started on the requesting connection, the only ones it may access.
+     * @return The response, or null if the connection should be closed.
+     */
+    String handle(String line, Set<Long> owned)
+    {
+        String[] tokens = line.trim().split("\\s+");
+        try {
+            switch (tokens[0].toUpperCase()) {
+                case "NEW" -> {
+                    int rows = Integer.parseInt(tokens[1]);
+                    int columns = Integer.parseInt(tokens[2]);
+                    int difficulty = Integer.parseInt(tokens[3]);
+                    if (difficulty != 1 && difficulty != 2) {
+                        return "ERR difficulty must be 1 or 2";
+                    } else if (rows > 0 && columns > 0 && (long) rows * columns > MAX_GAME_CELLS) {
+                        return "ERR boards are limited to " + MAX_GAME_CELLS + " blocks";
+                    }
+                    long seed = tokens.length > 4 ? Long.parseLong(tokens[4]) : MinePlanter.newSeed();
+                    World world = worlds.acquire(rows, columns, difficulty, seed);
+                    long id = nextId.getAndIncrement();
+                    sessions.put(id, new GameEngine(world));
+                    owned.add(id);
+                    return "GAME " + id + " " + rows + " " + columns + " " + world.getMineCount();
+                }
+                case "REVEAL" -> {
+                    return move(tokens, Command.Type.REVEAL, owned);
+                }
+                case "FLAG" -> {
+                    return move(tokens, Command.Type.FLAG, owned);
+                }
+                case "UNFLAG" -> {
+                    return move(tokens, Command.Type.UNFLAG, owned);
+                }
+                case "CHORD" -> {
+                    return move(tokens, Command.Type.CHORD, owned);
+                }
+                case "RESIGN" -> {
+                    return move(tokens, Command.Type.RESIGN, owned);
+                }
+                case "BOARD" -> {
+                    long id = Long.parseLong(tokens[1]);
+                    String board = owned.contains(id) ? sessions.apply(id, GameServer::board) : null;
+                    return board == null ? unknown(tokens[1]) : board;
+                }
+                case "END" -> {
+                    long id = Long.parseLong(tokens[1]);
+                    return owned.remove(id) && sessions.remove(id, worlds) ? "ENDED " + id : unknown(tokens[1]);
+                }
+                case "STATS" -> {
+                    return "STATS " + sessions.size() + " " + sessions.getResidentCount() + " " + sessions.getHits()
+                            + " " + sessions.getMisses() + " " + sessions.getEvictions();
+                }
+                case "QUIT" -> {
+                    return null;
+                }
+                default -> {
+                    return "ERR unknown request " + tokens[0];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException exc) {
+            return "ERR missing arguments";
+        } catch (NumberFormatException exc) {
+            return "ERR not a number: " + exc.getMessage();
+        } catch (IndexOutOfBoundsException | IllegalArgumentException | UncheckedIOException exc) {
+            return "ERR " + exc.getMessage();
+        }
+    }
+
+    private String move(String[] tokens, Command.Type type, Set<Long> owned)
+    {
+        long id = Long.parseLong(tokens[1]);
+        if (!owned.contains(id)) {
+            return unknown(tokens[1]);
+        }
+        int x = type == Command.Type.RESIGN ? 0 : Integer.parseInt(tokens[2]);
+        int y = type == Command.Type.RESIGN ? 0 : Integer.parseInt(tokens[3]);
+        String response = sessions.apply(id, engine -> format(engine, engine.play(type, x, y)));
+        return response == null ? unknown(tokens[1]) : response;
+    }
+
+    private static String unknown(String id) {
+        return "ERR unknown game " + id;
+    }
+
+    /**
+     * Formats the last move of a game, read while the game is still locked.
+     */
+    static String format(GameEngine engine, MoveResult.Outcome outcome)
+    {
+        IntList revealed = engine.getLastRevealed();
+        StringBuilder builder = new StringBuilder(32 + revealed.size() * 7);
+        builder.append(outcome).append(' ')
+                .append(engine.getStatus()).append(' ')
+                .append(engine.getLivesLeft()).append(' ')
+                .append(engine.getLastMinesHit()).append(' ')
+                .append(revealed.size());
+        for (int i = 0; i < revealed.size(); i++) {
+            builder.append(' ').append(revealed.get(i));
+        }
+        return builder.toString();
+    }
+
+    private static String board(GameEngine engine)
+    {
+        World world = engine.getWorld();
+        StringBuilder builder = new StringBuilder("BOARD ").append(world.getRows());
+        for (int i = 0; i < world.getRows(); i++) {
+            builder.append('\n');
+            for (int j = 0; j < world.getColumns(); j++) {
+                builder.append(Cell.character(world.cellAt(i * world.getColumns() + j)));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Runs a server until the process is stopped: {@code [port] [resident MB] [idle seconds]}.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        long residentBytes = args.length > 1 ? Long.parseLong(args[1]) << 20 : DEFAULT_RESIDENT_BYTES;
+        Duration idle = args.length > 2 ? Duration.ofSeconds(Long.parseLong(args[2])) : DEFAULT_IDLE;
+        SessionCache sessions = new SessionCache(Files.createTempDirectory("minesweeper-sessions"), residentBytes, idle);
+        GameServer server = new GameServer(port, sessions);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException exc) {
+                System.out.println("Shutdown failed: " + exc.getMessage());
+            }
+        }));
+        server.start();
+        System.out.println("MineSweeper server listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort());
+    }
+}
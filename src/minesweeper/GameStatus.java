@@ -0,0 +1,10 @@
+package minesweeper;
+
+/**
+ * Enumeration representing the overall state of a game.
+ */
+public enum GameStatus {
+    PLAYING,    // Moves are still accepted.
+    WON,        // Every safe block has been uncovered or marked.
+    LOST        // A mine was hit without lives left, or the player gave up.
+}
@@ -0,0 +1,274 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Tokenizer for console input, in place of {@link java.util.Scanner}: bytes are read into a large buffer and
+ * numbers are parsed by hand, without regular expressions or intermediate strings.
+ * <p>
+ * Tokens are separated by whitespace, commas and semicolons. A malformed token is consumed before the
+ * {@link InputMismatchException} is thrown, so the next read starts after it. Besides single numbers, a line may
+ * hold a batch of moves such as {@code c 3 4; m 5 6; x 7 7}, read with {@link #nextCommand()}, or with
+ * {@link #nextLetter()} and {@link #nextCommand(int)} where other letters are accepted as well:
+ * <pre>
+ *   c row column   check           m row column   mark
+ *   u row column   unmark          x row column   auto-expand
+ * </pre>
+ */
+public final class InputReader
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    public InputReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns the next byte without consuming it, or -1 at the end of the input.
+     */
+    private int peekByte()
+    {
+        if (position == limit) {
+            try {
+                // Blocks only until some input is there, a console hands over a line at a time
+                limit = in.read(buffer, 0, buffer.length);
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private static boolean isSeparator(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',' || b == ';';
+    }
+
+    /**
+     * Skips separators and returns the first byte of the next token without consuming it.
+     *
+     * @throws NoSuchElementException If the input has ended.
+     */
+    private int startOfToken()
+    {
+        int b;
+        while ((b = peekByte()) != -1 && isSeparator(b)) {
+            position++;
+        }
+        if (b == -1) {
+            throw new NoSuchElementException("No more input");
+        }
+        return b;
+    }
+
+    /**
+     * Skips the separators within a move and returns the first byte of the next number of its location, without
+     * looking past the end of the move, so a short move does not take the numbers of the next one.
+     *
+     * @throws InputMismatchException If the move ends first.
+     * @throws NoSuchElementException If the input has ended.
+     */
+    private int startOfLocation()
+    {
+        int b;
+        while ((b = peekByte()) == ' ' || b == '\t' || b == '\r' || b == ',') {
+            position++;
+        }
+        if (b == -1) {
+            throw new NoSuchElementException("No more input");
+        } else if (b == ';' || b == '\n') {
+            throw new InputMismatchException("Invalid input, expected a location");
+        }
+        return b;
+    }
+
+    /**
+     * Consumes the rest of a malformed token and returns the exception to report it with.
+     */
+    private InputMismatchException mismatch(String expected)
+    {
+        int b;
+        while ((b = peekByte()) != -1 && !isSeparator(b)) {
+            position++;
+        }
+        return new InputMismatchException("Invalid input, expected " + expected);
+    }
+
+    /**
+     * Reads the next token as an int.
+     *
+     * @throws InputMismatchException If the token is not a number in int range; the token is skipped.
+     * @throws NoSuchElementException If the input has ended.
+     */
+    public int nextInt() {
+        return parseInt(startOfToken());
+    }
+
+    /**
+     * Parses the number starting with the given byte, the next one of the input.
+     */
+    private int parseInt(int b)
+    {
+        boolean negative = b == '-';
+        if (b == '-' || b == '+') {
+            position++;
+            b = peekByte();
+        }
+        if (b < '0' || b > '9') {
+            throw mismatch("a number");
+        }
+        // Accumulated negatively, so Integer.MIN_VALUE fits as well
+        long value = 0;
+        while ((b = peekByte()) >= '0' && b <= '9') {
+            value = value * 10 - (b - '0');
+            position++;
+            if (value < Integer.MIN_VALUE) {
+                throw mismatch("a number");
+            }
+        }
+        if (b != -1 && !isSeparator(b)) {
+            throw mismatch("a number");
+        }
+        if (!negative && value == Integer.MIN_VALUE) {
+            throw mismatch("a number");
+        }
+        return (int) (negative ? value : -value);
+    }
+
+    /**
+     * Reads the next token as a string.
+     *
+     * @throws NoSuchElementException If the input has ended.
+     */
+    public String next()
+    {
+        startOfToken();
+        StringBuilder token = new StringBuilder();
+        int b;
+        while ((b = peekByte()) != -1 && !isSeparator(b)) {
+            token.append((char) b);
+            position++;
+        }
+        return token.toString();
+    }
+
+    /**
+     * Returns true if the next token starts with a letter, that is a batch of moves rather than a number.
+     *
+     * @throws NoSuchElementException If the input has ended.
+     */
+    public boolean hasCommand()
+    {
+        int b = startOfToken();
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    /**
+     * Reads a move of a batch: a letter, see above, and the row and column of the block.
+     *
+     * @throws InputMismatchException If the move is malformed; the rest of the move is skipped.
+     * @throws NoSuchElementException If the input has ended.
+     */
+    public Command nextCommand() {
+        return nextCommand(nextLetter());
+    }
+
+    /**
+     * Reads a single letter, such as the start of a move, in lower case.
+     *
+     * @throws InputMismatchException If the token is not a single letter; the rest of the move is skipped.
+     * @throws NoSuchElementException If the input has ended.
+     */
+    public int nextLetter()
+    {
+        int letter = startOfToken() | 0x20;
+        position++;
+        int b = peekByte();
+        if (letter < 'a' || letter > 'z' || (b != -1 && !isSeparator(b))) {
+            skipMove();
+            throw new InputMismatchException("Unknown move, expected c, m, u or x followed by a location");
+        }
+        return letter;
+    }
+
+    /**
+     * Reads the location of a move whose letter was read with {@link #nextLetter()}.
+     *
+     * @throws InputMismatchException If the letter is not a move or the location is malformed; the rest of the
+     *                                move is skipped.
+     * @throws NoSuchElementException If the input has ended.
+     */
+    public Command nextCommand(int letter)
+    {
+        Command.Type type = switch (letter) {
+            case 'c' -> Command.Type.REVEAL;
+            case 'm' -> Command.Type.FLAG;
+            case 'u' -> Command.Type.UNFLAG;
+            case 'x' -> Command.Type.CHORD;
+            default -> null;
+        };
+        if (type == null) {
+            skipMove();
+            throw new InputMismatchException("Unknown move, expected c, m, u or x followed by a location");
+        }
+        try {
+            return new Command(type, parseInt(startOfLocation()), parseInt(startOfLocation()));
+        } catch (InputMismatchException exc) {
+            skipMove();
+            throw exc;
+        }
+    }
+
+    /**
+     * Returns true if more moves of the current batch follow on the same line, otherwise consumes the line end.
+     */
+    public boolean hasMoreCommands()
+    {
+        int b;
+        while ((b = peekByte()) == ' ' || b == '\t' || b == '\r' || b == ';' || b == ',') {
+            position++;
+        }
+        if (b == '\n') {
+            position++;
+        }
+        return b != -1 && b != '\n';
+    }
+
+    /**
+     * Skips the rest of the current line, for example the moves of a batch that can no longer be applied.
+     */
+    public void skipLine()
+    {
+        int b;
+        while ((b = peekByte()) != -1 && b != '\n') {
+            position++;
+        }
+        if (b == '\n') {
+            position++;
+        }
+    }
+
+    /**
+     * Skips up to the end of the current move: the next semicolon or the end of the line.
+     */
+    private void skipMove()
+    {
+        int b;
+        while ((b = peekByte()) != -1 && b != ';' && b != '\n') {
+            position++;
+        }
+    }
+}
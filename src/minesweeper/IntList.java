@@ -0,0 +1,71 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used to hand out cell indices without boxing.
+ * Instances are meant to be reused: {@link #clear()} keeps the backing array.
+ */
+public final class IntList
+{
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this(16);
+    }
+
+    public IntList(int initialCapacity) {
+        values = new int[Math.max(1, initialCapacity)];
+    }
+
+    public void add(int value)
+    {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size << 1);
+        }
+        values[size++] = value;
+    }
+
+    public int get(int i)
+    {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+        return values[i];
+    }
+
+    public void set(int i, int value)
+    {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+        values[i] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops everything from the given position on.
+     */
+    public void truncate(int newSize) {
+        size = Math.min(size, Math.max(0, newSize));
+    }
+
+    /**
+     * Returns a copy of the current contents.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
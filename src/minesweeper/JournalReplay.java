@@ -0,0 +1,257 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a {@link MoveJournal} and rebuilds the game it records.
+ * <p>
+ * The file is mapped and decoded entry by entry without creating objects; {@link #replay()} applies every entry
+ * to a fresh {@link GameEngine} built from the seed in the header, nothing is rendered. A deferred layout is
+ * planted from the plant seed the header records; a version 1 journal of a guess-free board lacks it, so its
+ * search runs again without a deadline. Undo and redo entries are replayed with the default undo cap, which is
+ * the one the console plays with.
+ */
+public final class JournalReplay implements Closeable
+{
+    private static final Command.Type[] TYPES = Command.Type.values();
+    private static final MineLayout[] LAYOUTS = MineLayout.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer in;
+    private final Header header;
+
+    private int opcode;
+    private int index;
+    private long entries;
+
+    private JournalReplay(FileChannel channel, ByteBuffer in, Header header)
+    {
+        this.channel = channel;
+        this.in = in;
+        this.header = header;
+    }
+
+    /**
+     * The board a journal belongs to. The planting is only known once the journal saw the first reveal.
+     */
+    public record Header(
+            int version,
+            int rows,
+            int columns,
+            int difficulty,
+            MineLayout layout,
+            long seed,
+            int mineCount,
+            boolean planted,
+            long plantSeed,
+            boolean guessFree
+    ) {}
+
+    /**
+     * Maps a journal and checks its header.
+     *
+     * @throws IOException If the file is not a journal of a known version.
+     */
+    public static JournalReplay open(Path path) throws IOException
+    {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < MoveJournal.VERSION_1_HEADER_BYTES || in.getInt() != MoveJournal.MAGIC) {
+                throw new IOException(path + " is not a MineSweeper journal");
+            }
+            short version = in.getShort();
+            if (version != 1 && version != MoveJournal.VERSION) {
+                throw new IOException("Unsupported journal version " + version);
+            }
+            if (version == MoveJournal.VERSION && in.limit() < MoveJournal.HEADER_BYTES) {
+                throw new IOException("Truncated journal header");
+            }
+            in.getShort();
+            int rows = in.getInt();
+            int columns = in.getInt();
+            int difficulty = in.get();
+            int layout = in.get();
+            int flags = in.get();
+            in.get();
+            if (layout < 0 || layout >= LAYOUTS.length) {
+                throw new IOException("Unknown mine layout " + layout);
+            }
+            long seed = in.getLong();
+            int mineCount = in.getInt();
+            Header header;
+            if (version == 1) {
+                header = new Header(version, rows, columns, difficulty, LAYOUTS[layout], seed, mineCount, false, seed, false);
+            } else {
+                header = new Header(version, rows, columns, difficulty, LAYOUTS[layout], seed, mineCount,
+                        (flags & MoveJournal.PLANTED) != 0, in.getLong(), (flags & MoveJournal.GUESS_FREE) != 0);
+            }
+            return new JournalReplay(channel, in, header);
+        } catch (IOException | RuntimeException exc) {
+            channel.close();
+            throw exc;
+        }
+    }
+
+    /**
+     * Replays a whole journal.
+     */
+    public static GameEngine replay(Path path) throws IOException
+    {
+        try (JournalReplay replay = open(path)) {
+            return replay.replay();
+        }
+    }
+
+    public Header getHeader() {
+        return header;
+    }
+
+    /**
+     * Decodes the next entry.
+     *
+     * @return False at the end of the journal.
+     * @throws IOException If the journal ends within an entry or holds an unknown opcode.
+     */
+    public boolean next() throws IOException
+    {
+        if (!in.hasRemaining()) {
+            return false;
+        }
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (!in.hasRemaining() || shift > 28) {
+                throw new IOException("Truncated journal entry at byte " + in.position());
+            }
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        opcode = (int) (value & ((1 << MoveJournal.OPCODE_BITS) - 1));
+        if (opcode >= TYPES.length && opcode != MoveJournal.UNDO && opcode != MoveJournal.REDO) {
+            throw new IOException("Unknown journal opcode " + opcode);
+        }
+        int zigzag = (int) (value >>> MoveJournal.OPCODE_BITS);
+        index += (zigzag >>> 1) ^ -(zigzag & 1);
+        entries++;
+        return true;
+    }
+
+    /**
+     * Returns the kind of move of the current entry, or null for an undo or redo.
+     */
+    public Command.Type getType() {
+        return opcode < TYPES.length ? TYPES[opcode] : null;
+    }
+
+    public boolean isUndo() {
+        return opcode == MoveJournal.UNDO;
+    }
+
+    public boolean isRedo() {
+        return opcode == MoveJournal.REDO;
+    }
+
+    /**
+     * Returns the row-major index of the block targeted by the current entry.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the number of entries decoded so far.
+     */
+    public long getEntryCount() {
+        return entries;
+    }
+
+    /**
+     * Returns the byte offset of the end of the current entry in the file.
+     */
+    long getPosition() {
+        return in.position();
+    }
+
+    /**
+     * Returns the move of the current entry, or null for an undo or redo.
+     */
+    public Command getCommand()
+    {
+        Command.Type type = getType();
+        if (type == null) {
+            return null;
+        }
+        return type == Command.Type.RESIGN ? Command.resign() : new Command(type, index / header.columns(), index % header.columns());
+    }
+
+    /**
+     * Builds the board from the header and applies the remaining entries to it.
+     *
+     * @throws IOException If the board does not match the header or the journal is corrupted.
+     */
+    public GameEngine replay() throws IOException
+    {
+        World world = new World(header.rows(), header.columns(), header.difficulty(), header.seed(), header.layout());
+        if (world.getMineCount() != header.mineCount()) {
+            throw new IOException("The seed yields " + world.getMineCount() + " mines, the journal expects " + header.mineCount());
+        }
+        GameEngine engine = new GameEngine(world);
+        engine.enableUndo();
+        engine.setSearchNanos(Long.MAX_VALUE);
+        int columns = header.columns();
+        while (next()) {
+            if (isUndo()) {
+                engine.undo();
+            } else if (isRedo()) {
+                engine.redo();
+            } else {
+                int x = index / columns, y = index % columns;
+                if (header.planted() && !world.isPlanted() && opcode == Command.Type.REVEAL.ordinal()
+                        && engine.getStatus() == GameStatus.PLAYING && world.isValid(x, y)) {
+                    world.plantAround(x, y, header.plantSeed(), header.guessFree());
+                }
+                engine.play(getType(), x, y);
+            }
+        }
+        return engine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Replays a journal from the command line and prints the outcome: {@code journal [board]}.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 1) {
+            System.out.println("Usage: replay <journal> [board]");
+            return;
+        }
+        long start = System.nanoTime();
+        long moves;
+        GameEngine engine;
+        try (JournalReplay replay = open(Path.of(args[0]))) {
+            engine = replay.replay();
+            moves = replay.getEntryCount();
+        }
+        long elapsed = System.nanoTime() - start;
+        World world = engine.getWorld();
+        System.out.printf("%dx%d, seed %d: %d moves replayed in %.1f ms (%.0f moves/s), status %s, %d lives left, %d blocks to uncover%n",
+                world.getRows(), world.getColumns(), world.getSeed(), moves, elapsed / 1e6, moves * 1e9 / Math.max(1, elapsed),
+                engine.getStatus(), engine.getLivesLeft(), world.getToCover());
+        if (args.length > 1 && args[1].equals("board")) {
+            System.out.print(world);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package minesweeper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a {@link GameServer} with many concurrent games and reports throughput and move latency.
+ * <p>
+ * Every connection keeps a fixed number of games open and sends one move at a time, going round-robin
+ * over its games, so the number of concurrent games is connections times games per connection. Moves
+ * reveal random blocks the client has not seen uncovered yet; finished games are ended and replaced.
+ * Latency is measured per request, from writing it to reading the full response.
+ */
+public class LoadGenerator
+{
+    private final String host;
+    private final int port;
+    private final int rows;
+    private final int columns;
+    private final int difficulty;
+
+    public LoadGenerator(String host, int port, int rows, int columns, int difficulty)
+    {
+        this.host = host;
+        this.port = port;
+        this.rows = rows;
+        this.columns = columns;
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * Totals of a load run.
+     *
+     * @param moves     The number of moves answered.
+     * @param games     The number of games played to the end.
+     * @param elapsedNs The wall-clock time of the run.
+     * @param latency   Move latencies in nanoseconds.
+     */
+    public record Report(
+            long moves,
+            long games,
+            long elapsedNs,
+            LatencyHistogram latency
+    ) {
+        public double movesPerSecond() {
+            return elapsedNs == 0 ? 0 : moves * 1e9 / elapsedNs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("moves: %d (%.0f/s), finished games: %d, latency p50: %.1f us, p99: %.1f us, p99.9: %.1f us, max: %.1f us",
+                    moves, movesPerSecond(), games, latency.percentile(0.5) / 1e3, latency.percentile(0.99) / 1e3,
+                    latency.percentile(0.999) / 1e3, latency.getMax() / 1e3);
+        }
+    }
+
+    /**
+     * Runs the given number of connections for the given time.
+     */
+    public Report run(int connections, int gamesPerConnection, long seconds) throws InterruptedException
+    {
+        ExecutorService executor = GameServer.newThreadPerTaskExecutor();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<long[]>> totals = new ArrayList<>(connections);
+        List<LatencyHistogram> latencies = new ArrayList<>(connections);
+        for (int c = 0; c < connections; c++) {
+            LatencyHistogram latency = new LatencyHistogram();
+            latencies.add(latency);
+            long firstSeed = (long) c * gamesPerConnection;
+            totals.add(executor.submit(() -> drive(gamesPerConnection, firstSeed, deadline, latency)));
+        }
+        long moves = 0, games = 0;
+        LatencyHistogram latency = new LatencyHistogram();
+        try {
+            for (int c = 0; c < connections; c++) {
+                long[] total = totals.get(c).get();
+                moves += total[0];
+                games += total[1];
+                latency.add(latencies.get(c));
+            }
+        } catch (ExecutionException exc) {
+            throw new IllegalStateException("A connection failed", exc.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Report(moves, games, System.nanoTime() - start, latency);
+    }
+
+    /**
+     * Plays on one connection until the deadline and returns {moves, finished games}.
+     */
+    private long[] drive(int gameCount, long firstSeed, long deadline, LatencyHistogram latency)
+    {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            socket.setTcpNoDelay(true);
+            SplittableRandom random = new SplittableRandom(firstSeed);
+            Game[] games = new Game[gameCount];
+            long nextSeed = firstSeed;
+            for (int g = 0; g < gameCount; g++) {
+                games[g] = start(in, out, nextSeed++);
+            }
+            long moves = 0, finished = 0;
+            while (System.nanoTime() < deadline) {
+                for (int g = 0; g < gameCount; g++) {
+                    Game game = games[g];
+                    int cell = game.nextCovered(random);
+                    long sent = System.nanoTime();
+                    String response = request(in, out, "REVEAL " + game.id + " " + (cell / columns) + " " + (cell % columns));
+                    latency.record(System.nanoTime() - sent);
+                    moves++;
+                    String[] tokens = response.split(" ");
+                    for (int k = 5; k < tokens.length; k++) {
+                        game.uncovered[Integer.parseInt(tokens[k])] = true;
+                    }
+                    if (!tokens[1].equals(GameStatus.PLAYING.name())) {
+                        request(in, out, "END " + game.id);
+                        games[g] = start(in, out, nextSeed++);
+                        finished++;
+                    }
+                }
+            }
+            request(in, out, "QUIT");
+            return new long[] {moves, finished};
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    private Game start(BufferedReader in, Writer out, long seed) throws IOException
+    {
+        String response = request(in, out, "NEW " + rows + " " + columns + " " + difficulty + " " + seed);
+        if (!response.startsWith("GAME ")) {
+            throw new IOException("Unexpected response: " + response);
+        }
+        return new Game(Long.parseLong(response.split(" ")[1]), new boolean[rows * columns]);
+    }
+
+    private static String request(BufferedReader in, Writer out, String line) throws IOException
+    {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+        String response = in.readLine();
+        if (response == null) {
+            throw new IOException("Connection closed by the server");
+        }
+        return response;
+    }
+
+    /**
+     * The client's view of one game.
+     *
+     * @param id        The game ID on the server.
+     * @param uncovered Blocks known to be uncovered.
+     */
+    private record Game(long id, boolean[] uncovered)
+    {
+        int nextCovered(SplittableRandom random)
+        {
+            for (int attempt = 0; attempt < 32; attempt++) {
+                int cell = random.nextInt(uncovered.length);
+                if (!uncovered[cell]) return cell;
+            }
+            int start = random.nextInt(uncovered.length);
+            for (int i = 0; i < uncovered.length; i++) {
+                int cell = (start + i) % uncovered.length;
+                if (!uncovered[cell]) return cell;
+            }
+            return start;
+        }
+    }
+
+    /**
+     * Runs a load test from the command line:
+     * {@code host port connections gamesPerConnection seconds [rows columns difficulty]}.
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        if (args.length < 5) {
+            System.out.println("Usage: load <host> <port> <connections> <games per connection> <seconds> [rows columns difficulty]");
+            return;
+        }
+        int rows = args.length > 5 ? Integer.parseInt(args[5]) : 16;
+        int columns = args.length > 6 ? Integer.parseInt(args[6]) : 30;
+        int difficulty = args.length > 7 ? Integer.parseInt(args[7]) : 1;
+        LoadGenerator generator = new LoadGenerator(args[0], Integer.parseInt(args[1]), rows, columns, difficulty);
+        System.out.println(generator.run(Integer.parseInt(args[2]), Integer.parseInt(args[3]), Long.parseLong(args[4])));
+    }
+}
@@ -1,8 +1,31 @@
 package minesweeper;
 
+import java.util.Arrays;
+
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        Metrics.install();
+        String[] rest = args.length > 0 ? Arrays.copyOfRange(args, 1, args.length) : args;
+        if (args.length > 0 && args[0].equals("simulate")) {
+            Simulation.main(rest);
+            return;
+        } else if (args.length > 0 && args[0].equals("server")) {
+            GameServer.main(rest);
+            return;
+        } else if (args.length > 0 && args[0].equals("load")) {
+            LoadGenerator.main(rest);
+            return;
+        } else if (args.length > 0 && args[0].equals("replay")) {
+            JournalReplay.main(rest);
+            return;
+        } else if (args.length > 0 && args[0].equals("generate")) {
+            NoGuessGenerator.main(rest);
+            return;
+        } else if (args.length > 0 && args[0].equals("shared")) {
+            SharedWorld.main(rest);
+            return;
+        }
         MineSweeper mines = new MineSweeper();
         mines.start();
     }
-}
\ No newline at end of file
+}
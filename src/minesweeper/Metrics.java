@@ -0,0 +1,240 @@
+package minesweeper;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts and times the hot operations of {@link World}: reveals, chords, renders and board generation.
+ * <p>
+ * Collection is switched on for the whole run with {@code -Dminesweeper.metrics=true}. The switch is a
+ * constant, so when it is off the JIT drops the instrumentation from the hot paths altogether; when it is
+ * on, counters are {@link LongAdder}s and latencies go to {@link StripedHistogram}s, so threads playing
+ * different games do not contend. {@link #install()} publishes the metrics as the JMX MBean
+ * {@value #OBJECT_NAME} and, with {@code -Dminesweeper.metrics.dump=<seconds>}, prints them periodically.
+ */
+public final class Metrics implements MetricsMBean
+{
+    public static final boolean ENABLED = Boolean.getBoolean("minesweeper.metrics");
+    public static final String OBJECT_NAME = "minesweeper:type=Metrics";
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final LongAdder checkCalls = new LongAdder();
+    private final StripedHistogram checkCells = new StripedHistogram();
+    private final StripedHistogram checkTimes = new StripedHistogram();
+    private final LongAdder chordCalls = new LongAdder();
+    private final LongAdder invalidChords = new LongAdder();
+    private final LongAdder chordMinesHit = new LongAdder();
+    private final LongAdder chordCells = new LongAdder();
+    private final StripedHistogram chordTimes = new StripedHistogram();
+    private final LongAdder renderBytes = new LongAdder();
+    private final StripedHistogram renderTimes = new StripedHistogram();
+    private final StripedHistogram generationTimes = new StripedHistogram();
+
+    private Metrics() {}
+
+    public static Metrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records a {@code check} that revealed the given number of cells.
+     */
+    static void recordCheck(long ns, int cells)
+    {
+        INSTANCE.checkCalls.increment();
+        INSTANCE.checkCells.record(cells);
+        INSTANCE.checkTimes.record(ns);
+    }
+
+    /**
+     * Records a {@code forceExpand}, a negative number of mines standing for an invalid chord.
+     */
+    static void recordChord(long ns, int minesHit, int cells)
+    {
+        INSTANCE.chordCalls.increment();
+        if (minesHit < 0) {
+            INSTANCE.invalidChords.increment();
+        } else {
+            INSTANCE.chordMinesHit.add(minesHit);
+            INSTANCE.chordCells.add(cells);
+        }
+        INSTANCE.chordTimes.record(ns);
+    }
+
+    static void recordRender(long ns, int chars)
+    {
+        INSTANCE.renderBytes.add(chars);
+        INSTANCE.renderTimes.record(ns);
+    }
+
+    static void recordGeneration(long ns) {
+        INSTANCE.generationTimes.record(ns);
+    }
+
+    /**
+     * Registers the MBean and starts the periodic dump if one is configured. Does nothing when metrics are off.
+     */
+    public static void install()
+    {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (JMException exc) {
+            System.out.println("Could not register the metrics MBean: " + exc.getMessage());
+        }
+        long seconds = Long.getLong("minesweeper.metrics.dump", 0);
+        if (seconds > 0) {
+            startDump(Duration.ofSeconds(seconds), System.err);
+        }
+    }
+
+    /**
+     * Prints {@link #dump()} to the given stream at a fixed rate from a daemon thread.
+     */
+    public static ScheduledExecutorService startDump(Duration period, PrintStream out)
+    {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "minesweeper-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> out.println(INSTANCE.dump()), period.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS);
+        return executor;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getCheckCalls() {
+        return checkCalls.sum();
+    }
+
+    @Override
+    public long getCellsRevealedByChecks() {
+        return checkCells.snapshot().getSum();
+    }
+
+    @Override
+    public long getCheckP50Nanos() {
+        return checkTimes.snapshot().percentile(0.5);
+    }
+
+    @Override
+    public long getCheckP99Nanos() {
+        return checkTimes.snapshot().percentile(0.99);
+    }
+
+    @Override
+    public long getLargestCheck() {
+        return checkCells.snapshot().getMax();
+    }
+
+    @Override
+    public long getChordCalls() {
+        return chordCalls.sum();
+    }
+
+    @Override
+    public long getInvalidChords() {
+        return invalidChords.sum();
+    }
+
+    @Override
+    public long getChordMinesHit() {
+        return chordMinesHit.sum();
+    }
+
+    @Override
+    public long getCellsRevealedByChords() {
+        return chordCells.sum();
+    }
+
+    @Override
+    public long getChordP99Nanos() {
+        return chordTimes.snapshot().percentile(0.99);
+    }
+
+    @Override
+    public long getRenderCalls() {
+        return renderTimes.snapshot().getCount();
+    }
+
+    @Override
+    public long getRenderedBytes() {
+        return renderBytes.sum();
+    }
+
+    @Override
+    public long getRenderP50Nanos() {
+        return renderTimes.snapshot().percentile(0.5);
+    }
+
+    @Override
+    public long getRenderP99Nanos() {
+        return renderTimes.snapshot().percentile(0.99);
+    }
+
+    @Override
+    public long getWorldsGenerated() {
+        return generationTimes.snapshot().getCount();
+    }
+
+    @Override
+    public long getGenerationP50Nanos() {
+        return generationTimes.snapshot().percentile(0.5);
+    }
+
+    @Override
+    public long getGenerationP99Nanos() {
+        return generationTimes.snapshot().percentile(0.99);
+    }
+
+    @Override
+    public long getGenerationMaxNanos() {
+        return generationTimes.snapshot().getMax();
+    }
+
+    @Override
+    public String dump()
+    {
+        LatencyHistogram cells = checkCells.snapshot(), checks = checkTimes.snapshot(), chords = chordTimes.snapshot();
+        LatencyHistogram renders = renderTimes.snapshot(), generations = generationTimes.snapshot();
+        return String.format("check: %d calls, %d cells (p50 %d, max %d per call), p50 %.1f us, p99 %.1f us%n"
+                        + "chord: %d calls, %d invalid, %d mines hit, %d cells, p50 %.1f us, p99 %.1f us%n"
+                        + "render: %d calls, %d bytes, p50 %.1f us, p99 %.1f us%n"
+                        + "generation: %d worlds, p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                checks.getCount(), cells.getSum(), cells.percentile(0.5), cells.getMax(), checks.percentile(0.5) / 1e3, checks.percentile(0.99) / 1e3,
+                chords.getCount(), invalidChords.sum(), chordMinesHit.sum(), chordCells.sum(), chords.percentile(0.5) / 1e3, chords.percentile(0.99) / 1e3,
+                renders.getCount(), renderBytes.sum(), renders.percentile(0.5) / 1e3, renders.percentile(0.99) / 1e3,
+                generations.getCount(), generations.percentile(0.5) / 1e6, generations.percentile(0.99) / 1e6, generations.getMax() / 1e6);
+    }
+
+    @Override
+    public void reset()
+    {
+        checkCalls.reset();
+        checkCells.clear();
+        checkTimes.clear();
+        chordCalls.reset();
+        invalidChords.reset();
+        chordMinesHit.reset();
+        chordCells.reset();
+        chordTimes.clear();
+        renderBytes.reset();
+        renderTimes.clear();
+        generationTimes.clear();
+    }
+}
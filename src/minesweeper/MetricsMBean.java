@@ -0,0 +1,52 @@
+package minesweeper;
+
+/**
+ * Management interface of {@link Metrics}, times are in nanoseconds.
+ */
+public interface MetricsMBean
+{
+    boolean isEnabled();
+
+    long getCheckCalls();
+
+    long getCellsRevealedByChecks();
+
+    long getCheckP50Nanos();
+
+    long getCheckP99Nanos();
+
+    long getLargestCheck();
+
+    long getChordCalls();
+
+    long getInvalidChords();
+
+    long getChordMinesHit();
+
+    long getCellsRevealedByChords();
+
+    long getChordP99Nanos();
+
+    long getRenderCalls();
+
+    long getRenderedBytes();
+
+    long getRenderP50Nanos();
+
+    long getRenderP99Nanos();
+
+    long getWorldsGenerated();
+
+    long getGenerationP50Nanos();
+
+    long getGenerationP99Nanos();
+
+    long getGenerationMaxNanos();
+
+    /**
+     * Returns all metrics as text, the same as the periodic dump.
+     */
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,10 @@
+package minesweeper;
+
+/**
+ * Enumeration of the ways a {@link World} lays out its mines.
+ */
+public enum MineLayout {
+    SEEDED,     // Planted when the world is created, from the seed alone.
+    SAFE_START, // Planted at the first reveal, never on or next to the revealed block, so it opens an area.
+    NO_GUESS    // Like SAFE_START, on a board the solver clears without guessing, see NoGuessGenerator.
+}
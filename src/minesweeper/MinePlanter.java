@@ -0,0 +1,240 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Seeded, exact-count mine placement.
+ * <p>
+ * Every cell {@code i} draws the key {@code mix64(seed + (i + 1) * GOLDEN_GAMMA)}, which is the
+ * {@code i}-th value of {@code new SplittableRandom(seed).nextLong()}. The mines are the {@code count}
+ * cells with the smallest keys (ties broken by index), so a seed always yields the same board no
+ * matter how the work is split up. Keys are compared as unsigned numbers, except on boards of fewer
+ * than 512 cells, which use a single bucket and compare them as signed ones. Large boards are split into stripes that are processed on the
+ * common fork-join pool: one pass builds a histogram of the key prefixes to find the threshold bucket,
+ * a second pass plants everything below it and collects the few candidates inside it.
+ */
+final class MinePlanter
+{
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /** Cells per stripe, boards smaller than this are planted on the calling thread. */
+    private static final int STRIPE = 1 << 18;
+
+    /** Buffers of the boards planted on the calling thread, kept so repeated games allocate next to nothing. */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private MinePlanter() {}
+
+    /**
+     * Returns a fresh random seed.
+     */
+    static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    /**
+     * Sets the mine bit of exactly {@code count} cells of the given board.
+     */
+    static void plant(byte[] cells, int count, long seed) {
+        plant(cells, cells.length, count, seed);
+    }
+
+    /**
+     * Plants into the first {@code length} cells of the given array, which may be longer, exactly as
+     * {@link #plant(byte[], int, long)} plants a board of that length.
+     */
+    static void plant(byte[] cells, int length, int count, long seed)
+    {
+        if (count <= 0) {
+            return;
+        }
+        // Aim for a few hundred candidates in the threshold bucket, the result does not depend on it
+        int bits = Math.max(0, Math.min(16, 31 - Integer.numberOfLeadingZeros(length) - 8));
+        int stripes = (length + STRIPE - 1) / STRIPE;
+
+        Scratch scratch = stripes == 1 ? SCRATCH.get() : null;
+        int[] histogram;
+        if (scratch != null) {
+            histogram = histogram(0, length, seed, bits, scratch.histogram(1 << bits));
+        } else {
+            int[][] histograms = new int[stripes][];
+            stripes(stripes).forEach(s -> histograms[s] = histogram(s, length, seed, bits, new int[1 << bits]));
+            histogram = histograms[0];
+            for (int s = 1; s < stripes; s++) {
+                for (int b = 0; b < histogram.length; b++) {
+                    histogram[b] += histograms[s][b];
+                }
+            }
+        }
+
+        int bucket = 0;
+        int below = 0;
+        while (below + histogram[bucket] < count) {
+            below += histogram[bucket++];
+        }
+        int threshold = bucket;
+        int need = count - below;
+
+        Candidates[] candidates;
+        if (scratch != null) {
+            candidates = scratch.stripes;
+            candidates[0].size = 0;
+            plantBelow(cells, length, 0, seed, bits, threshold, candidates[0]);
+        } else {
+            candidates = new Candidates[stripes];
+            stripes(stripes).forEach(s -> candidates[s] = plantBelow(cells, length, s, seed, bits, threshold, new Candidates()));
+        }
+        plantThresholdBucket(cells, candidates, need, scratch);
+    }
+
+    /**
+     * Returns a zeroed array of at least the given length to plant into. Up to one stripe it is a buffer of the
+     * calling thread, which is only valid until the thread's next call.
+     */
+    static byte[] scratchCells(int length) {
+        return length <= STRIPE ? SCRATCH.get().cells(length) : new byte[length];
+    }
+
+    private static IntStream stripes(int stripes) {
+        IntStream range = IntStream.range(0, stripes);
+        return stripes > 1 ? range.parallel() : range;
+    }
+
+    private static int[] histogram(int stripe, int length, long seed, int bits, int[] histogram)
+    {
+        int end = Math.min(length, (stripe + 1) * STRIPE);
+        for (int i = stripe * STRIPE; i < end; i++) {
+            histogram[bucket(key(seed, i), bits)]++;
+        }
+        return histogram;
+    }
+
+    private static Candidates plantBelow(byte[] cells, int length, int stripe, long seed, int bits, int threshold,
+                                         Candidates candidates)
+    {
+        int end = Math.min(length, (stripe + 1) * STRIPE);
+        for (int i = stripe * STRIPE; i < end; i++) {
+            long key = key(seed, i);
+            int bucket = bucket(key, bits);
+            if (bucket < threshold) {
+                cells[i] |= Cell.MINE_BIT;
+            } else if (bucket == threshold) {
+                candidates.add(key, i);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Plants the {@code need} smallest keys of the threshold bucket in signed order. With at least one prefix
+     * bit all candidates share the sign bit, so this is also their unsigned order, the one the buckets follow.
+     * Without prefix bits, on boards of fewer than 512 cells, every key is a candidate and the order is the
+     * signed one alone. It is a total order either way, so the board does not depend on the stripes.
+     */
+    private static void plantThresholdBucket(byte[] cells, Candidates[] candidates, int need, Scratch scratch)
+    {
+        int total = 0;
+        for (Candidates c : candidates) {
+            total += c.size;
+        }
+        long[] sorted = scratch != null ? scratch.sorted(total) : new long[total];
+        int offset = 0;
+        for (Candidates c : candidates) {
+            System.arraycopy(c.keys, 0, sorted, offset, c.size);
+            offset += c.size;
+        }
+        Arrays.sort(sorted, 0, total);
+        long last = sorted[need - 1];
+        int ties = 0;
+        for (int i = need - 1; i >= 0 && sorted[i] == last; i--) {
+            ties++;
+        }
+        // Candidates are visited in index order, so equal keys go to the lower index
+        for (Candidates c : candidates) {
+            for (int i = 0; i < c.size; i++) {
+                if (c.keys[i] < last || (c.keys[i] == last && ties-- > 0)) {
+                    cells[c.indices[i]] |= Cell.MINE_BIT;
+                }
+            }
+        }
+    }
+
+    private static int bucket(long key, int bits) {
+        return bits == 0 ? 0 : (int) (key >>> (64 - bits));
+    }
+
+    /**
+     * The {@code index}-th output of {@code new SplittableRandom(seed)}, computed without stepping through the others.
+     */
+    static long key(long seed, long index)
+    {
+        long z = seed + (index + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Keys and cell indices of one stripe that fall into the threshold bucket.
+     */
+    private static final class Candidates
+    {
+        long[] keys = new long[16];
+        int[] indices = new int[16];
+        int size;
+
+        void add(long key, int index)
+        {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+                indices = Arrays.copyOf(indices, size << 1);
+            }
+            keys[size] = key;
+            indices[size++] = index;
+        }
+    }
+
+    /**
+     * Buffers reused by the boards planted on one thread, see {@link #SCRATCH}.
+     */
+    private static final class Scratch
+    {
+        final Candidates[] stripes = {new Candidates()};
+        private int[] histogram = new int[1];
+        private long[] sorted = new long[16];
+        private byte[] cells = new byte[0];
+
+        /**
+         * Returns a zeroed histogram of the given size.
+         */
+        int[] histogram(int size)
+        {
+            if (histogram.length != size) {
+                histogram = new int[size];
+            } else {
+                Arrays.fill(histogram, 0);
+            }
+            return histogram;
+        }
+
+        long[] sorted(int size)
+        {
+            if (sorted.length < size) {
+                sorted = new long[Math.max(size, sorted.length << 1)];
+            }
+            return sorted;
+        }
+
+        byte[] cells(int length)
+        {
+            if (cells.length < length) {
+                cells = new byte[length];
+            } else {
+                Arrays.fill(cells, 0, length, (byte) 0);
+            }
+            return cells;
+        }
+    }
+}
@@ -1,25 +1,54 @@
 package minesweeper;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.InputMismatchException;
-import java.util.Scanner;
+import java.util.NoSuchElementException;
 
 /**
  * Main controller for the Minesweeper game loop and user input.
  */
 public class MineSweeper
 {
+    /** Largest row/column count offered on the console, boards beyond {@link World#MAX_CELLS} are chunked. */
+    private static final int MAX_DIMENSION = 1_000_000_000;
+    /** Where the console saves the game in progress and loads it from. */
+    private static final Path SAVE_FILE = Path.of("minesweeper.save");
+    /** Where every game is journaled, one file per seed, see {@link #journalOf(World)}. */
+    private static final Path JOURNAL_DIRECTORY = Path.of("journals");
+    /** Boards with more rows or columns than this are shown through a {@link Viewport} of the size below. */
+    private static final int MAX_FULL_DIMENSION = 30;
+    private static final int VIEWPORT_ROWS = 20;
+    private static final int VIEWPORT_COLUMNS = 30;
+
+    private GameEngine engine;
     private World world;
+    private BoardRenderer renderer;
+    /** The window shown of a large board, null if the whole board is shown. */
+    private Viewport viewport;
+    /**
+     * The board of a game beyond {@link World#MAX_CELLS}, null for other games. It is played without an engine, so
+     * its lives and status are kept here, and undo, hints, saves and journals are not offered.
+     */
+    private ChunkedWorld chunked;
+    private int chunkedLives;
+    private GameStatus chunkedStatus;
+    private MoveJournal journal;
+    private final Solver solver = new Solver();
+    /** Prepares the board of the next game with the settings of the current one. */
+    private final WorldPregenerator pregenerator = new WorldPregenerator();
+    private boolean sameSettings = false;
 
-    private final Scanner scanner;
+    private final InputReader reader;
 
-    private int livesLeft;
     private boolean won = false;
     private boolean lost = false;
     boolean worldGenerated = false;
 
     public MineSweeper()
     {
-        this.scanner = new Scanner(System.in);
+        this.reader = new InputReader(System.in);
     }
 
     /**
@@ -29,16 +58,22 @@ public class MineSweeper
     {
         System.out.println("Hello! Welcome to the MineSweeper by Josefu17");
         boolean running = true;
-        do {
-            if (result()) {
-                initializeGame();
-                run();
-            } else {
-                if (won) System.out.println("Goodbye champ! See you next time.");
-                else if (lost) System.out.println("Goodbye! See you next time.");
-                running = false;
-            }
-        } while (running);
+        try {
+            do {
+                if (result()) {
+                    initializeGame();
+                    run();
+                } else {
+                    if (won) System.out.println("Goodbye champ! See you next time.");
+                    else if (lost) System.out.println("Goodbye! See you next time.");
+                    running = false;
+                }
+            } while (running);
+        } catch (NoSuchElementException exc) {
+            // Piped or scripted input has run out
+            closeJournal();
+            System.out.println("No more input, goodbye!");
+        }
     }
 
     /**
@@ -48,26 +83,25 @@ public class MineSweeper
     {
         if (!worldGenerated)
             return;
-        while (!(won || lost)) {
-            if (world.won()) {
-                won = true;
-                break;
-            }
-            Coordinate coordinate;
+        if (chunked != null) {
+            runChunked();
+            return;
+        }
+        while (engine.getStatus() == GameStatus.PLAYING) {
+            int index;
             try {
-                if (world.getToCover() == 0 && !lost) {
-                    won = true;
-                    break;
-                }
-                coordinate = nextLocation(scanner);
-                if (coordinate == null)
+                index = nextLocation();
+                if (index < 0)
                     continue;
-                nextAction(coordinate);
+                nextAction(index);
 
             } catch (InputMismatchException exc) {
                 System.out.println(exc.getMessage());
             }
         }
+        closeJournal();
+        won = engine.getStatus() == GameStatus.WON;
+        lost = engine.getStatus() == GameStatus.LOST;
     }
 
 
@@ -79,48 +113,159 @@ public class MineSweeper
         won = false;
         lost = false;
         worldGenerated = false;
+        if (sameSettings && chunked != null) {
+            startChunkedGame(chunked.getRows(), chunked.getColumns(), chunked.getDifficulty());
+            return;
+        } else if (sameSettings) {
+            startGame(WorldPregenerator.Settings.of(world));
+            return;
+        }
 
         int inputX;
         int inputY;
         int inputDiff;
         while (!worldGenerated) {
-            inputX = getValidatedInput("Number of Rows (1-30, -1 for quit):", scanner);
+            inputX = getValidatedInput("Number of Rows (1-" + MAX_DIMENSION + ", -1 for quit, 0 to load the saved game):");
             if (inputX == -1) {
                 System.out.println("Terminating the program, goodbye and see you next time dear gamer.");
                 return;
+            } else if (inputX == 0) {
+                worldGenerated = load();
+                continue;
             }
 
-            inputY = getValidatedInput("Number of Columns: (1 - 30, -1 for quit)", scanner);
+            inputY = getValidatedInput("Number of Columns: (1 - " + MAX_DIMENSION + ", -1 for quit)");
             if (inputY == -1) {
                 System.out.println("Terminating the program, goodbye and see you next time dear gamer.");
                 return;
             }
+            if (inputY == 0) {
+                System.out.println("A board needs at least one column, please try again.");
+                continue;
+            }
 
             System.out.println("Please choose Difficulty: \n 1- Medium \n 2- Hard");
-            inputDiff = scanner.nextInt();
+            inputDiff = reader.nextInt();
             if (inputDiff != 1 && inputDiff != 2) {
                 System.out.println("Invalid Difficulty option, please try again.");
                 continue;
             }
 
-            world = new World(inputX, inputY, inputDiff);
-            livesLeft = inputDiff == 2 ? 0 : 1;
+            System.out.println("Please choose the board: \n 1- Classic \n 2- Safe first check \n 3- No guessing needed");
+            int inputLayout = reader.nextInt();
+            if (inputLayout < 1 || inputLayout > 3) {
+                System.out.println("Invalid board option, please try again.");
+                continue;
+            }
+            MineLayout layout = MineLayout.values()[inputLayout - 1];
+            if (layout == MineLayout.NO_GUESS && !NoGuessGenerator.isSupported(inputX, inputY, inputDiff)) {
+                System.out.println("Boards without guessing are only available on Medium with up to "
+                        + NoGuessGenerator.MAX_CELLS + " blocks, please try again.");
+                continue;
+            }
+            if ((long) inputX * inputY > World.MAX_CELLS) {
+                if (layout != MineLayout.SEEDED) {
+                    System.out.println("Boards of more than " + World.MAX_CELLS + " blocks are only available as classic "
+                            + "boards, please try again.");
+                    continue;
+                }
+                startChunkedGame(inputX, inputY, inputDiff);
+                continue;
+            }
 
-            System.out.println("Good Luck!");
-            worldGenerated = true;
+            startGame(new WorldPregenerator.Settings(inputX, inputY, inputDiff, layout));
         }
     }
 
     /**
-     * Validates that user input is an integer within the accepted range (1-30).
+     * Starts a new game on a board with the given settings and prepares the board of the game after it.
+     */
+    private void startGame(WorldPregenerator.Settings settings)
+    {
+        use(new GameEngine(pregenerator.take(settings)));
+        pregenerator.prepare(settings);
+        openJournal();
+
+        System.out.println("Good Luck!");
+        worldGenerated = true;
+    }
+
+    /**
+     * Starts a new game on a board beyond {@link World#MAX_CELLS}, whose tiles are only planted once they are needed.
+     */
+    private void startChunkedGame(int rows, int columns, int difficulty)
+    {
+        chunked = new ChunkedWorld(rows, columns, difficulty, MinePlanter.newSeed());
+        chunkedLives = GameEngine.livesFor(difficulty);
+        chunkedStatus = GameStatus.PLAYING;
+        viewport = new Viewport(chunked, VIEWPORT_ROWS, VIEWPORT_COLUMNS);
+        pregenerator.cancel();
+        System.out.println("This board is too large to be kept in memory as a whole, its blocks are laid out as you "
+                + "explore it. Undo, hints and saving are not available on it. Good Luck!");
+        worldGenerated = true;
+    }
+
+    private void use(GameEngine engine)
+    {
+        chunked = null;
+        engine.enableUndo();
+        this.engine = engine;
+        world = engine.getWorld();
+        viewport = world.getRows() > MAX_FULL_DIMENSION || world.getColumns() > MAX_FULL_DIMENSION
+                ? new Viewport(world, VIEWPORT_ROWS, VIEWPORT_COLUMNS) : null;
+        renderer = new BoardRenderer(world, System.out, BoardRenderer.ansiSupported(), viewport);
+    }
+
+    /**
+     * Continues the game saved in {@link #SAVE_FILE}, returns false if there is none to continue.
      */
-    private static int getValidatedInput(String message, Scanner scanner)
+    private boolean load()
+    {
+        try {
+            SaveFile file = SaveFile.open(SAVE_FILE);
+            GameEngine saved = file.load();
+            if (saved.getStatus() != GameStatus.PLAYING) {
+                System.out.println("The saved game is already over.");
+                return false;
+            }
+            use(saved);
+            pregenerator.prepare(WorldPregenerator.Settings.of(world));
+            continueJournal(file.getJournalEntries());
+            System.out.println("Welcome back!");
+            return true;
+        } catch (IOException exc) {
+            System.out.println("Could not load " + SAVE_FILE + ": " + exc.getMessage());
+            return false;
+        }
+    }
+
+    private void save()
+    {
+        if (!world.isPlanted()) {
+            System.out.println("Nothing to save before your first check.");
+            return;
+        }
+        try {
+            if (journal != null) {
+                journal.flush();
+            }
+            SaveFile.save(engine, SAVE_FILE, journal == null ? -1 : journal.getEntryCount());
+            System.out.println("Game saved to " + SAVE_FILE.toAbsolutePath());
+        } catch (IOException exc) {
+            System.out.println("Could not save the game: " + exc.getMessage());
+        }
+    }
+
+    /**
+     * Validates that user input is an integer within the accepted range (0-MAX_DIMENSION).
+     */
+    private int getValidatedInput(String message)
     {
         while (true) {
             try {
                 System.out.println(message);
-                int input = scanner.nextInt();
-                if (input == -1 || (input > 0 && input < 31)) {
+                int input = reader.nextInt();
+                if (input == -1 || (input >= 0 && input <= MAX_DIMENSION)) {
                     return input;
                 } else {
                     throw new InputMismatchException();
@@ -134,134 +279,421 @@ public class MineSweeper
     /**
      * Processes the user's choice (Check, Mark, Unmark, Expand) for a specific block.
      */
-    private void nextAction(Coordinate coordinate)
+    private void nextAction(int index)
     {
-        int x = coordinate.x(), y = coordinate.y();
-        BlockType currentState = world.getState(coordinate.x(), coordinate.y());
-        world.modifyBlock(coordinate, BlockType.IN_PROGRESS);
+        int x = index / world.getColumns(), y = index % world.getColumns();
+        BlockType currentState = world.stateAt(index);
+        world.modifyBlock(index, BlockType.IN_PROGRESS);
+        if (viewport != null) {
+            viewport.follow(index);
+        }
 
-        System.out.println(world.toString());
+        renderer.render();
 
         System.out.println("Location: (" + x + "," + y + ")");
         System.out.println("Current State: " + currentState.toString().toLowerCase());
+        Command command = null;
         int input;
         try {
             if (currentState == BlockType.DISCOVERED) {
                 System.out.println("Your Action: ");
                 System.out.println("1- Auto-Expand\n2- Go Back");
-                input = scanner.nextInt();
+                input = reader.nextInt();
                 if (input == 1) {
-                    int minesHit = world.forceExpand(coordinate, currentState);
-                    if (minesHit < 0) {
-                        System.out.println("Invalid Expansion!");
-                    } else if (minesHit > livesLeft) {
-                        lost = true;
-                    } else if (minesHit > 0) {
-                        mightyTouch(coordinate);
-                    }
+                    command = Command.chord(x, y);
                 }
             } else {
                 System.out.println("Your Action: ");
                 System.out.println("1- Check\n2- Mark\n3- Unmark\n4- Go Back");
-                input = scanner.nextInt();
+                input = reader.nextInt();
                 switch (input) {
                     case 1 -> {
                         if (currentState == BlockType.MARKED) {
                             System.out.println("Location given is currently marked, you first need to unmark it in" +
                                     "order to be able to check it.");
                             System.out.println("1- Unmark\n2- Cancel");
-                            input = scanner.nextInt();
+                            input = reader.nextInt();
                             if (input == 1) {
-                                unmark(coordinate);
-                            } else if (input == 2) {
-                                world.modifyBlock(coordinate, BlockType.MARKED);
-                            } else {
+                                command = Command.unflag(x, y);
+                            } else if (input != 2) {
                                 System.out.println("Invalid input, canceling the process anyway. (i hate you)");
-                                world.modifyBlock(coordinate, BlockType.MARKED);
-                            }
-                        } else {
-                            checkBlock(coordinate);
-                        }
-                    }
-                    case 2 -> {
-                        if (currentState != BlockType.UNKNOWN) {
-                            System.out.println("Location not markable!");
-                            world.modifyBlock(coordinate, currentState);
-                        } else if (world.getMarksLeft() <= 0) {
-                            System.out.println("You don't have any marks left, you first need to unmark some block(s)");
-                            world.modifyBlock(coordinate, currentState);
-                        } else {
-                            if (world.getOriginalState(coordinate) == BlockType.MINE) {
-                                world.decrementMinesLeft();
                             }
-                            mark(coordinate);
-                        }
-                    }
-                    case 3 -> {
-                        if (currentState != BlockType.MARKED) {
-                            System.out.println("Given block needs to be marked in order to be unmarkable!");
-                            world.modifyBlock(coordinate, currentState);
                         } else {
-                            if (world.getOriginalState(coordinate) == BlockType.MINE) {
-                                world.incrementMinesLeft();
-                            }
-                            unmark(coordinate);
+                            command = Command.reveal(x, y);
                         }
                     }
-                    default -> world.modifyBlock(coordinate, currentState);
+                    case 2 -> command = Command.flag(x, y);
+                    case 3 -> command = Command.unflag(x, y);
+                    default -> { }
                 }
             }
         } catch (Exception exc) {
             System.out.println(exc.getMessage());
-            world.modifyBlock(coordinate, currentState);
         }
+        world.modifyBlock(index, currentState);
+        if (command != null) {
+            play(command, false);
+        }
+    }
+
+    /**
+     * Applies a move chosen on the console and reports its consequences.
+     *
+     * @param batched Whether the move is part of a batch, whose remaining moves are dropped if this one hits a mine.
+     * @return True if the move hit a mine or ended the game.
+     */
+    private boolean play(Command command, boolean batched)
+    {
+        boolean planting = !world.isPlanted();
+        MoveResult result = apply(command);
+        if (viewport != null) {
+            viewport.follow(world.indexOf(command.x(), command.y()));
+        }
+        boolean interrupted = result.minesHit() > 0 || engine.getStatus() != GameStatus.PLAYING;
+        if (batched && interrupted) {
+            // Before the player is asked how to go on
+            reader.skipLine();
+        }
+        report(command, result);
+        if (planting && world.getLayout() == MineLayout.NO_GUESS && !world.isGuessFree()) {
+            System.out.println("No board without guessing was found within the search limits, this one only starts safely.");
+        }
+        return interrupted;
+    }
+
+    /**
+     * Applies a line of moves such as {@code c 3 4; m 5 6; x 7 7}, see {@link InputReader}, so the board is only
+     * rendered once for all of them. Malformed moves are reported and skipped. On a large board the line may also
+     * move the window, see {@link #navigate(int)}.
+     */
+    private void batch()
+    {
+        do {
+            Command command;
+            try {
+                int letter = reader.nextLetter();
+                if (navigate(letter)) {
+                    continue;
+                }
+                command = reader.nextCommand(letter);
+            } catch (InputMismatchException exc) {
+                System.out.println(exc.getMessage());
+                continue;
+            }
+            if (!isValid(command.x(), command.y())) {
+                System.out.println("Invalid Coordinates (" + command.x() + "," + command.y() + "), skipping the move.");
+            } else if (chunked != null ? playChunked(command) : play(command, true)) {
+                return;
+            }
+        } while (reader.hasMoreCommands());
+    }
+
+    /**
+     * Moves the window of a large board: w, a, s and d scroll it up, left, down and right by half its size, and
+     * {@code v row column} centers it on a block.
+     *
+     * @return False if the letter is not a navigation command.
+     */
+    private boolean navigate(int letter)
+    {
+        if (letter != 'w' && letter != 'a' && letter != 's' && letter != 'd' && letter != 'v') {
+            return false;
+        }
+        if (letter == 'v') {
+            int x = reader.nextInt(), y = reader.nextInt();
+            if (!isValid(x, y)) {
+                System.out.println("Invalid Coordinates (" + x + "," + y + "), the view stays where it is.");
+                return true;
+            }
+            if (viewport != null) {
+                viewport.centerOn(x, y);
+            }
+        }
+        if (viewport == null) {
+            System.out.println("The whole board is shown already.");
+            return true;
+        }
+        int rows = Math.max(1, viewport.getHeight() / 2), columns = Math.max(1, viewport.getWidth() / 2);
+        switch (letter) {
+            case 'w' -> viewport.scroll(-rows, 0);
+            case 'a' -> viewport.scroll(0, -columns);
+            case 's' -> viewport.scroll(rows, 0);
+            case 'd' -> viewport.scroll(0, columns);
+            default -> { }
+        }
+        return true;
+    }
+
+    private boolean isValid(int x, int y) {
+        return chunked != null ? chunked.isValid(x, y) : world.isValid(x, y);
+    }
 
+    /**
+     * Executes the gameplay loop of a chunked board until it is won or lost. Moves are only entered as lines such
+     * as {@code c 3 4; m 5 6}, see {@link #batch()}.
+     */
+    private void runChunked()
+    {
+        while (chunkedStatus == GameStatus.PLAYING) {
+            System.out.println(viewport);
+            System.out.println("Total mines: " + chunked.getMineCount() + ", Marks: " + chunked.getMarks());
+            System.out.println("Enter moves on one line: c 3 4; m 5 6; u 5 6; x 7 7 (check, mark, unmark, auto-expand), "
+                    + "move the view with w, a, s, d or v 3 4, or (-1, -1) to end the game.");
+            try {
+                if (reader.hasCommand()) {
+                    batch();
+                } else if (reader.nextInt() == -1 && reader.nextInt() == -1) {
+                    chunkedStatus = GameStatus.LOST;
+                } else {
+                    reader.skipLine();
+                    System.out.println("Please enter moves starting with a letter, such as c 3 4.");
+                }
+            } catch (InputMismatchException exc) {
+                System.out.println(exc.getMessage());
+            }
+        }
+        won = chunkedStatus == GameStatus.WON;
+        lost = chunkedStatus == GameStatus.LOST;
     }
 
-    private void mark(Coordinate coordinate)
+    /**
+     * Applies a move of a batch to the chunked board with the rules of {@link GameEngine}: a mine costs the
+     * 'Second Chance' on Medium, a wrongly marked block is unmarked by an auto-expand.
+     *
+     * @return True if the move hit a mine or ended the game.
+     */
+    private boolean playChunked(Command command)
     {
-        world.decrementMarksLeft();
-        world.decrementToCover();
-        world.modifyBlock(coordinate, BlockType.MARKED);
+        int x = command.x(), y = command.y();
+        BlockType state = chunked.getState(x, y);
+        int minesHit = 0;
+        switch (command.type()) {
+            case REVEAL -> {
+                if (state != BlockType.UNKNOWN) {
+                    System.out.println("Location is already cleared or marked!");
+                } else if (chunked.isMine(x, y)) {
+                    chunked.explode(x, y);
+                    minesHit = 1;
+                } else {
+                    chunked.check(x, y);
+                }
+            }
+            case FLAG -> {
+                if (!chunked.mark(x, y)) {
+                    System.out.println("Location not markable!");
+                }
+            }
+            case UNFLAG -> {
+                if (!chunked.unmark(x, y)) {
+                    System.out.println("Given block needs to be marked in order to be unmarkable!");
+                }
+            }
+            case CHORD -> {
+                minesHit = chunked.forceExpand(x, y);
+                if (minesHit < 0) {
+                    System.out.println("Invalid Expansion!");
+                    minesHit = 0;
+                } else {
+                    System.out.println("Hit Mines: " + minesHit);
+                }
+            }
+            case RESIGN -> chunkedStatus = GameStatus.LOST;
+        }
+        viewport.follow(x, y);
+        if (minesHit > chunkedLives) {
+            chunkedStatus = GameStatus.LOST;
+        } else {
+            chunkedLives -= minesHit;
+            if (chunkedStatus == GameStatus.PLAYING && chunked.won()) {
+                chunkedStatus = GameStatus.WON;
+            }
+        }
+        boolean interrupted = minesHit > 0 || chunkedStatus != GameStatus.PLAYING;
+        if (interrupted) {
+            reader.skipLine();
+        }
+        if (minesHit > 0 && chunkedStatus != GameStatus.LOST) {
+            mightyTouch();
+        }
+        return interrupted;
     }
 
-    private void unmark(Coordinate coordinate)
+    /**
+     * Journals a command and applies it to the game.
+     */
+    private MoveResult apply(Command command)
     {
-        world.incrementMarksLeft();
-        world.incrementToCover();
-        world.modifyBlock(coordinate, BlockType.UNKNOWN);
+        if (journal != null) {
+            try {
+                journal.record(command);
+            } catch (IOException exc) {
+                System.out.println("Could not journal the move, the rest of this game is not journaled: " + exc.getMessage());
+                closeJournal();
+            }
+        }
+        return engine.apply(command);
     }
 
     /**
-     * Prompts the user for the next coordinate to interact with.
+     * Takes back the last move, or applies the last undone one again, and journals it.
      */
-    private Coordinate nextLocation(Scanner scanner)
+    private void undo(boolean redo)
     {
-        System.out.println(world.toString());
+        if (!(redo ? engine.redo() : engine.undo())) {
+            System.out.println(redo ? "Nothing to redo." : "Nothing to undo.");
+            return;
+        }
+        if (journal != null) {
+            try {
+                if (redo) journal.recordRedo();
+                else journal.recordUndo();
+            } catch (IOException exc) {
+                System.out.println("Could not journal the move, the rest of this game is not journaled: " + exc.getMessage());
+                closeJournal();
+            }
+        }
+    }
+
+    private static Path journalOf(World world) {
+        return JOURNAL_DIRECTORY.resolve(world.getRows() + "x" + world.getColumns() + "-" + world.getSeed() + ".journal");
+    }
+
+    /**
+     * Starts the journal of the current game.
+     */
+    private void openJournal()
+    {
+        try {
+            Files.createDirectories(JOURNAL_DIRECTORY);
+            journal = MoveJournal.create(journalOf(world), world);
+        } catch (IOException exc) {
+            System.out.println("Could not open the journal, this game is not journaled: " + exc.getMessage());
+        }
+    }
+
+    /**
+     * Continues the journal of a loaded game from the given number of entries, the moves up to the save. Without
+     * a journal the game stays unjournaled, as its earlier moves could not be replayed.
+     */
+    private void continueJournal(long entries)
+    {
+        Path path = journalOf(world);
+        try {
+            if (entries >= 0 && Files.exists(path)) {
+                journal = MoveJournal.append(path, world, entries);
+            } else {
+                System.out.println("No journal found for the saved game, its moves are not journaled.");
+            }
+        } catch (IOException exc) {
+            System.out.println("Could not open the journal, this game is not journaled: " + exc.getMessage());
+        }
+    }
+
+    private void closeJournal()
+    {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException exc) {
+            System.out.println("Could not close the journal: " + exc.getMessage());
+        }
+        journal = null;
+    }
+
+    /**
+     * Prints the consequences of a move and offers the 'Second Chance' when a life was spent.
+     */
+    private void report(Command command, MoveResult result)
+    {
+        switch (result.outcome()) {
+            case NOT_MARKABLE -> System.out.println("Location not markable!");
+            case NO_MARKS_LEFT -> System.out.println("You don't have any marks left, you first need to unmark some block(s)");
+            case NOT_MARKED -> System.out.println("Given block needs to be marked in order to be unmarkable!");
+            case INVALID_CHORD -> System.out.println("Invalid Expansion!");
+            case NOT_STARTED -> System.out.println("The mines are laid out by your first check, please check a block first.");
+            default -> {
+                if (command.type() == Command.Type.CHORD) {
+                    System.out.println("Hit Mines: " + result.minesHit());
+                }
+                if (result.minesHit() > 0 && result.status() != GameStatus.LOST) {
+                    mightyTouch();
+                }
+            }
+        }
+    }
+
+    /**
+     * Prompts the user for the next block to interact with.
+     *
+     * @return The row-major index of the block, or -1 if the input was handled already or is not a block to act on.
+     */
+    private int nextLocation()
+    {
+        renderer.render();
 
         int inputX, inputY;
         System.out.println("Total mines: " + world.getMineCount() + ", Marks Left: " + world.getMarksLeft());
-        System.out.println("Enter Location please: (-1, -1) to end the game");
+        System.out.println("Enter Location please: (-1, -1) to end the game, (-2, -2) for a hint, (-3, -3) to save, "
+                + "(-4, -4) to undo, (-5, -5) to redo, or moves on one line: c 3 4; m 5 6; u 5 6; x 7 7 "
+                + "(check, mark, unmark, auto-expand)");
+        if (viewport != null) {
+            System.out.println("Move the view with w, a, s, d or v 3 4 to center it on a location.");
+        }
         System.out.println("x: (0 - " + (world.getRows() - 1) + ")");
-        inputX = scanner.nextInt();
+        if (reader.hasCommand()) {
+            batch();
+            return -1;
+        }
+        inputX = reader.nextInt();
         System.out.println("y: (0 - " + (world.getColumns() - 1) + ")");
-        inputY = scanner.nextInt();
-        Coordinate currentCoordinate = new Coordinate(inputX, inputY);
+        inputY = reader.nextInt();
         if (inputX == -1 && inputY == -1) {
-            lost = true;
-            return null;
-        } else if (world.isOutOfBounds(currentCoordinate)) {
+            apply(Command.resign());
+            return -1;
+        } else if (inputX == -2 && inputY == -2) {
+            hint();
+            return -1;
+        } else if (inputX == -3 && inputY == -3) {
+            save();
+            return -1;
+        } else if ((inputX == -4 && inputY == -4) || (inputX == -5 && inputY == -5)) {
+            undo(inputX == -5);
+            return -1;
+        } else if (!world.isValid(inputX, inputY)) {
             System.out.println("Invalid Coordinates, please make sure you enter a location that is within (0,0) and ("
                     + (world.getRows() - 1) + "," + (world.getColumns() - 1) + ")");
-            return null;
+            return -1;
         } else if (getBlockState(inputX, inputY) == BlockType.MINE || getBlockState(inputX, inputY) == BlockType.BLANK) {
             System.out.println("Location is already cleared, please try another location!");
-            return null;
+            return -1;
         }
-        return currentCoordinate;
+        return world.indexOf(inputX, inputY);
     }
 
 
+    /**
+     * Suggests the next block to check, deduced from the visible board alone.
+     */
+    private void hint()
+    {
+        Command hint = solver.hint(engine);
+        if (hint == null) {
+            System.out.println("No hint available.");
+        } else if (solver.getLastProbability() == 0) {
+            World world = engine.getWorld();
+            if (world.stateAt(world.indexOf(hint.x(), hint.y())) == BlockType.MARKED) {
+                System.out.println("Hint: (" + hint.x() + "," + hint.y() + ") is marked but safe, unmark and check it.");
+            } else {
+                System.out.println("Hint: (" + hint.x() + "," + hint.y() + ") is safe to check.");
+            }
+        } else {
+            System.out.printf("Hint: nothing is certain, (%d,%d) is the best guess with a %.0f%% chance of a mine.%n",
+                    hint.x(), hint.y(), solver.getLastProbability() * 100);
+        }
+    }
+
     /**
      * Displays Game Over or Victory screens and checks if user wants to replay.
      */
@@ -270,37 +702,34 @@ public class MineSweeper
         if (!worldGenerated)
             return true;
         if (won) {
-            System.out.println(world.toString());
+            render();
             System.out.println("You won!! Congrats!!!\n" +
-                    "Press 1 to play again or any other button to quit");
+                    "Press 1 to play again on the same kind of board, 2 to choose another one or any other button to quit");
         } else if (lost) {
-            System.out.println(world.toString());
-            System.out.println("You lost! Game over... Good luck next time : ). Press 1 to play again or any other button to quit");
+            render();
+            System.out.println("You lost! Game over... Good luck next time : ). Press 1 to play again on the same kind of "
+                    + "board, 2 to choose another one or any other button to quit");
         }
         String input;
         try {
-            input = scanner.next();
+            input = reader.next();
         } catch (InputMismatchException exc) {
             System.out.println("Input mismatch! Terminating the program.");
             return false;
         }
-        return input.equals("1");
+        sameSettings = input.equals("1");
+        if (!sameSettings) {
+            pregenerator.cancel();
+        }
+        return sameSettings || input.equals("2");
     }
 
-    /**
-     * Reveals a block and handles consequences (Game Over or Recursive Reveal).
-     */
-    private void checkBlock(Coordinate currentCoordinate)
+    private void render()
     {
-        if (world.getOriginalState(currentCoordinate) == BlockType.MINE) {
-            world.decrementMinesLeft();
-            world.decrementToCover();
-            world.modifyBlock(currentCoordinate, BlockType.MINE);
-            if (livesLeft == 0 || !mightyTouch(currentCoordinate)) {
-                lost = true;
-            }
+        if (chunked != null) {
+            System.out.println(viewport);
         } else {
-            world.check(currentCoordinate);
+            renderer.render();
         }
     }
 
@@ -313,25 +742,20 @@ public class MineSweeper
     }
 
     /**
-     * Activates the 'Second Chance' mechanic on Medium difficulty.
+     * Offers the 'Second Chance' on Medium difficulty after the engine spent the extra life.
      */
-    private boolean mightyTouch(Coordinate currentCoordinate)
+    private void mightyTouch()
     {
-        System.out.println(world.toString());
+        render();
 
         System.out.println("You hit a mine... BUT!! You've been blessed by the creator's mighty touch, therefore you get a 2nd chance!");
         System.out.println("1- Continue playing\n2- Quit");
-        if (scanner.nextInt() == 2) {
-            lost = true;
-            return false;
-        } else {
-            if (world.getToCover() == 1) {
-                won = true;
+        if (reader.nextInt() == 2) {
+            if (chunked != null) {
+                chunkedStatus = GameStatus.LOST;
+            } else {
+                apply(Command.resign());
             }
-            world.modifyBlock(currentCoordinate, BlockType.MINE);
-            world.decrementMarksLeft();
-            livesLeft = 0;
-            return true;
         }
     }
 
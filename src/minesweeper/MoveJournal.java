@@ -0,0 +1,216 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only record of the commands applied to one game, enough to replay it from the board's seed.
+ * <pre>
+ *   int   magic "MSWJ"       short version        short reserved
+ *   int   rows               int   columns
+ *   byte  difficulty         byte  layout ordinal     byte  planting flags     byte reserved
+ *   long  seed               int   mine count
+ *   long  plant seed
+ *   entries...
+ * </pre>
+ * A deferred layout plants its mines on the first reveal, and a guess-free search may settle for a different
+ * candidate on a busier machine. So once the mines are planted the header is updated in place with the seed they
+ * were planted from ({@link World#getPlantSeed()}) and the flags {@link #PLANTED} and {@link #GUESS_FREE}, and a
+ * replay plants from there instead of searching again. Version 1 lacks these fields.
+ * Each entry is a single unsigned LEB128 varint holding {@code zigzag(index - previous index) << 3 | opcode},
+ * where the opcode is the ordinal of the {@link Command.Type}, or {@link #UNDO} or {@link #REDO}, and the index the
+ * row-major index of the targeted block. Neighbouring moves therefore take one or two bytes. Resign, undo and redo
+ * entries carry a delta of zero. Entries are collected in a buffer and written in groups, see {@link #flush()}.
+ */
+public final class MoveJournal implements Closeable
+{
+    static final int MAGIC = 0x4D53574A;
+    static final short VERSION = 2;
+    static final int HEADER_BYTES = 40;
+    static final int VERSION_1_HEADER_BYTES = 32;
+    static final int PLANTED = 1;
+    static final int GUESS_FREE = 2;
+    private static final int FLAGS_OFFSET = 18;
+    private static final int PLANT_SEED_OFFSET = 32;
+    static final int OPCODE_BITS = 3;
+    static final int UNDO = 5;
+    static final int REDO = 6;
+    /** Number of entries collected before they are written. */
+    public static final int DEFAULT_GROUP_SIZE = 64;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    private final World world;
+    private final int columns;
+    private final int groupSize;
+
+    private int previousIndex;
+    private int pending;
+    private long entries;
+    private boolean plantingRecorded;
+
+    private MoveJournal(FileChannel channel, World world, int groupSize)
+    {
+        this.channel = channel;
+        this.world = world;
+        this.columns = world.getColumns();
+        this.groupSize = groupSize;
+    }
+
+    /**
+     * Starts a new journal for the given board, replacing any file at the path.
+     */
+    public static MoveJournal create(Path path, World world) throws IOException {
+        return create(path, world, DEFAULT_GROUP_SIZE);
+    }
+
+    public static MoveJournal create(Path path, World world, int groupSize) throws IOException
+    {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        MoveJournal journal = new MoveJournal(channel, world, groupSize);
+        journal.plantingRecorded = world.isPlanted();
+        journal.buffer.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) 0)
+                .putInt(world.getRows())
+                .putInt(world.getColumns())
+                .put((byte) world.getDifficulty())
+                .put((byte) world.getLayout().ordinal())
+                .put((byte) plantingFlags(world))
+                .put((byte) 0)
+                .putLong(world.getSeed())
+                .putInt(world.getMineCount())
+                .putLong(world.getPlantSeed());
+        journal.flush();
+        return journal;
+    }
+
+    /**
+     * Continues the journal of the given board after the given number of entries, for example after the game was
+     * saved and loaded again. Entries beyond them, moves made after the save and then abandoned, are cut off so
+     * that the journal replays to the loaded game.
+     *
+     * @throws IOException If the file is not a journal of this board in the current version or holds fewer entries.
+     */
+    public static MoveJournal append(Path path, World world, long entryCount) throws IOException
+    {
+        try (JournalReplay replay = JournalReplay.open(path)) {
+            JournalReplay.Header header = replay.getHeader();
+            if (header.version() != VERSION) {
+                throw new IOException(path + " was written by an older version and cannot be continued");
+            }
+            if (header.rows() != world.getRows() || header.columns() != world.getColumns()
+                    || header.difficulty() != world.getDifficulty() || header.seed() != world.getSeed()
+                    || header.layout() != world.getLayout()
+                    || (header.planted() && world.isPlanted() && header.plantSeed() != world.getPlantSeed())) {
+                throw new IOException(path + " is the journal of another board");
+            }
+            int previousIndex = 0;
+            long entries = 0;
+            while (entries < entryCount && replay.next()) {
+                previousIndex = replay.getIndex();
+                entries++;
+            }
+            if (entries < entryCount) {
+                throw new IOException(path + " holds " + entries + " of the " + entryCount + " saved moves");
+            }
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+            try {
+                channel.truncate(replay.getPosition());
+                channel.position(replay.getPosition());
+            } catch (IOException exc) {
+                channel.close();
+                throw exc;
+            }
+            MoveJournal journal = new MoveJournal(channel, world, DEFAULT_GROUP_SIZE);
+            journal.previousIndex = previousIndex;
+            journal.entries = entries;
+            journal.plantingRecorded = header.planted();
+            return journal;
+        }
+    }
+
+    /**
+     * Encodes an entry from its opcode and the distance of its index to the previous one.
+     */
+    static long encode(int opcode, int delta) {
+        return ((long) ((delta << 1) ^ (delta >> 31)) & 0xFFFFFFFFL) << OPCODE_BITS | opcode;
+    }
+
+    /**
+     * Appends a command, writing the collected group once it is full.
+     */
+    public void record(Command command) throws IOException
+    {
+        int index = command.type() == Command.Type.RESIGN ? previousIndex : command.x() * columns + command.y();
+        write(command.type().ordinal(), index);
+    }
+
+    /**
+     * Appends an undo, replayed with the {@link UndoHistory#DEFAULT_MAX_CHANGES default undo cap}.
+     */
+    public void recordUndo() throws IOException {
+        write(UNDO, previousIndex);
+    }
+
+    public void recordRedo() throws IOException {
+        write(REDO, previousIndex);
+    }
+
+    private void write(int opcode, int index) throws IOException
+    {
+        long value = encode(opcode, index - previousIndex);
+        previousIndex = index;
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+        entries++;
+        if (++pending >= groupSize || buffer.remaining() < 16) {
+            flush();
+        }
+    }
+
+    private static int plantingFlags(World world) {
+        return world.isPlanted() ? PLANTED | (world.isGuessFree() ? GUESS_FREE : 0) : 0;
+    }
+
+    /**
+     * Writes the collected entries to the file, and the planting into the header once the mines are planted. The
+     * operating system may still cache them, {@link #close()} forces them to the disk.
+     */
+    public void flush() throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        pending = 0;
+        // Only once the header itself is written, positional writes leave the channel's position alone
+        if (!plantingRecorded && world.isPlanted()) {
+            channel.write(ByteBuffer.allocate(1).put(0, (byte) plantingFlags(world)), FLAGS_OFFSET);
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, world.getPlantSeed()), PLANT_SEED_OFFSET);
+            plantingRecorded = true;
+        }
+    }
+
+    public long getEntryCount() {
+        return entries;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try (channel) {
+            flush();
+            channel.force(false);
+        }
+    }
+}
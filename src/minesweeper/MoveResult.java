@@ -0,0 +1,70 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The outcome of applying a {@link Command} to a {@link GameEngine}.
+ *
+ * @param outcome   Whether the move was applied, or why it was rejected.
+ * @param revealed  Row-major indices of the blocks uncovered by the move, mines included.
+ * @param minesHit  The number of mines uncovered by the move.
+ * @param livesLeft The lives left after the move.
+ * @param status    The game status after the move.
+ */
+public record MoveResult(
+        Outcome outcome,
+        int[] revealed,
+        int minesHit,
+        int livesLeft,
+        GameStatus status
+) {
+    /**
+     * Enumeration of the ways a move can end.
+     */
+    public enum Outcome {
+        APPLIED,            // The move changed the board.
+        OUT_OF_BOUNDS,      // The location is not on the board.
+        ALREADY_REVEALED,   // The block to reveal is already uncovered.
+        MARKED,             // The block to reveal is marked and must be unmarked first.
+        NOT_MARKABLE,       // Only covered blocks can be marked.
+        NO_MARKS_LEFT,      // Every mark is in use.
+        NOT_MARKED,         // Only marked blocks can be unmarked.
+        INVALID_CHORD,      // The block is not discovered or its marks do not match its number.
+        NOT_STARTED,        // The mines are laid out by the first reveal, nothing else is accepted before it.
+        GAME_OVER           // The game has already ended.
+    }
+
+    /** Shared by every result that uncovers no block. */
+    static final int[] NONE = new int[0];
+
+    static MoveResult rejected(Outcome outcome, int livesLeft, GameStatus status) {
+        return new MoveResult(outcome, NONE, 0, livesLeft, status);
+    }
+
+    public boolean applied() {
+        return outcome == Outcome.APPLIED;
+    }
+
+    /**
+     * Compares the revealed blocks by content, in the order they were uncovered.
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof MoveResult result && outcome == result.outcome && minesHit == result.minesHit
+                && livesLeft == result.livesLeft && status == result.status && Arrays.equals(revealed, result.revealed);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(outcome, minesHit, livesLeft, status) + Arrays.hashCode(revealed);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MoveResult[outcome=" + outcome + ", revealed=" + Arrays.toString(revealed) + ", minesHit=" + minesHit
+                + ", livesLeft=" + livesLeft + ", status=" + status + "]";
+    }
+}
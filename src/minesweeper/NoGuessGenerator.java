@@ -0,0 +1,191 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Lays out boards that can be cleared by logic alone from the first reveal.
+ * <p>
+ * Candidates are {@link MineLayout#SAFE_START} boards planted from seeds derived from the game's seed. Each one is
+ * played by a {@link Solver} that may only make moves it proves safe, exactly computed mine probabilities of zero
+ * included, and the first candidate it wins is taken. Candidates are played in parallel, claimed in order by the
+ * workers: once one succeeds no later candidate is started and running ones after it are abandoned, while every
+ * candidate before it is played to the end. The result is therefore the lowest successful candidate whatever the
+ * number of threads, and a seed and first reveal always yield the same board as long as the search ends before its
+ * deadline. Once the deadline passes running candidates are abandoned and the search settles for a safe start, so
+ * the board may then depend on the machine's load: journals and saves record the seed that was planted from, see
+ * {@link World#getPlantSeed()}, and do not search again.
+ * <p>
+ * Guess-free boards are only searched on Medium up to {@link #MAX_CELLS} blocks, see {@link #isSupported}: on Hard
+ * practically none exist, and on larger boards the median search takes seconds.
+ */
+public final class NoGuessGenerator
+{
+    /** Candidates tried before settling for a board with a safe start only. */
+    public static final int MAX_CANDIDATES = 1000;
+    /** Wall-clock time a game waits for its board before settling for a safe start. */
+    public static final long MAX_SEARCH_NANOS = TimeUnit.SECONDS.toNanos(2);
+    /** Largest board searched, the 16x30 expert board. */
+    public static final int MAX_CELLS = 16 * 30;
+
+    private NoGuessGenerator() {}
+
+    /**
+     * The outcome of a search.
+     *
+     * @param seed      The seed to plant from: the chosen candidate's, or the game's own if nothing was found.
+     * @param found     Whether the board is solvable without guessing.
+     * @param candidate The index of the chosen candidate, or the number of candidates started if nothing was found.
+     * @param elapsedNs The wall-clock time of the search.
+     */
+    public record Result(
+            long seed,
+            boolean found,
+            int candidate,
+            long elapsedNs
+    ) {}
+
+    /**
+     * Returns true if guess-free boards are searched for the given size and difficulty: Medium boards of at most
+     * {@link #MAX_CELLS} blocks.
+     */
+    public static boolean isSupported(int rows, int columns, int difficulty) {
+        return difficulty == 1 && (long) rows * columns <= MAX_CELLS;
+    }
+
+    /**
+     * Plants a deferred {@link MineLayout#NO_GUESS} world around its first reveal (x, y): from the first guess-free
+     * candidate found within the given time where {@link #isSupported supported}, otherwise from the world's own
+     * seed with a safe start only.
+     */
+    static void plant(World world, int x, int y, long maxNanos)
+    {
+        if (isSupported(world.getRows(), world.getColumns(), world.getDifficulty())) {
+            Result result = search(world.getRows(), world.getColumns(), world.getDifficulty(), world.getMineCount(),
+                    world.getSeed(), x, y, MAX_CANDIDATES, maxNanos);
+            world.plantAround(x, y, result.seed(), result.found());
+        } else {
+            world.plantAround(x, y, world.getSeed(), false);
+        }
+    }
+
+    /**
+     * Plays up to the given number of candidates until one is won or the given wall-clock time has passed.
+     */
+    public static Result search(int rows, int columns, int difficulty, int mineCount, long seed, int x, int y, int maxCandidates,
+                                long maxNanos)
+    {
+        long start = System.nanoTime();
+        long deadline = start + maxNanos;
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        int workers = Math.max(1, Math.min(maxCandidates, Runtime.getRuntime().availableProcessors()));
+        IntStream.range(0, workers).parallel().forEach(worker -> {
+            Solver solver = new Solver();
+            // Every candidate of a worker is played on the same board, reset in place
+            World board = null;
+            int candidate;
+            while (System.nanoTime() - deadline < 0 && (candidate = next.getAndIncrement()) < maxCandidates
+                    && candidate < best.get()) {
+                int index = candidate;
+                if (board == null) {
+                    board = new World(rows, columns, difficulty, candidateSeed(seed, index), mineCount, MineLayout.SAFE_START);
+                } else {
+                    board.reset(candidateSeed(seed, index));
+                }
+                if (solvable(board, x, y, solver, () -> best.get() < index || System.nanoTime() - deadline >= 0)) {
+                    best.accumulateAndGet(index, Math::min);
+                }
+            }
+        });
+        int found = best.get();
+        long elapsed = System.nanoTime() - start;
+        if (found == Integer.MAX_VALUE) {
+            return new Result(seed, false, Math.min(next.get(), maxCandidates), elapsed);
+        }
+        return new Result(candidateSeed(seed, found), true, found, elapsed);
+    }
+
+    static long candidateSeed(long seed, int candidate) {
+        return MinePlanter.key(seed, candidate);
+    }
+
+    /**
+     * Plays a candidate, a fresh {@link MineLayout#SAFE_START} world, from the given first reveal without guessing.
+     *
+     * @param abandoned Polled between moves, the candidate counts as unsolvable once it returns true.
+     * @return True if the solver won the game.
+     */
+    static boolean solvable(World candidate, int x, int y, Solver solver, BooleanSupplier abandoned)
+    {
+        GameEngine engine = new GameEngine(candidate);
+        solver.reset(engine);
+        Command command = Command.reveal(x, y);
+        while (true) {
+            solver.onResult(command, engine.apply(command));
+            if (engine.getStatus() != GameStatus.PLAYING) {
+                return engine.getStatus() == GameStatus.WON;
+            }
+            if (abandoned.getAsBoolean()) {
+                return false;
+            }
+            command = solver.nextMove(engine);
+            if (command == null || solver.getLastProbability() > 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Prints generation time percentiles and the mean {@link BoardMetrics} of the boards, first reveal in the middle
+     * of the board:
+     * {@code [rows columns difficulty] [boards] [first seed] [seconds per board]}, by default for the supported sizes
+     * with the deadline of a game. Unsupported sizes can be measured too, with a longer deadline.
+     */
+    public static void main(String[] args)
+    {
+        int[][] sizes = args.length >= 3
+                ? new int[][] {{Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2])}}
+                : new int[][] {{9, 9, 1}, {16, 16, 1}, {16, 30, 1}};
+        int rest = args.length >= 3 ? 3 : 0;
+        int boards = args.length > rest ? Integer.parseInt(args[rest]) : 50;
+        long firstSeed = args.length > rest + 1 ? Long.parseLong(args[rest + 1]) : 0;
+        long maxNanos = args.length > rest + 2 ? TimeUnit.SECONDS.toNanos(Long.parseLong(args[rest + 2])) : MAX_SEARCH_NANOS;
+        for (int[] size : sizes) {
+            int rows = size[0], columns = size[1], difficulty = size[2];
+            int mines = World.minesFor(rows * columns, difficulty);
+            LatencyHistogram times = new LatencyHistogram();
+            long found = 0, candidates = 0;
+            long threeBV = 0, openings = 0, isolated = 0, ratingNs = 0;
+            int minThreeBV = Integer.MAX_VALUE, maxThreeBV = 0;
+            for (long seed = firstSeed; seed < firstSeed + boards; seed++) {
+                Result result = search(rows, columns, difficulty, mines, seed, rows / 2, columns / 2, MAX_CANDIDATES, maxNanos);
+                times.record(result.elapsedNs());
+                if (result.found()) {
+                    found++;
+                    candidates += result.candidate() + 1;
+                }
+                World board = new World(rows, columns, difficulty, seed, mines, MineLayout.NO_GUESS);
+                board.plantAround(rows / 2, columns / 2, result.seed(), result.found());
+                long start = System.nanoTime();
+                BoardMetrics rated = board.getBoardMetrics();
+                ratingNs += System.nanoTime() - start;
+                threeBV += rated.threeBV();
+                openings += rated.openings();
+                isolated += rated.isolatedNumbers();
+                minThreeBV = Math.min(minThreeBV, rated.threeBV());
+                maxThreeBV = Math.max(maxThreeBV, rated.threeBV());
+            }
+            System.out.printf("%dx%d %s: found %d/%d, candidates/board: %.1f, p50: %.2f ms, p90: %.2f ms, p99: %.2f ms, max: %.2f ms%n",
+                    rows, columns, difficulty == 2 ? "Hard" : "Medium", found, boards, found == 0 ? 0 : (double) candidates / found,
+                    times.percentile(0.5) / 1e6, times.percentile(0.9) / 1e6, times.percentile(0.99) / 1e6, times.getMax() / 1e6);
+            if (boards > 0) {
+                System.out.printf("  3BV: %.1f (%d-%d), openings: %.1f, isolated numbers: %.1f, rated in %.3f ms%n",
+                        (double) threeBV / boards, minThreeBV, maxThreeBV, (double) openings / boards,
+                        (double) isolated / boards, ratingNs / 1e6 / boards);
+            }
+        }
+    }
+}
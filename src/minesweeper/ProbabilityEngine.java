@@ -0,0 +1,784 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exact mine probability of every covered block of a {@link World}, given the visible numbers and the mine count.
+ * <p>
+ * Covered blocks next to a number (the frontier) are split into components that share no number, and the
+ * solutions of each component are counted by number of mines. Components and the remaining covered blocks
+ * are then combined, weighting every total by the number of ways to place the rest of the mines among the
+ * blocks off the frontier. Marked blocks are treated as covered, since a mark may be wrong.
+ * <p>
+ * Solved components are cached by their numbers and covered blocks, so after a move only the components
+ * it touched are counted again.
+ */
+public class ProbabilityEngine
+{
+    /** Largest component counted exactly, the residual states kept per position grow with its size. */
+    public static final int MAX_COMPONENT_CELLS = 512;
+
+    private final World world;
+    private final int rows;
+    private final int columns;
+
+    /** Numbered blocks that may still have covered neighbors. */
+    private final IntList constraints = new IntList();
+    private final boolean[] listed;
+    /** Position of a frontier block in {@link #frontierCells}, -1 for all other blocks. */
+    private final int[] slot;
+    private final double[] probability;
+    private final IntList frontierCells = new IntList();
+    private final int[] neighbors = new int[8];
+
+    private int covered;
+    private int exploded;
+    private double interiorProbability;
+
+    private Map<Key, Component> cache = new HashMap<>();
+    private long cacheHits;
+    private long cacheMisses;
+
+    public ProbabilityEngine(World world)
+    {
+        this.world = world;
+        this.rows = world.getRows();
+        this.columns = world.getColumns();
+        listed = new boolean[rows * columns];
+        slot = new int[rows * columns];
+        probability = new double[rows * columns];
+        Arrays.fill(slot, -1);
+        reset();
+    }
+
+    World getWorld() {
+        return world;
+    }
+
+    /**
+     * Reads the whole visible board again and drops the cache.
+     */
+    public void reset()
+    {
+        constraints.clear();
+        Arrays.fill(listed, false);
+        for (int i = 0; i < frontierCells.size(); i++) {
+            slot[frontierCells.get(i)] = -1;
+        }
+        frontierCells.clear();
+        cache.clear();
+        covered = 0;
+        exploded = 0;
+        for (int i = 0; i < listed.length; i++) {
+            BlockType state = stateOf(i);
+            if (isCovered(state)) {
+                covered++;
+            } else if (state == BlockType.MINE) {
+                exploded++;
+            } else if (state == BlockType.DISCOVERED) {
+                listConstraint(i);
+            }
+        }
+    }
+
+    /**
+     * Takes in the blocks revealed by a move, as reported in {@link MoveResult#revealed()}.
+     */
+    public void update(int[] revealed)
+    {
+        for (int index : revealed) {
+            covered--;
+            if (stateOf(index) == BlockType.MINE) {
+                exploded++;
+            }
+            int x = index / columns, y = index % columns;
+            for (int nx = Math.max(0, x - 1); nx <= Math.min(rows - 1, x + 1); nx++) {
+                for (int ny = Math.max(0, y - 1); ny <= Math.min(columns - 1, y + 1); ny++) {
+                    listConstraint(nx * columns + ny);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes all probabilities without any size limit, see {@link #compute(int)}.
+     */
+    public boolean compute() {
+        return compute(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Recomputes all probabilities. Combining the components takes time quadratic in the frontier size,
+     * so callers on large boards can bound it.
+     *
+     * @param maxFrontierCells The largest frontier to handle.
+     * @return False if the frontier or one of its components is too large, the probabilities are undefined then.
+     */
+    public boolean compute(int maxFrontierCells)
+    {
+        for (int i = 0; i < frontierCells.size(); i++) {
+            slot[frontierCells.get(i)] = -1;
+        }
+        frontierCells.clear();
+
+        int kept = 0;
+        for (int i = 0; i < constraints.size(); i++) {
+            int cell = constraints.get(i);
+            if (!hasCoveredNeighbor(cell)) {
+                listed[cell] = false;
+                continue;
+            }
+            constraints.set(kept++, cell);
+            int x = cell / columns, y = cell % columns;
+            for (int nx = Math.max(0, x - 1); nx <= Math.min(rows - 1, x + 1); nx++) {
+                for (int ny = Math.max(0, y - 1); ny <= Math.min(columns - 1, y + 1); ny++) {
+                    int neighbor = nx * columns + ny;
+                    if (slot[neighbor] < 0 && isCovered(stateOf(neighbor))) {
+                        slot[neighbor] = frontierCells.size();
+                        frontierCells.add(neighbor);
+                    }
+                }
+            }
+        }
+        constraints.truncate(kept);
+        if (frontierCells.size() > maxFrontierCells) {
+            return false;
+        }
+
+        List<Component> components = components();
+        if (components == null) {
+            return false;
+        }
+        combine(components);
+        return true;
+    }
+
+    /**
+     * Returns the chance of a mine at the given block after the last {@link #compute()}: 0 or 1 for revealed
+     * blocks, NaN if the visible board contradicts the mine count.
+     */
+    public double probability(int x, int y) {
+        return probability(x * columns + y);
+    }
+
+    double probability(int index)
+    {
+        BlockType state = stateOf(index);
+        if (state == BlockType.MINE) {
+            return 1;
+        } else if (!isCovered(state)) {
+            return 0;
+        }
+        return slot[index] >= 0 ? probability[index] : interiorProbability;
+    }
+
+    /**
+     * Returns the chance of a mine at any covered block off the frontier.
+     */
+    public double getInteriorProbability() {
+        return interiorProbability;
+    }
+
+    /**
+     * Returns the covered blocks next to a number as of the last {@link #compute()}.
+     */
+    public IntList getFrontierCells() {
+        return frontierCells;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Groups the frontier into components that share no number and looks each one up in the cache.
+     *
+     * @return The components, or null if one of them is too large to count.
+     */
+    private List<Component> components()
+    {
+        int cellCount = frontierCells.size();
+        int[] parent = new int[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < constraints.size(); i++) {
+            int count = coveredNeighbors(constraints.get(i), neighbors);
+            for (int k = 1; k < count; k++) {
+                int a = find(parent, slot[neighbors[0]]), b = find(parent, slot[neighbors[k]]);
+                parent[a] = b;
+            }
+        }
+
+        int[] componentOf = new int[cellCount];
+        Arrays.fill(componentOf, -1);
+        List<IntList> cells = new ArrayList<>();
+        List<IntList> numbers = new ArrayList<>();
+        for (int i = 0; i < cellCount; i++) {
+            int root = find(parent, i);
+            if (componentOf[root] < 0) {
+                componentOf[root] = cells.size();
+                cells.add(new IntList());
+                numbers.add(new IntList());
+            }
+            cells.get(componentOf[root]).add(frontierCells.get(i));
+        }
+        for (int i = 0; i < constraints.size(); i++) {
+            int cell = constraints.get(i);
+            coveredNeighbors(cell, neighbors);
+            numbers.get(componentOf[find(parent, slot[neighbors[0]])]).add(cell);
+        }
+
+        Map<Key, Component> next = new HashMap<>();
+        List<Component> components = new ArrayList<>(cells.size());
+        for (int c = 0; c < cells.size(); c++) {
+            if (cells.get(c).size() > MAX_COMPONENT_CELLS) {
+                return null;
+            }
+            int[] componentCells = cells.get(c).toArray();
+            int[] componentNumbers = numbers.get(c).toArray();
+            Arrays.sort(componentCells);
+            Arrays.sort(componentNumbers);
+            Key key = key(componentCells, componentNumbers);
+            Component component = cache.get(key);
+            if (component == null) {
+                component = count(componentCells, componentNumbers);
+                cacheMisses++;
+            } else {
+                cacheHits++;
+            }
+            next.put(key, component);
+            components.add(component);
+        }
+        cache = next;
+        return components;
+    }
+
+    private Key key(int[] cells, int[] numbers)
+    {
+        int[] data = new int[1 + cells.length + 2 * numbers.length];
+        data[0] = cells.length;
+        System.arraycopy(cells, 0, data, 1, cells.length);
+        for (int j = 0; j < numbers.length; j++) {
+            data[1 + cells.length + 2 * j] = numbers[j];
+            data[2 + cells.length + 2 * j] = remainingMines(numbers[j]);
+        }
+        return new Key(data);
+    }
+
+    /**
+     * Counts the solutions of one component by number of mines, in total and with a mine at each block.
+     * <p>
+     * Blocks are assigned in breadth-first order. Before position i the only thing that matters for the rest
+     * is how many mines each open number (one with blocks on both sides of i) still needs, so the number of
+     * completions is memoized per position and residual vector. A forward sweep over the same states then
+     * collects, for each block, the solutions with a mine there.
+     */
+    private Component count(int[] cells, int[] numbers)
+    {
+        int n = cells.length, m = numbers.length;
+        int[][] members = new int[m][];
+        int[] value = new int[m];
+        int[] memberships = new int[n];
+        for (int j = 0; j < m; j++) {
+            int count = coveredNeighbors(numbers[j], neighbors);
+            members[j] = new int[count];
+            for (int k = 0; k < count; k++) {
+                members[j][k] = Arrays.binarySearch(cells, neighbors[k]);
+                memberships[members[j][k]]++;
+            }
+            value[j] = remainingMines(numbers[j]);
+        }
+        int[][] numbersOf = new int[n][];
+        for (int v = 0; v < n; v++) {
+            numbersOf[v] = new int[memberships[v]];
+            memberships[v] = 0;
+        }
+        for (int j = 0; j < m; j++) {
+            for (int v : members[j]) {
+                numbersOf[v][memberships[v]++] = j;
+            }
+        }
+
+        // Breadth-first order keeps few numbers open at any position
+        int[] order = new int[n];
+        int[] rank = new int[n];
+        Arrays.fill(rank, -1);
+        int head = 0, tail = 0;
+        for (int start = 0; start < n; start++) {
+            if (rank[start] >= 0) continue;
+            rank[start] = tail;
+            order[tail++] = start;
+            while (head < tail) {
+                int v = order[head++];
+                for (int j : numbersOf[v]) {
+                    for (int w : members[j]) {
+                        if (rank[w] < 0) {
+                            rank[w] = tail;
+                            order[tail++] = w;
+                        }
+                    }
+                }
+            }
+        }
+        int[] first = new int[m], last = new int[m];
+        IntList[] open = new IntList[n + 1];
+        IntList[] closing = new IntList[n];
+        for (int i = 0; i <= n; i++) {
+            open[i] = new IntList(4);
+            if (i < n) closing[i] = new IntList(4);
+        }
+        for (int j = 0; j < m; j++) {
+            for (int k = 0; k < members[j].length; k++) {
+                members[j][k] = rank[members[j][k]];
+            }
+            Arrays.sort(members[j]);
+            first[j] = members[j][0];
+            last[j] = members[j][members[j].length - 1];
+            for (int i = first[j] + 1; i <= last[j]; i++) {
+                open[i].add(j);
+            }
+            closing[last[j]].add(j);
+        }
+        Steps steps = new Steps(members, value, first, open, closing, new int[m]);
+
+        // Residual states reachable at every position
+        List<Map<State, double[]>> memo = new ArrayList<>(n + 1);
+        Map<State, double[]> layer = new HashMap<>();
+        layer.put(State.EMPTY, null);
+        memo.add(layer);
+        for (int i = 0; i < n; i++) {
+            steps.enter(i);
+            Map<State, double[]> next = new HashMap<>();
+            for (State state : layer.keySet()) {
+                for (int b = 0; b <= 1; b++) {
+                    State to = steps.next(i, state, b);
+                    if (to != null) next.put(to, null);
+                }
+            }
+            memo.add(next);
+            layer = next;
+        }
+
+        // Completions from every state, by number of mines, each position scaled by exp(suffixScale[i])
+        double[] suffixScale = new double[n + 1];
+        memo.get(n).replaceAll((state, counts) -> new double[] {1});
+        for (int i = n - 1; i >= 0; i--) {
+            steps.enter(i);
+            Map<State, double[]> after = memo.get(i + 1);
+            for (Map.Entry<State, double[]> entry : memo.get(i).entrySet()) {
+                double[] counts = new double[n - i + 1];
+                for (int b = 0; b <= 1; b++) {
+                    State to = steps.next(i, entry.getKey(), b);
+                    if (to != null) {
+                        addShifted(counts, after.get(to), b, 1);
+                    }
+                }
+                entry.setValue(counts);
+            }
+            suffixScale[i] = suffixScale[i + 1] + scale(memo.get(i).values());
+        }
+        double[] total = memo.get(0).get(State.EMPTY);
+
+        // Prefixes forward, joined with the memoized completions whenever a block takes a mine
+        double[][] mines = new double[n][];
+        Map<State, double[]> prefixes = new HashMap<>();
+        prefixes.put(State.EMPTY, new double[] {1});
+        double prefixScale = 0;
+        for (int i = 0; i < n; i++) {
+            steps.enter(i);
+            Map<State, double[]> after = memo.get(i + 1);
+            Map<State, double[]> next = new HashMap<>();
+            Map<State, double[]> mined = new HashMap<>();
+            for (Map.Entry<State, double[]> entry : prefixes.entrySet()) {
+                double[] prefix = entry.getValue();
+                for (int b = 0; b <= 1; b++) {
+                    State to = steps.next(i, entry.getKey(), b);
+                    if (to == null || isZero(after.get(to))) continue;
+                    addShifted(next.computeIfAbsent(to, state -> new double[prefix.length + 1]), prefix, b, 1);
+                    if (b == 1) {
+                        addShifted(mined.computeIfAbsent(to, state -> new double[prefix.length]), prefix, 0, 1);
+                    }
+                }
+            }
+            double[] withMine = new double[n + 1];
+            double factor = Math.exp(prefixScale + suffixScale[i + 1] - suffixScale[0]);
+            for (Map.Entry<State, double[]> entry : mined.entrySet()) {
+                convolve(withMine, entry.getValue(), after.get(entry.getKey()), 1, factor);
+            }
+            mines[order[i]] = withMine;
+            prefixScale += scale(next.values());
+            prefixes = next;
+        }
+        return new Component(cells, total, mines);
+    }
+
+    /**
+     * Combines the components with the blocks off the frontier and stores the probabilities.
+     * <p>
+     * With K mines on the frontier there are C(interior, remaining - K) ways to place the rest. Every
+     * component needs these weights folded with the mine counts of all other components; a balanced tree
+     * of products hands each subtree that context, keeping the whole step quadratic in the frontier size.
+     */
+    private void combine(List<Component> components)
+    {
+        int frontier = frontierCells.size();
+        int interior = covered - frontier;
+        long remaining = (long) world.getMineCount() - exploded;
+
+        double[] weights = new double[frontier + 1];
+        long lowest = Math.max(0, remaining - interior);
+        if (lowest <= Math.min(frontier, remaining)) {
+            double[] log = new double[frontier + 1];
+            for (long k = lowest; k < Math.min(frontier, remaining); k++) {
+                log[(int) k + 1] = log[(int) k] + Math.log(remaining - k) - Math.log(interior - remaining + k + 1);
+            }
+            double max = Double.NEGATIVE_INFINITY;
+            for (long k = lowest; k <= Math.min(frontier, remaining); k++) {
+                max = Math.max(max, log[(int) k]);
+            }
+            for (long k = lowest; k <= Math.min(frontier, remaining); k++) {
+                weights[(int) k] = Math.exp(log[(int) k] - max);
+            }
+        }
+
+        double[] all;
+        if (components.isEmpty()) {
+            all = new double[] {1};
+        } else {
+            double[][] products = new double[4 * components.size()][];
+            all = product(components, products, 1, 0, components.size());
+            distribute(components, products, 1, 0, components.size(), weights);
+        }
+        double sum = 0, expected = 0;
+        for (int k = 0; k < all.length; k++) {
+            sum += all[k] * weights[k];
+            expected += all[k] * weights[k] * (remaining - k);
+        }
+        interiorProbability = interior == 0 ? 0 : sum == 0 ? Double.NaN : expected / sum / interior;
+    }
+
+    private static double[] product(List<Component> components, double[][] products, int node, int from, int to)
+    {
+        double[] result;
+        if (to - from == 1) {
+            result = components.get(from).total;
+        } else {
+            int middle = (from + to) >>> 1;
+            double[] left = product(components, products, 2 * node, from, middle);
+            double[] right = product(components, products, 2 * node + 1, middle, to);
+            result = new double[left.length + right.length - 1];
+            convolve(result, left, right, 0, 1);
+            normalize(result);
+        }
+        products[node] = result;
+        return result;
+    }
+
+    private void distribute(List<Component> components, double[][] products, int node, int from, int to, double[] context)
+    {
+        if (to - from == 1) {
+            Component component = components.get(from);
+            double sum = dot(component.total, context);
+            for (int v = 0; v < component.cells.length; v++) {
+                probability[component.cells[v]] = sum == 0 ? Double.NaN : dot(component.mines[v], context) / sum;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        distribute(components, products, 2 * node, from, middle, fold(context, products[2 * node + 1], products[2 * node].length));
+        distribute(components, products, 2 * node + 1, middle, to, fold(context, products[2 * node], products[2 * node + 1].length));
+    }
+
+    /**
+     * Returns the weights seen by one subtree: {@code result[j] = sum over b of sibling[b] * context[j + b]}.
+     */
+    private static double[] fold(double[] context, double[] sibling, int length)
+    {
+        double[] result = new double[length];
+        for (int j = 0; j < length; j++) {
+            double sum = 0;
+            for (int b = 0; b < sibling.length && j + b < context.length; b++) {
+                sum += sibling[b] * context[j + b];
+            }
+            result[j] = sum;
+        }
+        normalize(result);
+        return result;
+    }
+
+    private static double dot(double[] a, double[] b)
+    {
+        double sum = 0;
+        for (int k = 0; k < Math.min(a.length, b.length); k++) {
+            sum += a[k] * b[k];
+        }
+        return sum;
+    }
+
+    private static void addShifted(double[] target, double[] source, int shift, double factor)
+    {
+        for (int k = 0; k < source.length && k + shift < target.length; k++) {
+            target[k + shift] += source[k] * factor;
+        }
+    }
+
+    /**
+     * Adds {@code factor * (a * b)} to the target, shifted by {@code shift}, skipping the zero ends of both.
+     */
+    private static void convolve(double[] target, double[] a, double[] b, int shift, double factor)
+    {
+        int aFrom = 0, aTo = a.length - 1, bFrom = 0, bTo = b.length - 1;
+        while (aFrom <= aTo && a[aFrom] == 0) aFrom++;
+        while (aTo >= aFrom && a[aTo] == 0) aTo--;
+        while (bFrom <= bTo && b[bFrom] == 0) bFrom++;
+        while (bTo >= bFrom && b[bTo] == 0) bTo--;
+        for (int i = aFrom; i <= aTo; i++) {
+            double scaled = a[i] * factor;
+            int offset = i + shift;
+            for (int j = bFrom; j <= bTo && offset + j < target.length; j++) {
+                target[offset + j] += scaled * b[j];
+            }
+        }
+    }
+
+    private static boolean isZero(double[] values)
+    {
+        for (double value : values) {
+            if (value != 0) return false;
+        }
+        return true;
+    }
+
+    private static double max(double[] values)
+    {
+        double max = 0;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static void normalize(double[] values)
+    {
+        double max = max(values);
+        if (max > 0) {
+            for (int k = 0; k < values.length; k++) {
+                values[k] /= max;
+            }
+        }
+    }
+
+    /**
+     * Divides every array by the largest entry of them all and returns the logarithm of the factor taken out.
+     */
+    private static double scale(Iterable<double[]> layer)
+    {
+        double max = 0;
+        for (double[] values : layer) {
+            max = Math.max(max, max(values));
+        }
+        if (max == 0) {
+            return 0;
+        }
+        for (double[] values : layer) {
+            for (int k = 0; k < values.length; k++) {
+                values[k] /= max;
+            }
+        }
+        return Math.log(max);
+    }
+
+    private static int find(int[] parent, int i)
+    {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private void listConstraint(int cell)
+    {
+        if (!listed[cell] && stateOf(cell) == BlockType.DISCOVERED) {
+            listed[cell] = true;
+            constraints.add(cell);
+        }
+    }
+
+    private boolean hasCoveredNeighbor(int cell) {
+        return coveredNeighbors(cell, neighbors) > 0;
+    }
+
+    /**
+     * Collects the covered neighbors of a block in index order.
+     */
+    private int coveredNeighbors(int cell, int[] out)
+    {
+        int count = 0;
+        int x = cell / columns, y = cell % columns;
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(rows - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(columns - 1, y + 1); ny++) {
+                int neighbor = nx * columns + ny;
+                if (neighbor != cell && isCovered(stateOf(neighbor))) {
+                    out[count++] = neighbor;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of a block minus its revealed mines.
+     */
+    private int remainingMines(int cell)
+    {
+        int mines = 0;
+        int x = cell / columns, y = cell % columns;
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(rows - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(columns - 1, y + 1); ny++) {
+                if (stateOf(nx * columns + ny) == BlockType.MINE) {
+                    mines++;
+                }
+            }
+        }
+        return Cell.adjacentMines(world.cellAt(cell)) - mines;
+    }
+
+    private BlockType stateOf(int cell) {
+        return Cell.state(world.cellAt(cell));
+    }
+
+    private static boolean isCovered(BlockType state) {
+        return state == BlockType.UNKNOWN || state == BlockType.MARKED;
+    }
+
+    /**
+     * Solutions of one component, scaled so that only ratios are meaningful.
+     *
+     * @param cells The covered blocks, ascending.
+     * @param total The number of solutions by number of mines.
+     * @param mines Per block, the number of solutions with a mine there, by number of mines.
+     */
+    private record Component(int[] cells, double[] total, double[][] mines) {}
+
+    /**
+     * Transitions between residual states while assigning the block at position i.
+     */
+    private record Steps(int[][] members, int[] value, int[] first, IntList[] open, IntList[] closing, int[] position)
+    {
+        /**
+         * Records where each number open at position i sits in a state of that position.
+         */
+        void enter(int i)
+        {
+            for (int k = 0; k < open[i].size(); k++) {
+                position[open[i].get(k)] = k;
+            }
+        }
+
+        /**
+         * Returns the state after giving block i {@code mine} mines, or null if a number can no longer be met.
+         */
+        State next(int i, State state, int mine)
+        {
+            IntList after = open[i + 1];
+            byte[] residual = new byte[after.size()];
+            for (int k = 0; k < after.size(); k++) {
+                int j = after.get(k);
+                int r = residual(i, j, state, mine);
+                if (r < 0 || r > countAfter(members[j], i)) {
+                    return null;
+                }
+                residual[k] = (byte) r;
+            }
+            for (int k = 0; k < closing[i].size(); k++) {
+                if (residual(i, closing[i].get(k), state, mine) != 0) {
+                    return null;
+                }
+            }
+            return new State(residual);
+        }
+
+        private int residual(int i, int j, State state, int mine)
+        {
+            int r = first[j] < i ? state.residual[position[j]] : value[j];
+            // At most eight members, a scan beats a binary search
+            for (int member : members[j]) {
+                if (member >= i) {
+                    return member == i ? r - mine : r;
+                }
+            }
+            return r;
+        }
+
+        private static int countAfter(int[] sorted, int i)
+        {
+            int count = 0;
+            for (int k = sorted.length - 1; k >= 0 && sorted[k] > i; k--) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Mines still needed by each open number, in ascending order of the numbers.
+     */
+    private static final class State
+    {
+        static final State EMPTY = new State(new byte[0]);
+
+        final byte[] residual;
+        private final int hash;
+
+        State(byte[] residual)
+        {
+            this.residual = residual;
+            this.hash = Arrays.hashCode(residual);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof State other && Arrays.equals(residual, other.residual);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Cache key of a component: its covered blocks, then each number with the mines it still needs.
+     */
+    private static final class Key
+    {
+        private final int[] data;
+        private final int hash;
+
+        Key(int[] data)
+        {
+            this.data = data;
+            this.hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Arrays.equals(data, other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package minesweeper;
+
+import java.util.SplittableRandom;
+
+/**
+ * Reveals covered blocks uniformly at random, seeded from the board seed so runs are reproducible.
+ */
+public class RandomStrategy implements Strategy
+{
+    private SplittableRandom random;
+
+    @Override
+    public void reset(GameEngine engine) {
+        random = new SplittableRandom(engine.getWorld().getSeed());
+    }
+
+    @Override
+    public Command nextMove(GameEngine engine)
+    {
+        World world = engine.getWorld();
+        int rows = world.getRows(), columns = world.getColumns();
+        // A few random probes find a covered block quickly on most boards, fall back to a scan otherwise
+        for (int attempt = 0; attempt < 32; attempt++) {
+            int x = random.nextInt(rows), y = random.nextInt(columns);
+            if (world.getState(x, y) == BlockType.UNKNOWN) {
+                return Command.reveal(x, y);
+            }
+        }
+        int start = random.nextInt(rows * columns);
+        for (int i = 0; i < rows * columns; i++) {
+            int index = (start + i) % (rows * columns);
+            if (world.getState(index / columns, index % columns) == BlockType.UNKNOWN) {
+                return Command.reveal(index / columns, index % columns);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,196 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A game saved to disk in the {@link GameCodec} format, read and written through memory-mapped files.
+ * <p>
+ * Opening a save maps the file and reads only its header. The bit planes are read from the mapping as
+ * blocks are looked at, so the operating system pages in just the regions that are viewed and the board
+ * is never copied onto the heap; {@link #load()} rebuilds the full game when it is to be played on.
+ */
+public final class SaveFile
+{
+    private final ByteBuffer file;
+    private final GameCodec.Header header;
+    private final ByteBuffer planes;
+    private final int planeWords;
+
+    private SaveFile(ByteBuffer file, GameCodec.Header header, ByteBuffer planes)
+    {
+        this.file = file;
+        this.header = header;
+        this.planes = planes;
+        this.planeWords = GameCodec.planeWords(header.rows() * header.columns());
+    }
+
+    public static void save(GameEngine engine, Path path) throws IOException {
+        save(engine, path, GameCodec.NO_JOURNAL);
+    }
+
+    /**
+     * Writes a game to the given file, replacing its previous content.
+     *
+     * @param journalEntries The number of entries of the game's journal at the time of saving, so that a
+     *                       continued game can drop the moves made after it; negative if it is not journaled.
+     * @throws IllegalStateException If the world still waits for its first reveal to plant its mines.
+     */
+    public static void save(GameEngine engine, Path path, long journalEntries) throws IOException
+    {
+        if (!engine.getWorld().isPlanted()) {
+            throw new IllegalStateException("Nothing to save before the first reveal");
+        }
+        long size = GameCodec.encodedSize(engine.getWorld());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            GameCodec.write(engine, Math.max(journalEntries, GameCodec.NO_JOURNAL), out);
+            out.force();
+        }
+    }
+
+    /**
+     * Maps a saved game and checks its header, without reading the board.
+     *
+     * @throws IOException If the file cannot be read or does not hold a game of a known version.
+     */
+    public static SaveFile open(Path path) throws IOException
+    {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        GameCodec.Header header = GameCodec.readHeader(buffer);
+        return new SaveFile(buffer, header, buffer.slice());
+    }
+
+    /**
+     * Reads a whole saved game.
+     */
+    public static GameEngine load(Path path) throws IOException {
+        return open(path).load();
+    }
+
+    /**
+     * Rebuilds the saved game, ready to be played on.
+     */
+    public GameEngine load() throws IOException
+    {
+        return GameCodec.read(file.duplicate().position(0));
+    }
+
+    public int getRows() {
+        return header.rows();
+    }
+
+    public int getColumns() {
+        return header.columns();
+    }
+
+    public int getDifficulty() {
+        return header.difficulty();
+    }
+
+    public long getSeed() {
+        return header.seed();
+    }
+
+    public GameStatus getStatus() {
+        return header.status();
+    }
+
+    public int getMineCount() {
+        return header.mineCount();
+    }
+
+    public int getToCover() {
+        return header.toCover();
+    }
+
+    public int getMarksLeft() {
+        return header.marksLeft();
+    }
+
+    public int getMinesLeft() {
+        return header.minesLeft();
+    }
+
+    public int getLivesLeft() {
+        return header.livesLeft();
+    }
+
+    /**
+     * Returns the number of journal entries that lead to the saved game, negative if it was not journaled.
+     */
+    public long getJournalEntries() {
+        return header.journalEntries();
+    }
+
+    public boolean isMine(int x, int y) {
+        return bit(0, index(x, y));
+    }
+
+    public boolean isRevealed(int x, int y) {
+        return bit(1, index(x, y));
+    }
+
+    public boolean isMarked(int x, int y) {
+        return bit(2, index(x, y));
+    }
+
+    /**
+     * Returns the character the board shows for the given block, as {@link BoardRenderer} would.
+     */
+    public char character(int x, int y)
+    {
+        int index = index(x, y);
+        if (bit(2, index)) {
+            return '?';
+        } else if (!bit(1, index)) {
+            return '-';
+        } else if (bit(0, index)) {
+            return '*';
+        }
+        int count = 0;
+        for (int i = Math.max(0, x - 1); i <= Math.min(getRows() - 1, x + 1); i++) {
+            for (int j = Math.max(0, y - 1); j <= Math.min(getColumns() - 1, y + 1); j++) {
+                if (bit(0, i * getColumns() + j)) count++;
+            }
+        }
+        return count == 0 ? ' ' : (char) ('0' + count);
+    }
+
+    /**
+     * Returns the given region of the board, one line of block characters per row. The region is clipped
+     * to the board.
+     */
+    public String render(int x, int y, int rows, int columns)
+    {
+        int endX = Math.min(getRows(), x + rows), endY = Math.min(getColumns(), y + columns);
+        StringBuilder builder = new StringBuilder();
+        for (int i = Math.max(0, x); i < endX; i++) {
+            for (int j = Math.max(0, y); j < endY; j++) {
+                builder.append(character(i, j));
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    private int index(int x, int y)
+    {
+        if (x < 0 || y < 0 || x >= getRows() || y >= getColumns()) {
+            throw new IndexOutOfBoundsException("(" + x + "," + y + ") is outside the saved board");
+        }
+        return x * getColumns() + y;
+    }
+
+    private boolean bit(int plane, int index) {
+        return (planes.getLong(((plane * planeWords) + (index >>> 6)) * Long.BYTES) & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,329 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Keeps games on the heap while they are played and spills idle ones to disk.
+ * <p>
+ * Every game weighs about the bytes its board takes on the heap. When the resident games weigh more than
+ * the bound, the least recently used ones are written to the spill directory in the {@link GameCodec}
+ * form and dropped from the heap until the weight is back under 90% of the bound; games left alone for
+ * longer than the idle time are spilled by {@link #evict()} as well. The next access reads a spilled game
+ * back. Each game is guarded by its own lock, the only shared lock makes sure one thread at a time picks
+ * eviction victims and is never waited for. The game locks are {@link ReentrantLock}s rather than monitors:
+ * they are held while a game is written or read back, and a virtual thread blocked on file I/O inside a
+ * {@code synchronized} block would pin its carrier thread. Eviction skips games whose lock is taken, they are
+ * in use and no good victims.
+ */
+public class SessionCache implements Closeable
+{
+    private final Path directory;
+    private final long maxResidentWeight;
+    private final long maxIdleNanos;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong residentWeight = new AtomicLong();
+    private final AtomicInteger residentCount = new AtomicInteger();
+    private final ReentrantLock evicting = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param directory         Where spilled games are written, created if missing.
+     * @param maxResidentWeight The bound on the bytes of all games kept on the heap.
+     * @param maxIdle           How long a game may stay unused before {@link #evict()} spills it.
+     */
+    public SessionCache(Path directory, long maxResidentWeight, Duration maxIdle) throws IOException
+    {
+        this.directory = Files.createDirectories(directory);
+        this.maxResidentWeight = maxResidentWeight;
+        this.maxIdleNanos = maxIdle.toNanos();
+    }
+
+    /**
+     * Returns the approximate heap footprint of a game: two bytes per cell plus a fixed overhead.
+     */
+    static long weightOf(World world) {
+        return 2L * world.getRows() * world.getColumns() + 512;
+    }
+
+    /**
+     * Adds a new game, spilling others if the bound is exceeded.
+     */
+    public void put(long id, GameEngine engine)
+    {
+        Entry entry = new Entry(id, weightOf(engine.getWorld()), engine);
+        Entry previous = entries.put(id, entry);
+        if (previous != null) {
+            discard(previous);
+        }
+        residentWeight.addAndGet(entry.weight);
+        residentCount.incrementAndGet();
+        if (residentWeight.get() > maxResidentWeight) {
+            evict();
+        }
+    }
+
+    /**
+     * Runs an action on a game while holding its lock, reading the game back from disk if it was spilled.
+     *
+     * @return The result of the action, or null if there is no such game.
+     * @throws UncheckedIOException If a spilled game cannot be read.
+     */
+    public <T> T apply(long id, Function<GameEngine, T> action)
+    {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return null;
+        }
+        T result;
+        entry.lock.lock();
+        try {
+            if (entry.removed) {
+                return null;
+            }
+            if (entry.engine == null) {
+                entry.engine = load(entry);
+                residentWeight.addAndGet(entry.weight);
+                residentCount.incrementAndGet();
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+            entry.lastAccess = System.nanoTime();
+            result = action.apply(entry.engine);
+        } finally {
+            entry.lock.unlock();
+        }
+        if (residentWeight.get() > maxResidentWeight) {
+            evict();
+        }
+        return result;
+    }
+
+    /**
+     * Drops a game, resident or spilled.
+     *
+     * @return False if there was no such game.
+     */
+    public boolean remove(long id) {
+        return remove(id, null);
+    }
+
+    /**
+     * Drops a game and, if it was in memory, hands its board to the given pool. The caller must make sure that
+     * nothing else still uses the game.
+     *
+     * @return False if there was no such game.
+     */
+    public boolean remove(long id, WorldPool pool)
+    {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        GameEngine engine = discard(entry);
+        if (engine != null && pool != null) {
+            pool.release(engine.getWorld());
+        }
+        return true;
+    }
+
+    public boolean contains(long id) {
+        return entries.containsKey(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getResidentCount() {
+        return residentCount.get();
+    }
+
+    public long getResidentWeight() {
+        return residentWeight.get();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the share of accesses that found their game on the heap.
+     */
+    public double getHitRate()
+    {
+        long hits = getHits(), total = hits + getMisses();
+        return total == 0 ? 1 : (double) hits / total;
+    }
+
+    /**
+     * Spills idle games, then the least recently used ones while the bound is exceeded. Returns at once
+     * if another thread is already evicting.
+     *
+     * @return The number of games spilled.
+     */
+    public int evict()
+    {
+        if (!evicting.tryLock()) {
+            return 0;
+        }
+        try {
+            long now = System.nanoTime();
+            int spilled = 0;
+            List<Entry> resident = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (entry.engine == null) continue;
+                if (now - entry.lastAccess > maxIdleNanos && spill(entry, entry.lastAccess)) {
+                    spilled++;
+                } else {
+                    resident.add(entry);
+                }
+            }
+            long target = maxResidentWeight / 10 * 9;
+            if (residentWeight.get() > maxResidentWeight) {
+                resident.sort(Comparator.comparingLong(entry -> entry.lastAccess));
+                for (int i = 0; i < resident.size() && residentWeight.get() > target; i++) {
+                    if (spill(resident.get(i), Long.MAX_VALUE)) {
+                        spilled++;
+                    }
+                }
+            }
+            return spilled;
+        } finally {
+            evicting.unlock();
+        }
+    }
+
+    /**
+     * Drops every game and deletes the spilled ones.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        for (Long id : entries.keySet()) {
+            remove(id);
+        }
+    }
+
+    /**
+     * Writes a game to disk and drops it from the heap, unless it is in use or was used after {@code seenAccess}.
+     */
+    private boolean spill(Entry entry, long seenAccess)
+    {
+        if (!entry.lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (entry.engine == null || entry.removed || (seenAccess != Long.MAX_VALUE && entry.lastAccess != seenAccess)) {
+                return false;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(GameCodec.encodedSize(entry.engine.getWorld())));
+            GameCodec.write(entry.engine, buffer);
+            try {
+                Files.write(file(entry), buffer.array());
+            } catch (IOException exc) {
+                // Keep the game on the heap rather than lose it
+                return false;
+            }
+            entry.engine = null;
+            residentWeight.addAndGet(-entry.weight);
+            residentCount.decrementAndGet();
+            evictions.increment();
+            return true;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    private GameEngine load(Entry entry)
+    {
+        Path file = file(entry);
+        try {
+            GameEngine engine = GameCodec.read(ByteBuffer.wrap(Files.readAllBytes(file)));
+            Files.delete(file);
+            return engine;
+        } catch (IOException exc) {
+            throw new UncheckedIOException("Cannot restore game " + entry.id, exc);
+        }
+    }
+
+    /**
+     * Marks an entry as removed and frees its memory or file.
+     *
+     * @return The engine if it was in memory.
+     */
+    private GameEngine discard(Entry entry)
+    {
+        entry.lock.lock();
+        try {
+            entry.removed = true;
+            GameEngine engine = entry.engine;
+            if (engine != null) {
+                entry.engine = null;
+                residentWeight.addAndGet(-entry.weight);
+                residentCount.decrementAndGet();
+                return engine;
+            }
+            try {
+                Files.deleteIfExists(file(entry));
+            } catch (IOException exc) {
+                System.out.println("Could not delete spilled game " + entry.id + ": " + exc.getMessage());
+            }
+            return null;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    private Path file(Entry entry) {
+        return directory.resolve(entry.id + ".game");
+    }
+
+    /**
+     * A game and its bookkeeping. The fields are written under the entry's lock and read without it
+     * only to pick eviction victims.
+     */
+    private static final class Entry
+    {
+        final long id;
+        final long weight;
+        final ReentrantLock lock = new ReentrantLock();
+        volatile GameEngine engine;
+        volatile long lastAccess = System.nanoTime();
+        boolean removed;
+
+        Entry(long id, long weight, GameEngine engine)
+        {
+            this.id = id;
+            this.weight = weight;
+            this.engine = engine;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package minesweeper;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A seeded board that many players clear at the same time, without locks.
+ * <p>
+ * Cells use the packed layout of {@link Cell}. Mines and adjacency counts never change after construction, so
+ * every move only switches the visible state of cells, and each switch is a compare-and-set from the expected
+ * state: of two players revealing, marking or chording the same cell, exactly one succeeds and the other sees
+ * the cell already taken. A flood fill expands only the blank cells its own thread revealed, so fills that
+ * meet in the same region reveal every cell once and together still uncover the whole region. The counters are
+ * {@link LongAdder}s, added to once per move, so players do not contend on them either. They are exact once
+ * the moves in flight are done.
+ * <p>
+ * The board is laid out exactly like {@code new World(x, y, difficulty, seed)}, with the same planting and
+ * adjacency counting.
+ * <p>
+ * Neither the console nor the {@link GameServer} plays on shared boards yet; they are only exercised by the
+ * {@code shared} stress run of {@link #main} and by the tests.
+ */
+public class SharedWorld
+{
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    /** Flood fill work queue of each player thread, reused between moves. */
+    private static final ThreadLocal<IntList> QUEUES = ThreadLocal.withInitial(IntList::new);
+
+    private final long seed;
+    private final int difficulty;
+    private final int mineCount;
+    private final int ROWS;
+    private final int COLUMNS;
+    private final byte[] cells;
+
+    private final LongAdder revealed = new LongAdder();
+    private final LongAdder marks = new LongAdder();
+    private final LongAdder minesMarked = new LongAdder();
+    private final LongAdder minesHit = new LongAdder();
+
+    public SharedWorld(int x, int y, int difficulty, long seed) throws IndexOutOfBoundsException
+    {
+        if (x <= 0 || y <= 0 || (long) x * y > World.MAX_CELLS) {
+            throw new IndexOutOfBoundsException("Dimensions might be " + World.MAX_CELLS + " cells at max. Current: " + x + "X" + y);
+        }
+        this.seed = seed;
+        this.difficulty = difficulty;
+        ROWS = x;
+        COLUMNS = y;
+        cells = new byte[x * y];
+        mineCount = World.minesFor(cells.length, difficulty);
+        MinePlanter.plant(cells, mineCount, seed);
+        World.countAdjacentMines(cells, ROWS, COLUMNS);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public int getMineCount() {
+        return mineCount;
+    }
+
+    public int getRows() {
+        return ROWS;
+    }
+
+    public int getColumns() {
+        return COLUMNS;
+    }
+
+    public long getRevealedCount() {
+        return revealed.sum();
+    }
+
+    public long getMarks() {
+        return marks.sum();
+    }
+
+    public long getMinesHit() {
+        return minesHit.sum();
+    }
+
+    public long getMarksLeft() {
+        return mineCount - marks.sum();
+    }
+
+    /**
+     * Returns the number of mines neither marked nor hit.
+     */
+    public long getMinesLeft() {
+        return mineCount - minesMarked.sum() - minesHit.sum();
+    }
+
+    /**
+     * Returns the number of cells neither revealed nor marked, as {@link World#getToCover()} counts them.
+     */
+    public long getToCover() {
+        return cells.length - revealed.sum() - marks.sum() - minesHit.sum();
+    }
+
+    /**
+     * Returns true if every safe cell has been revealed.
+     */
+    public boolean won() {
+        return revealed.sum() == cells.length - mineCount;
+    }
+
+    public boolean isValid(int x, int y) {
+        return x >= 0 && x < ROWS && y >= 0 && y < COLUMNS;
+    }
+
+    public BlockType getState(int x, int y) {
+        return Cell.state(cell(x * COLUMNS + y));
+    }
+
+    public BlockType getOriginalState(int x, int y) {
+        return Cell.isMine(cells[x * COLUMNS + y]) ? BlockType.MINE : BlockType.BLANK;
+    }
+
+    public int getAdjacentMinesCount(int x, int y) {
+        return Cell.adjacentMines(cells[x * COLUMNS + y]);
+    }
+
+    /**
+     * Reveals the given block and flood fills the connected blank area around it.
+     *
+     * @return The number of cells this call revealed, 0 if the block was taken already, or -1 if this call set
+     * off the mine on it.
+     */
+    public int check(int x, int y)
+    {
+        if (!isValid(x, y)) {
+            return 0;
+        }
+        int index = x * COLUMNS + y;
+        if (Cell.isMine(cells[index])) {
+            if (!transition(index, BlockType.UNKNOWN, BlockType.MINE)) {
+                return 0;
+            }
+            minesHit.increment();
+            return -1;
+        }
+        IntList queue = QUEUES.get();
+        queue.clear();
+        reveal(index, queue);
+        return floodFill(queue);
+    }
+
+    /**
+     * Flags a covered block.
+     *
+     * @return False if the block is not covered, or another player took it first.
+     */
+    public boolean mark(int x, int y)
+    {
+        int index = x * COLUMNS + y;
+        if (!isValid(x, y) || !transition(index, BlockType.UNKNOWN, BlockType.MARKED)) {
+            return false;
+        }
+        marks.increment();
+        if (Cell.isMine(cells[index])) {
+            minesMarked.increment();
+        }
+        return true;
+    }
+
+    /**
+     * Removes a flag.
+     *
+     * @return False if the block is not flagged, or another player removed the flag first.
+     */
+    public boolean unmark(int x, int y) {
+        return isValid(x, y) && unmark(x * COLUMNS + y);
+    }
+
+    private boolean unmark(int index)
+    {
+        if (!transition(index, BlockType.MARKED, BlockType.UNKNOWN)) {
+            return false;
+        }
+        marks.decrement();
+        if (Cell.isMine(cells[index])) {
+            minesMarked.decrement();
+        }
+        return true;
+    }
+
+    /**
+     * Auto-expands neighbors if the number of flags matches adjacent mines (Chord). Neighbors other players
+     * change meanwhile are left to them.
+     *
+     * @return The number of mines this call hit, or -1 if the block cannot be chorded.
+     */
+    public int forceExpand(int x, int y)
+    {
+        if (!isValid(x, y)) {
+            return -1;
+        }
+        int index = x * COLUMNS + y;
+        byte center = cell(index);
+        if (Cell.state(center) != BlockType.DISCOVERED || countMarked(index) != Cell.adjacentMines(center)) {
+            return -1;
+        }
+        IntList queue = QUEUES.get();
+        queue.clear();
+        int hitMines = 0;
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(ROWS - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(COLUMNS - 1, y + 1); ny++) {
+                int neighbor = nx * COLUMNS + ny;
+                if (neighbor == index) continue;
+
+                byte cell = cell(neighbor);
+                if (Cell.state(cell) == BlockType.UNKNOWN) {
+                    if (!Cell.isMine(cell)) {
+                        reveal(neighbor, queue);
+                    } else if (transition(neighbor, BlockType.UNKNOWN, BlockType.MINE)) {
+                        hitMines++;
+                    }
+                } else if (Cell.state(cell) == BlockType.MARKED && !Cell.isMine(cell)) {
+                    // Incorrectly marked safe spot
+                    unmark(neighbor);
+                }
+            }
+        }
+        minesHit.add(hitMines);
+        floodFill(queue);
+        return hitMines;
+    }
+
+    private byte cell(int index) {
+        return (byte) CELLS.getVolatile(cells, index);
+    }
+
+    /**
+     * Switches the visible state of a cell if it still has the expected one.
+     *
+     * @return True if this call made the switch.
+     */
+    private boolean transition(int index, BlockType from, BlockType to)
+    {
+        byte cell;
+        do {
+            cell = cell(index);
+            if (Cell.state(cell) != from) {
+                return false;
+            }
+        } while (!CELLS.compareAndSet(cells, index, cell, Cell.withState(cell, to)));
+        return true;
+    }
+
+    /**
+     * Reveals a covered safe cell and queues it if this call was the one to reveal it.
+     */
+    private void reveal(int index, IntList queue)
+    {
+        BlockType state = Cell.adjacentMines(cells[index]) == 0 ? BlockType.BLANK : BlockType.DISCOVERED;
+        if (transition(index, BlockType.UNKNOWN, state)) {
+            queue.add(index);
+        }
+    }
+
+    /**
+     * Expands the blank cells of the queue, which this thread revealed itself, and counts all cells it revealed.
+     */
+    private int floodFill(IntList queue)
+    {
+        for (int i = 0; i < queue.size(); i++) {
+            int index = queue.get(i);
+            if (Cell.adjacentMines(cells[index]) != 0) continue;
+            int x = index / COLUMNS;
+            int y = index % COLUMNS;
+            for (int nx = Math.max(0, x - 1); nx <= Math.min(ROWS - 1, x + 1); nx++) {
+                for (int ny = Math.max(0, y - 1); ny <= Math.min(COLUMNS - 1, y + 1); ny++) {
+                    int neighbor = nx * COLUMNS + ny;
+                    if (!Cell.isMine(cells[neighbor])) {
+                        reveal(neighbor, queue);
+                    }
+                }
+            }
+        }
+        revealed.add(queue.size());
+        return queue.size();
+    }
+
+    /**
+     * Counts the marked neighbors of a cell.
+     */
+    private int countMarked(int index)
+    {
+        int x = index / COLUMNS;
+        int y = index % COLUMNS;
+        int count = 0;
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(ROWS - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(COLUMNS - 1, y + 1); ny++) {
+                int neighbor = nx * COLUMNS + ny;
+                if (neighbor != index && Cell.state(cell(neighbor)) == BlockType.MARKED) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Lets several players make random moves on one board, then checks that every counter matches the cells:
+     * {@code [rows columns difficulty] [seconds per run] [seed] [max players]}. Runs with 1, 2, 4... players up to
+     * twice the number of processors by default and prints the throughput of each.
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        int rows = args.length >= 3 ? Integer.parseInt(args[0]) : 2000;
+        int columns = args.length >= 3 ? Integer.parseInt(args[1]) : 2000;
+        int difficulty = args.length >= 3 ? Integer.parseInt(args[2]) : 1;
+        int rest = args.length >= 3 ? 3 : 0;
+        double seconds = args.length > rest ? Double.parseDouble(args[rest]) : 2;
+        long seed = args.length > rest + 1 ? Long.parseLong(args[rest + 1]) : 0;
+        int maxPlayers = args.length > rest + 2 ? Integer.parseInt(args[rest + 2]) : 2 * Runtime.getRuntime().availableProcessors();
+        boolean consistent = true;
+        for (int players = 1; players <= maxPlayers; players <<= 1) {
+            SharedWorld world = new SharedWorld(rows, columns, difficulty, seed);
+            LongAdder moves = new LongAdder(), reportedReveals = new LongAdder(), reportedHits = new LongAdder();
+            long end = System.nanoTime() + (long) (seconds * 1e9);
+            Thread[] threads = new Thread[players];
+            for (int p = 0; p < players; p++) {
+                threads[p] = new Thread(() -> world.play(end, moves, reportedReveals, reportedHits));
+                threads[p].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            String problem = world.verify(reportedReveals.sum(), reportedHits.sum());
+            consistent &= problem == null;
+            System.out.printf("%d player%s: %.0f moves/s, %d cells revealed, %d marks, %d mines hit: %s%n",
+                    players, players == 1 ? "" : "s", moves.sum() / seconds, world.getRevealedCount(), world.getMarks(), world.getMinesHit(),
+                    problem == null ? "consistent" : problem);
+        }
+        if (!consistent) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Makes random moves until the deadline, adding up what the moves reported.
+     */
+    void play(long end, LongAdder moves, LongAdder reportedReveals, LongAdder reportedHits)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long count = 0;
+        while ((count & 255) != 0 || System.nanoTime() < end) {
+            int x = random.nextInt(ROWS), y = random.nextInt(COLUMNS);
+            int move = random.nextInt(10);
+            if (move < 4) {
+                int result = check(x, y);
+                if (result < 0) reportedHits.increment();
+                else reportedReveals.add(result);
+            } else if (move < 6) {
+                mark(x, y);
+            } else if (move < 8) {
+                unmark(x, y);
+            } else {
+                int result = forceExpand(x, y);
+                if (result >= 0) {
+                    reportedHits.add(result);
+                    reportedReveals.add(QUEUES.get().size());
+                }
+            }
+            count++;
+        }
+        moves.add(count);
+    }
+
+    /**
+     * Recounts the board and compares it with the counters and the totals reported by the moves.
+     *
+     * @return A description of the first difference, or null if there is none.
+     */
+    String verify(long reportedReveals, long reportedHits)
+    {
+        long shown = 0, flagged = 0, flaggedMines = 0, exploded = 0;
+        for (int index = 0; index < cells.length; index++) {
+            byte cell = cell(index);
+            switch (Cell.state(cell)) {
+                case BLANK, DISCOVERED -> {
+                    if (Cell.isMine(cell)) return "mine " + index + " shown as safe";
+                    shown++;
+                }
+                case MARKED -> {
+                    flagged++;
+                    if (Cell.isMine(cell)) flaggedMines++;
+                }
+                case MINE -> exploded++;
+                default -> { }
+            }
+        }
+        if (shown != revealed.sum() || shown != reportedReveals) {
+            return "revealed " + shown + " cells, counted " + revealed.sum() + ", reported " + reportedReveals;
+        } else if (flagged != marks.sum() || flaggedMines != minesMarked.sum()) {
+            return "marked " + flagged + " cells, counted " + marks.sum();
+        } else if (exploded != minesHit.sum() || exploded != reportedHits) {
+            return "hit " + exploded + " mines, counted " + minesHit.sum() + ", reported " + reportedHits;
+        }
+        return null;
+    }
+}
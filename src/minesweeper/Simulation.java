@@ -0,0 +1,131 @@
+package minesweeper;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * Plays many games without any I/O, one per seed, spread over a fork-join pool.
+ * <p>
+ * Every game is fully determined by its seed and the strategy, and the totals are plain sums, so a
+ * report for a fixed seed range is the same whatever the number of threads. Each worker thread keeps
+ * its own strategy instance for all games it plays, and boards are reused through a {@link WorldPool}.
+ */
+public class Simulation
+{
+    private final int rows;
+    private final int columns;
+    private final int difficulty;
+    private final Supplier<Strategy> strategies;
+    /** Boards of finished games, reset in place for the next ones. */
+    private final WorldPool worlds = new WorldPool();
+
+    public Simulation(int rows, int columns, int difficulty, Supplier<Strategy> strategies)
+    {
+        this.rows = rows;
+        this.columns = columns;
+        this.difficulty = difficulty;
+        this.strategies = strategies;
+    }
+
+    /**
+     * Totals of a simulation run.
+     *
+     * @param games     The number of games played.
+     * @param wins      The number of games won.
+     * @param moves     The number of moves applied, rejected ones included.
+     * @param elapsedNs The wall-clock time of the run.
+     */
+    public record Report(
+            long games,
+            long wins,
+            long moves,
+            long elapsedNs
+    ) {
+        public double winRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        public double movesPerGame() {
+            return games == 0 ? 0 : (double) moves / games;
+        }
+
+        public double gamesPerSecond() {
+            return elapsedNs == 0 ? 0 : games * 1e9 / elapsedNs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("games: %d, win rate: %.2f%%, moves/game: %.1f, games/s: %.0f",
+                    games, winRate() * 100, movesPerGame(), gamesPerSecond());
+        }
+    }
+
+    /**
+     * Plays one game for every seed in {@code [firstSeed, firstSeed + games)} on the given number of threads.
+     */
+    public Report run(long firstSeed, long games, int threads)
+    {
+        ThreadLocal<Strategy> strategy = ThreadLocal.withInitial(strategies);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            long[] totals = pool.submit(() -> LongStream.range(firstSeed, firstSeed + games)
+                    .parallel()
+                    .mapToObj(seed -> play(seed, strategy.get()))
+                    .reduce(new long[3], Simulation::add)).join();
+            return new Report(totals[0], totals[1], totals[2], System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays a single game and returns {games, wins, moves}.
+     */
+    long[] play(long seed, Strategy strategy)
+    {
+        World world = worlds.acquire(rows, columns, difficulty, seed);
+        GameEngine engine = new GameEngine(world);
+        strategy.reset(engine);
+        // Guards against strategies that keep sending rejected moves
+        long maxMoves = 4L * rows * columns;
+        long moves = 0;
+        while (engine.getStatus() == GameStatus.PLAYING) {
+            Command command = moves < maxMoves ? strategy.nextMove(engine) : null;
+            if (command == null) {
+                command = Command.resign();
+            }
+            strategy.onResult(command, engine.apply(command));
+            moves++;
+        }
+        worlds.release(world);
+        return new long[] {1, engine.getStatus() == GameStatus.WON ? 1 : 0, moves};
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        return new long[] {a[0] + b[0], a[1] + b[1], a[2] + b[2]};
+    }
+
+    /**
+     * Runs a simulation from the command line:
+     * {@code rows columns difficulty firstSeed games [strategy] [threads]}.
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 5) {
+            System.out.println("Usage: simulate <rows> <columns> <difficulty 1|2> <first seed> <games> [strategy] [threads]");
+            return;
+        }
+        int rows = Integer.parseInt(args[0]);
+        int columns = Integer.parseInt(args[1]);
+        int difficulty = Integer.parseInt(args[2]);
+        long firstSeed = Long.parseLong(args[3]);
+        long games = Long.parseLong(args[4]);
+        String strategy = args.length > 5 ? args[5] : "solver";
+        int threads = args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+
+        Simulation simulation = new Simulation(rows, columns, difficulty, () -> Strategy.named(strategy));
+        System.out.println(simulation.run(firstSeed, games, threads));
+    }
+}
@@ -0,0 +1,485 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * Plays from the visible board only, used as the hint engine and as the default automated strategy.
+ * <p>
+ * Deductions work on a frontier index: the numbered blocks that still have covered neighbors. Only
+ * blocks whose neighborhood changed since they were last looked at are re-examined, first with the
+ * single-block rules (all remaining neighbors are mines, or none are), then with the subset rule
+ * between nearby numbered blocks. When nothing is certain, the covered block with the lowest
+ * mine probability according to the {@link ProbabilityEngine} is guessed.
+ * <p>
+ * Marks are the player's guesses and may be wrong, so marked blocks count as covered like any other: only
+ * uncovered mines and the solver's own deductions are taken as mines.
+ */
+public class Solver implements Strategy
+{
+    private static final byte MINE = 1;         // Known to be a mine.
+    private static final byte SAFE = 2;         // Known to be safe and queued for reveal.
+    private static final byte DIRTY = 4;        // Queued for the single-block rules.
+    private static final byte PAIR_DIRTY = 8;   // Queued for the subset rule.
+    private static final byte FRONTIER = 16;    // Listed in the frontier.
+
+    /** Largest frontier handed to the {@link ProbabilityEngine}, combining its components is quadratic in size. */
+    private static final int MAX_EXACT_FRONTIER = 2048;
+
+    private World world;
+    private ProbabilityEngine probabilities;
+    private int rows;
+    private int columns;
+    private byte[] flags = new byte[0];
+
+    private final IntList safe = new IntList();
+    private int safeHead;
+    private final IntList dirty = new IntList();
+    private final IntList pairDirty = new IntList();
+    /** Numbered blocks with covered neighbors, may hold stale entries whose FRONTIER bit was cleared. */
+    private final IntList frontier = new IntList();
+
+    private int knownMines;
+    private int coveredKnownMines;
+    private int covered;
+    private int interiorCursor;
+    private double lastProbability;
+
+    private float[] risk = new float[0];
+    private final IntList risky = new IntList();
+    private final int[] unknownA = new int[8];
+    private final int[] unknownB = new int[8];
+
+    /**
+     * Reads the whole visible board, so the solver can pick up a game that is already in progress.
+     */
+    @Override
+    public void reset(GameEngine engine)
+    {
+        world = engine.getWorld();
+        rows = world.getRows();
+        columns = world.getColumns();
+        int size = rows * columns;
+        if (flags.length != size) {
+            flags = new byte[size];
+            risk = new float[size];
+        } else {
+            Arrays.fill(flags, (byte) 0);
+        }
+        safe.clear();
+        safeHead = 0;
+        dirty.clear();
+        pairDirty.clear();
+        frontier.clear();
+        knownMines = 0;
+        coveredKnownMines = 0;
+        covered = 0;
+        interiorCursor = 0;
+        if (probabilities != null && probabilities.getWorld() == world) {
+            // A pooled board is reset in place, so the engine's arrays still fit it
+            probabilities.reset();
+        } else {
+            probabilities = new ProbabilityEngine(world);
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (isCovered(i)) {
+                covered++;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            BlockType state = stateOf(i);
+            if (state == BlockType.MINE) {
+                setMine(i);
+            } else if (state == BlockType.DISCOVERED) {
+                touch(i);
+            }
+        }
+    }
+
+    /**
+     * Returns the next move for the given game from scratch, without relying on earlier calls.
+     */
+    public Command hint(GameEngine engine)
+    {
+        reset(engine);
+        return nextMove(engine);
+    }
+
+    /**
+     * Returns the mine probability of the last suggested block, 0 when it was deduced to be safe.
+     */
+    public double getLastProbability() {
+        return lastProbability;
+    }
+
+    @Override
+    public Command nextMove(GameEngine engine)
+    {
+        while (true) {
+            int cell = pollSafe();
+            if (cell >= 0) {
+                lastProbability = 0;
+                return reveal(cell);
+            }
+            if (!dirty.isEmpty()) {
+                applySingleRules();
+            } else if (pairDirty.isEmpty() || !applySubsetRule()) {
+                break;
+            }
+        }
+        return guess();
+    }
+
+    @Override
+    public void onResult(Command command, MoveResult result)
+    {
+        probabilities.update(result.revealed());
+        for (int index : result.revealed()) {
+            covered--;
+            if (stateOf(index) == BlockType.MINE) {
+                if ((flags[index] & MINE) != 0) {
+                    coveredKnownMines--;
+                } else {
+                    flags[index] |= MINE;
+                    knownMines++;
+                }
+            } else {
+                touch(index);
+            }
+            touchNeighbors(index);
+        }
+    }
+
+    private Command reveal(int cell) {
+        return Command.reveal(cell / columns, cell % columns);
+    }
+
+    private int pollSafe()
+    {
+        while (safeHead < safe.size()) {
+            int cell = safe.get(safeHead++);
+            if (isCovered(cell)) {
+                return cell;
+            }
+        }
+        safe.clear();
+        safeHead = 0;
+        return -1;
+    }
+
+    private void applySingleRules()
+    {
+        for (int i = 0; i < dirty.size(); i++) {
+            int cell = dirty.get(i);
+            flags[cell] &= ~DIRTY;
+            int unknowns = unknownNeighbors(cell, unknownA);
+            if (unknowns == 0) {
+                flags[cell] &= ~FRONTIER;
+                continue;
+            }
+            int remaining = remainingMines(cell);
+            if (remaining == 0) {
+                for (int k = 0; k < unknowns; k++) {
+                    markSafe(unknownA[k]);
+                }
+            } else if (remaining == unknowns) {
+                for (int k = 0; k < unknowns; k++) {
+                    setMine(unknownA[k]);
+                }
+            }
+        }
+        dirty.clear();
+    }
+
+    /**
+     * Compares every queued block with the numbered frontier blocks up to two steps away. If the
+     * covered neighbors of one are a subset of the other's, the difference holds exactly the
+     * difference of their remaining mine counts.
+     *
+     * @return True if anything new was deduced.
+     */
+    private boolean applySubsetRule()
+    {
+        boolean progress = false;
+        for (int i = 0; i < pairDirty.size(); i++) {
+            int a = pairDirty.get(i);
+            flags[a] &= ~PAIR_DIRTY;
+            if ((flags[a] & FRONTIER) == 0) continue;
+            int unknownsA = unknownNeighbors(a, unknownA);
+            if (unknownsA == 0) continue;
+            int remainingA = remainingMines(a);
+            int ax = a / columns, ay = a % columns;
+            for (int bx = Math.max(0, ax - 2); bx <= Math.min(rows - 1, ax + 2); bx++) {
+                for (int by = Math.max(0, ay - 2); by <= Math.min(columns - 1, ay + 2); by++) {
+                    int b = bx * columns + by;
+                    if (b == a || (flags[b] & FRONTIER) == 0 || stateOf(b) != BlockType.DISCOVERED) continue;
+                    int unknownsB = unknownNeighbors(b, unknownB);
+                    int remainingB = remainingMines(b);
+                    progress |= applySubset(unknownA, unknownsA, remainingA, unknownB, unknownsB, remainingB);
+                    progress |= applySubset(unknownB, unknownsB, remainingB, unknownA, unknownsA, remainingA);
+                }
+            }
+        }
+        pairDirty.clear();
+        return progress;
+    }
+
+    private boolean applySubset(int[] small, int smallSize, int smallRemaining, int[] large, int largeSize, int largeRemaining)
+    {
+        if (smallSize == 0 || smallSize >= largeSize || !contains(large, largeSize, small, smallSize)) {
+            return false;
+        }
+        int extraMines = largeRemaining - smallRemaining;
+        int extraCells = largeSize - smallSize;
+        if (extraMines != 0 && extraMines != extraCells) {
+            return false;
+        }
+        boolean progress = false;
+        for (int k = 0; k < largeSize; k++) {
+            int cell = large[k];
+            if (!contains(small, smallSize, cell)) {
+                if (extraMines == 0 && (flags[cell] & SAFE) == 0) {
+                    markSafe(cell);
+                    progress = true;
+                } else if (extraMines != 0 && (flags[cell] & MINE) == 0) {
+                    setMine(cell);
+                    progress = true;
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Picks the covered block least likely to be a mine, using exact probabilities unless the frontier is too large.
+     */
+    private Command guess()
+    {
+        if (!probabilities.compute(MAX_EXACT_FRONTIER)) {
+            return estimatedGuess();
+        }
+        double best = Double.MAX_VALUE;
+        int bestCell = -1;
+        IntList cells = probabilities.getFrontierCells();
+        for (int i = 0; i < cells.size(); i++) {
+            int cell = cells.get(i);
+            double p = probabilities.probability(cell);
+            if (p < best && (flags[cell] & MINE) == 0 && isCovered(cell)) {
+                best = p;
+                bestCell = cell;
+            }
+        }
+        if (bestCell < 0 || probabilities.getInteriorProbability() < best) {
+            int interior = nextInteriorCell();
+            if (interior >= 0) {
+                bestCell = interior;
+                best = probabilities.getInteriorProbability();
+            }
+        }
+        if (bestCell < 0) {
+            return null;
+        }
+        lastProbability = best;
+        return reveal(bestCell);
+    }
+
+    /**
+     * Picks the covered block least likely to be a mine by a local estimate. A frontier block is rated by
+     * the worst of its numbered neighbors (remaining mines over covered neighbors), any other block by the
+     * overall density of the mines not yet accounted for.
+     */
+    private Command estimatedGuess()
+    {
+        float best = Float.MAX_VALUE;
+        int bestCell = -1;
+        int kept = 0;
+        for (int i = 0; i < frontier.size(); i++) {
+            int cell = frontier.get(i);
+            if ((flags[cell] & FRONTIER) == 0) continue;
+            int unknowns = unknownNeighbors(cell, unknownA);
+            if (unknowns == 0) {
+                flags[cell] &= ~FRONTIER;
+                continue;
+            }
+            frontier.set(kept++, cell);
+            float p = (float) remainingMines(cell) / unknowns;
+            for (int k = 0; k < unknowns; k++) {
+                int u = unknownA[k];
+                if (risk[u] == 0) {
+                    risky.add(u);
+                }
+                risk[u] = Math.max(risk[u], p + Float.MIN_VALUE);
+            }
+        }
+        frontier.truncate(kept);
+        for (int i = 0; i < risky.size(); i++) {
+            int cell = risky.get(i);
+            if (risk[cell] < best) {
+                best = risk[cell];
+                bestCell = cell;
+            }
+            risk[cell] = 0;
+        }
+        risky.clear();
+
+        int unknownCells = covered - coveredKnownMines;
+        float density = unknownCells == 0 ? 1 : (float) (world.getMineCount() - knownMines) / unknownCells;
+        if (bestCell < 0 || density < best) {
+            int interior = nextInteriorCell();
+            if (interior >= 0) {
+                bestCell = interior;
+                best = density;
+            }
+        }
+        if (bestCell < 0) {
+            return null;
+        }
+        lastProbability = Math.min(1, best);
+        return reveal(bestCell);
+    }
+
+    /**
+     * Returns a covered block without revealed neighbors. Such a block can only stop qualifying by being
+     * revealed or getting a revealed neighbor, so the cursor never has to move back.
+     */
+    private int nextInteriorCell()
+    {
+        for (; interiorCursor < flags.length; interiorCursor++) {
+            int cell = interiorCursor;
+            if (isCovered(cell) && (flags[cell] & MINE) == 0 && !hasRevealedNeighbor(cell)) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    private boolean hasRevealedNeighbor(int cell)
+    {
+        int x = cell / columns, y = cell % columns;
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(rows - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(columns - 1, y + 1); ny++) {
+                BlockType state = stateOf(nx * columns + ny);
+                if (state == BlockType.DISCOVERED || state == BlockType.BLANK) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects the covered neighbors not known to be mines.
+     *
+     * @return The number of neighbors written to {@code out}, in index order.
+     */
+    private int unknownNeighbors(int cell, int[] out)
+    {
+        int count = 0;
+        int x = cell / columns, y = cell % columns;
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(rows - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(columns - 1, y + 1); ny++) {
+                int neighbor = nx * columns + ny;
+                if (neighbor != cell && (flags[neighbor] & MINE) == 0 && isCovered(neighbor)) {
+                    out[count++] = neighbor;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of the block minus its neighbors known to be mines.
+     */
+    private int remainingMines(int cell)
+    {
+        int mines = 0;
+        int x = cell / columns, y = cell % columns;
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(rows - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(columns - 1, y + 1); ny++) {
+                if ((flags[nx * columns + ny] & MINE) != 0) {
+                    mines++;
+                }
+            }
+        }
+        return Cell.adjacentMines(world.cellAt(cell)) - mines;
+    }
+
+    private void markSafe(int cell)
+    {
+        if ((flags[cell] & SAFE) == 0) {
+            flags[cell] |= SAFE;
+            safe.add(cell);
+        }
+    }
+
+    private void setMine(int cell)
+    {
+        if ((flags[cell] & MINE) == 0) {
+            flags[cell] |= MINE;
+            knownMines++;
+            if (isCovered(cell)) {
+                coveredKnownMines++;
+            }
+            touchNeighbors(cell);
+        }
+    }
+
+    /**
+     * Queues a numbered block for both rule passes and adds it to the frontier.
+     */
+    private void touch(int cell)
+    {
+        if (stateOf(cell) != BlockType.DISCOVERED) {
+            return;
+        }
+        if ((flags[cell] & DIRTY) == 0) {
+            flags[cell] |= DIRTY;
+            dirty.add(cell);
+        }
+        if ((flags[cell] & PAIR_DIRTY) == 0) {
+            flags[cell] |= PAIR_DIRTY;
+            pairDirty.add(cell);
+        }
+        if ((flags[cell] & FRONTIER) == 0) {
+            flags[cell] |= FRONTIER;
+            frontier.add(cell);
+        }
+    }
+
+    private void touchNeighbors(int cell)
+    {
+        int x = cell / columns, y = cell % columns;
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(rows - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(columns - 1, y + 1); ny++) {
+                touch(nx * columns + ny);
+            }
+        }
+    }
+
+    private BlockType stateOf(int cell) {
+        return Cell.state(world.cellAt(cell));
+    }
+
+    /**
+     * Returns true if the block is not uncovered yet, marked or not.
+     */
+    private boolean isCovered(int cell)
+    {
+        BlockType state = stateOf(cell);
+        return state == BlockType.UNKNOWN || state == BlockType.MARKED;
+    }
+
+    private static boolean contains(int[] sorted, int size, int value) {
+        return Arrays.binarySearch(sorted, 0, size, value) >= 0;
+    }
+
+    private static boolean contains(int[] large, int largeSize, int[] small, int smallSize)
+    {
+        for (int k = 0; k < smallSize; k++) {
+            if (!contains(large, largeSize, small[k])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
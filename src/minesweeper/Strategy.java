@@ -0,0 +1,34 @@
+package minesweeper;
+
+/**
+ * An automated player for the {@link Simulation}. Instances are reused for many games on one thread, never shared.
+ */
+public interface Strategy
+{
+    /**
+     * Called before the first move of every game.
+     */
+    default void reset(GameEngine engine) {}
+
+    /**
+     * Returns the next move for the given game, or {@code null} to give up.
+     */
+    Command nextMove(GameEngine engine);
+
+    /**
+     * Called with the result of every move the strategy made.
+     */
+    default void onResult(Command command, MoveResult result) {}
+
+    /**
+     * Creates a strategy by the name used on the command line.
+     */
+    static Strategy named(String name)
+    {
+        return switch (name) {
+            case "random" -> new RandomStrategy();
+            case "solver" -> new Solver();
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name);
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package minesweeper;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe variant of {@link LatencyHistogram} for values recorded from many threads at once.
+ * <p>
+ * Each thread records into one of several stripes picked by its ID, so threads rarely touch the same
+ * counters and recording never blocks. {@link #snapshot()} adds the stripes up into a plain histogram.
+ */
+final class StripedHistogram
+{
+    /** Slots per stripe: the buckets, then sum and max. */
+    private static final int SLOTS = LatencyHistogram.BUCKETS + 2;
+    private static final int SUM = LatencyHistogram.BUCKETS;
+    private static final int MAX = LatencyHistogram.BUCKETS + 1;
+
+    private final AtomicLongArray[] stripes;
+    private final int mask;
+
+    StripedHistogram()
+    {
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+        stripes = new AtomicLongArray[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new AtomicLongArray(SLOTS);
+        }
+        mask = count - 1;
+    }
+
+    void record(long value)
+    {
+        long v = Math.max(0, value);
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & mask];
+        stripe.getAndIncrement(LatencyHistogram.bucket(v));
+        stripe.getAndAdd(SUM, v);
+        long max = stripe.get(MAX);
+        while (v > max && !stripe.compareAndSet(MAX, max, v)) {
+            max = stripe.get(MAX);
+        }
+    }
+
+    /**
+     * Returns the values recorded so far. Values recorded meanwhile may be missing or counted partly.
+     */
+    LatencyHistogram snapshot()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (AtomicLongArray stripe : stripes) {
+            for (int b = 0; b < LatencyHistogram.BUCKETS; b++) {
+                long count = stripe.get(b);
+                if (count != 0) {
+                    histogram.add(b, count);
+                }
+            }
+            histogram.addTotals(stripe.get(SUM), stripe.get(MAX));
+        }
+        return histogram;
+    }
+
+    void clear()
+    {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < SLOTS; i++) {
+                stripe.set(i, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Undo and redo for a {@link GameEngine}, built from the cells each move changed instead of copies of the board.
+ * <p>
+ * While a move is applied the world reports every state change. The move's entry keeps the changed cells with
+ * their old and new states, the shift of toCover, marksLeft and minesLeft, and the lives and status before and
+ * after the move, so taking a move back or replaying it costs as much as the move itself, whatever the size of
+ * the board.
+ * <p>
+ * The number of cell changes kept move by move is capped. Once the history holds more, the oldest moves are folded
+ * into a checkpoint at its bottom until it is back under half the cap: a single entry that keeps, per cell, only
+ * the state before the first and after the last folded move, so it never holds more than one change per cell.
+ * Undo still reaches the start of the game, but takes the folded moves back all at once.
+ */
+final class UndoHistory
+{
+    /** Default cap on recorded cell changes, 8 bytes each. */
+    static final int DEFAULT_MAX_CHANGES = 1 << 20;
+    /** Folding sorts changes by cell and by their order, which has to fit in {@link #SEQUENCE_BITS}. */
+    private static final int SEQUENCE_BITS = 29;
+
+    private static final BlockType[] STATES = BlockType.values();
+
+    private final GameEngine engine;
+    private final World world;
+    private final int maxChanges;
+
+    private final IntList log = new IntList();
+    private final List<Entry> undo = new ArrayList<>();
+    private final List<Entry> redo = new ArrayList<>();
+    /** The folded moves, at the bottom of {@link #undo} or the top of {@link #redo} once undone, or null. */
+    private Entry checkpoint;
+    /** Cell changes held by the entries other than the checkpoint. */
+    private long changes;
+
+    private int toCover;
+    private int marksLeft;
+    private int minesLeft;
+    private int livesLeft;
+    private GameStatus status;
+
+    UndoHistory(GameEngine engine, int maxChanges)
+    {
+        // A fold sees at most the cap plus one move, which changes at most World.MAX_CELLS cells
+        if (maxChanges <= 0 || maxChanges > (1 << SEQUENCE_BITS) - World.MAX_CELLS) {
+            throw new IllegalArgumentException("The undo cap must be between 1 and " + ((1 << SEQUENCE_BITS) - World.MAX_CELLS));
+        }
+        this.engine = engine;
+        this.world = engine.getWorld();
+        this.maxChanges = maxChanges;
+    }
+
+    /**
+     * One or more moves: pairs of (index, old state ordinal << 3 | new state ordinal) in the order they happened,
+     * and the counter shifts and lives and status around them.
+     */
+    private record Entry(
+            int[] cells,
+            int toCover,
+            int marksLeft,
+            int minesLeft,
+            int livesBefore,
+            int livesAfter,
+            GameStatus statusBefore,
+            GameStatus statusAfter
+    ) {
+        int size() {
+            return cells.length >>> 1;
+        }
+
+        boolean isEmpty() {
+            return cells.length == 0 && toCover == 0 && marksLeft == 0 && minesLeft == 0
+                    && livesBefore == livesAfter && statusBefore == statusAfter;
+        }
+    }
+
+    /**
+     * Starts recording a move.
+     */
+    void begin()
+    {
+        log.clear();
+        world.setChangeLog(log);
+        toCover = world.getToCover();
+        marksLeft = world.getMarksLeft();
+        minesLeft = world.getMinesLeft();
+        livesLeft = engine.getLivesLeft();
+        status = engine.getStatus();
+    }
+
+    /**
+     * Stops recording and keeps the move if it changed anything, which makes the moves undone so far unreachable.
+     */
+    void end()
+    {
+        world.setChangeLog(null);
+        Entry entry = new Entry(log.toArray(), world.getToCover() - toCover, world.getMarksLeft() - marksLeft,
+                world.getMinesLeft() - minesLeft, livesLeft, engine.getLivesLeft(), status, engine.getStatus());
+        if (entry.isEmpty()) {
+            return;
+        }
+        for (Entry undone : redo) {
+            if (undone == checkpoint) {
+                checkpoint = null;
+            } else {
+                changes -= undone.size();
+            }
+        }
+        redo.clear();
+        undo.add(entry);
+        changes += entry.size();
+        if (changes > maxChanges) {
+            fold();
+        }
+    }
+
+    boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    boolean canRedo() {
+        return !redo.isEmpty();
+    }
+
+    /**
+     * Returns the number of entries that can be undone, the checkpoint counting as one.
+     */
+    int depth() {
+        return undo.size();
+    }
+
+    boolean undo()
+    {
+        if (undo.isEmpty()) {
+            return false;
+        }
+        Entry entry = undo.remove(undo.size() - 1);
+        int[] cells = entry.cells();
+        for (int i = cells.length - 2; i >= 0; i -= 2) {
+            world.restoreState(cells[i], STATES[cells[i + 1] >>> 3]);
+        }
+        world.adjustCounters(-entry.toCover(), -entry.marksLeft(), -entry.minesLeft());
+        engine.restore(entry.livesBefore(), entry.statusBefore());
+        redo.add(entry);
+        return true;
+    }
+
+    boolean redo()
+    {
+        if (redo.isEmpty()) {
+            return false;
+        }
+        Entry entry = redo.remove(redo.size() - 1);
+        int[] cells = entry.cells();
+        for (int i = 0; i < cells.length; i += 2) {
+            world.restoreState(cells[i], STATES[cells[i + 1] & 7]);
+        }
+        world.adjustCounters(entry.toCover(), entry.marksLeft(), entry.minesLeft());
+        engine.restore(entry.livesAfter(), entry.statusAfter());
+        undo.add(entry);
+        return true;
+    }
+
+    /**
+     * Folds the oldest moves, together with an earlier checkpoint, into a new checkpoint.
+     */
+    private void fold()
+    {
+        int count = checkpoint != null ? 1 : 0;
+        long kept = changes;
+        while (count < undo.size() && kept > maxChanges / 2) {
+            kept -= undo.get(count++).size();
+        }
+        List<Entry> folded = undo.subList(0, count);
+        int total = 0;
+        for (Entry entry : folded) {
+            total += entry.size();
+        }
+        // Sort the changes by cell, and by the order they happened within a cell
+        long[] keys = new long[total];
+        int sequence = 0;
+        int toCover = 0, marksLeft = 0, minesLeft = 0;
+        for (Entry entry : folded) {
+            int[] cells = entry.cells();
+            for (int i = 0; i < cells.length; i += 2, sequence++) {
+                keys[sequence] = (long) cells[i] << (SEQUENCE_BITS + 6) | (long) sequence << 6 | cells[i + 1];
+            }
+            toCover += entry.toCover();
+            marksLeft += entry.marksLeft();
+            minesLeft += entry.minesLeft();
+        }
+        Arrays.sort(keys);
+        IntList merged = new IntList(Math.max(2, total));
+        for (int i = 0; i < keys.length; ) {
+            int index = (int) (keys[i] >>> (SEQUENCE_BITS + 6));
+            int from = (int) (keys[i] >>> 3) & 7;
+            int to;
+            do {
+                to = (int) keys[i++] & 7;
+            } while (i < keys.length && (int) (keys[i] >>> (SEQUENCE_BITS + 6)) == index);
+            if (from != to) {
+                merged.add(index);
+                merged.add(from << 3 | to);
+            }
+        }
+        Entry first = folded.get(0), last = folded.get(count - 1);
+        checkpoint = new Entry(merged.toArray(), toCover, marksLeft, minesLeft,
+                first.livesBefore(), last.livesAfter(), first.statusBefore(), last.statusAfter());
+        changes = kept;
+        folded.clear();
+        undo.add(0, checkpoint);
+    }
+}
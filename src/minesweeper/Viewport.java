@@ -0,0 +1,273 @@
+package minesweeper;
+
+/**
+ * A window onto a board too large for the terminal, with a downsampled map of how much of the board is explored.
+ * <p>
+ * The window is moved by scrolling, centering it on a block, or following the last move. The map divides the board
+ * into at most {@link #MAX_MAP_ROWS} by {@link #MAX_MAP_COLUMNS} areas and shows per area how many of its blocks are
+ * uncovered or marked. It is kept up to date from the cells the world reports as dirty, so neither drawing the
+ * window nor updating the map depends on the size of the board. A viewport belongs to one world; after a
+ * {@link World#reset(long) reset} a new one has to be created.
+ * <p>
+ * A {@link ChunkedWorld}, for boards beyond {@link World#MAX_CELLS}, is shown without the map, whose counters
+ * would grow with the board. Its blocks do not fit a row-major int index, so it is moved by coordinates only.
+ */
+public final class Viewport
+{
+    static final int MAX_MAP_ROWS = 12;
+    static final int MAX_MAP_COLUMNS = 48;
+    /** Map characters for an area with nothing, less than half, at least half and all of its blocks explored. */
+    private static final char[] LEVELS = {'.', '-', '+', '#'};
+
+    private final World world;
+    /** The board shown instead of {@link #world}, null for a world. */
+    private final ChunkedWorld chunked;
+    private final int rows;
+    private final int columns;
+    private final int height;
+    private final int width;
+    private int top;
+    private int left;
+    private boolean moved = true;
+
+    private final int areaRows;
+    private final int areaColumns;
+    private final int mapRows;
+    private final int mapColumns;
+    /** Explored blocks per map area. */
+    private final int[] explored;
+    /** One bit per block, set if it is counted in {@link #explored}. */
+    private final long[] counted;
+
+    /**
+     * Creates a window of the given size, clipped to the board, in the top left corner of the board.
+     */
+    public Viewport(World world, int height, int width)
+    {
+        this.world = world;
+        this.chunked = null;
+        this.rows = world.getRows();
+        this.columns = world.getColumns();
+        this.height = Math.min(height, rows);
+        this.width = Math.min(width, columns);
+        areaRows = (rows + MAX_MAP_ROWS - 1) / MAX_MAP_ROWS;
+        areaColumns = (columns + MAX_MAP_COLUMNS - 1) / MAX_MAP_COLUMNS;
+        mapRows = (rows + areaRows - 1) / areaRows;
+        mapColumns = (columns + areaColumns - 1) / areaColumns;
+        explored = new int[mapRows * mapColumns];
+        counted = new long[(rows * columns + 63) >>> 6];
+
+        world.setDirtyTracking(true);
+        // A loaded game starts with blocks explored, later changes are taken from the dirty cells
+        for (int index = 0; index < rows * columns; index++) {
+            update(index);
+        }
+    }
+
+    /**
+     * Creates a window of the given size, clipped to the board, in the top left corner of a bounded chunked board.
+     */
+    public Viewport(ChunkedWorld world, int height, int width)
+    {
+        if (world.isEndless()) {
+            throw new IllegalArgumentException("A viewport needs the borders of the board");
+        }
+        this.world = null;
+        this.chunked = world;
+        this.rows = world.getRows();
+        this.columns = world.getColumns();
+        this.height = Math.min(height, rows);
+        this.width = Math.min(width, columns);
+        areaRows = rows;
+        areaColumns = columns;
+        mapRows = 0;
+        mapColumns = 0;
+        explored = new int[0];
+        counted = new long[0];
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns true if the block at the given row-major index is inside the window.
+     */
+    public boolean contains(int index) {
+        return contains(index / columns, index % columns);
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= top && x - top < height && y >= left && y - left < width;
+    }
+
+    /**
+     * Moves the window by the given number of rows and columns, stopping at the edges of the board.
+     */
+    public void scroll(int rows, int columns) {
+        moveTo((long) top + rows, (long) left + columns);
+    }
+
+    /**
+     * Moves the window so that the block at the given row-major index is in its middle, as far as the edges allow.
+     */
+    public void centerOn(int index) {
+        centerOn(index / columns, index % columns);
+    }
+
+    public void centerOn(int x, int y) {
+        moveTo((long) x - height / 2, (long) y - width / 2);
+    }
+
+    /**
+     * Centers the window on the block at the given row-major index unless it is visible already.
+     */
+    public void follow(int index) {
+        follow(index / columns, index % columns);
+    }
+
+    public void follow(int x, int y)
+    {
+        if (!contains(x, y)) {
+            centerOn(x, y);
+        }
+    }
+
+    private void moveTo(long top, long left)
+    {
+        int clippedTop = (int) Math.max(0, Math.min(rows - height, top));
+        int clippedLeft = (int) Math.max(0, Math.min(columns - width, left));
+        if (clippedTop != this.top || clippedLeft != this.left) {
+            this.top = clippedTop;
+            this.left = clippedLeft;
+            moved = true;
+        }
+    }
+
+    /**
+     * Returns true if the window moved since the last call, which requires the whole window to be redrawn.
+     */
+    boolean takeMoved()
+    {
+        boolean moved = this.moved;
+        this.moved = false;
+        return moved;
+    }
+
+    /**
+     * Counts the changed cells into the map, to be called with the dirty cells before the world clears them.
+     *
+     * @return True if the map changed.
+     */
+    boolean update(IntList dirty)
+    {
+        if (world == null) {
+            return false;
+        }
+        boolean changed = false;
+        for (int i = 0; i < dirty.size(); i++) {
+            changed |= update(dirty.get(i));
+        }
+        return changed;
+    }
+
+    private boolean update(int index)
+    {
+        BlockType state = world.stateAt(index);
+        boolean isExplored = state != BlockType.UNKNOWN && state != BlockType.IN_PROGRESS;
+        long bit = 1L << index;
+        if (isExplored == ((counted[index >>> 6] & bit) != 0)) {
+            return false;
+        }
+        counted[index >>> 6] ^= bit;
+        explored[(index / columns / areaRows) * mapColumns + index % columns / areaColumns] += isExplored ? 1 : -1;
+        return true;
+    }
+
+    public int getMapRows() {
+        return mapRows;
+    }
+
+    public int getMapColumns() {
+        return mapColumns;
+    }
+
+    /**
+     * Returns the number of board rows and columns each map character stands for, e.g. "84x84".
+     */
+    public String getAreaSize() {
+        return areaRows + "x" + areaColumns;
+    }
+
+    /**
+     * Returns the map character of an area: '.' for nothing explored, '-' for less than half, '+' for at least
+     * half and '#' for all of its blocks.
+     */
+    public char mapCharacter(int row, int column)
+    {
+        int area = Math.min(areaRows, rows - row * areaRows) * Math.min(areaColumns, columns - column * areaColumns);
+        int count = explored[row * mapColumns + column];
+        if (count == 0) {
+            return LEVELS[0];
+        }
+        return count == area ? LEVELS[3] : LEVELS[count * 2 < area ? 1 : 2];
+    }
+
+    /**
+     * Returns true if the given map row covers rows of the window.
+     */
+    public boolean isMapRowShown(int row) {
+        return row * areaRows < top + height && (row + 1) * areaRows > top;
+    }
+
+    public boolean isMapColumnShown(int column) {
+        return column * areaColumns < left + width && (column + 1) * areaColumns > left;
+    }
+
+    /**
+     * Returns the window as {@link World#toString(int, int, int, int)} draws it, followed by the map. The rows of
+     * the map covering the window are marked with '>' and its columns with '^' below it.
+     */
+    @Override
+    public String toString()
+    {
+        if (chunked != null) {
+            return chunked.toString(top, left, height, width) + "\n" + title();
+        }
+        StringBuilder sb = new StringBuilder(world.toString(top, left, height, width));
+        sb.append("\n").append(title());
+        for (int i = 0; i < mapRows; i++) {
+            sb.append("\n").append(isMapRowShown(i) ? '>' : ' ');
+            for (int j = 0; j < mapColumns; j++) {
+                sb.append(mapCharacter(i, j));
+            }
+        }
+        sb.append("\n ");
+        for (int j = 0; j < mapColumns; j++) {
+            sb.append(isMapColumnShown(j) ? '^' : ' ');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the line above the map, which tells where the window is.
+     */
+    String title()
+    {
+        String window = "Rows " + top + "-" + (top + height - 1) + " and columns " + left + "-" + (left + width - 1)
+                + " of " + rows + "x" + columns;
+        return chunked != null ? window + "." : window + ", one map character per " + getAreaSize() + " blocks:";
+    }
+}
@@ -1,6 +1,7 @@
 package minesweeper;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import static minesweeper.BlockType.DISCOVERED;
 import static minesweeper.BlockType.MINE;
@@ -11,7 +12,10 @@ import static minesweeper.BlockType.MINE;
 public class World
 {
 
-    private Block[][] theWorld;
+    /** Packed cells in row-major order, see {@link Cell} for the bit layout. */
+    private byte[] cells;
+    /** Number of MARKED neighbors per cell, kept in sync by every state change. */
+    private byte[] adjacentFlags;
     private final int ROWS;
     private int mineCount;
     private int toCover;
@@ -20,50 +24,286 @@ public class World
 
     private final int COLUMNS;
 
+    /** Cells revealed by the last reveal operation, reused between calls. */
+    private final IntList revealed = new IntList();
+
+    /** Cells whose state changed since the last {@link #clearDirty()}, only recorded while tracking is on. */
+    private final IntList dirty = new IntList();
+    private long[] dirtyBits;
+
+    /** Receives every state change as a pair (index, old state ordinal << 3 | new state ordinal) while set. */
+    private IntList changeLog;
+
+    /** Largest board kept in memory as a whole, the console plays bigger boards on a {@link ChunkedWorld}. */
+    public static final int MAX_CELLS = 1 << 28;
+
+    /** Boards with at least this many cells compute their adjacency counts on the fork-join pool. */
+    private static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    private long seed;
+    private final int difficulty;
+    private final MineLayout layout;
+    /** False until the mines are planted, which a {@link MineLayout#SAFE_START} or NO_GUESS world defers. */
+    private boolean planted;
+    /** The seed the mines were planted from, see {@link #getPlantSeed()}. */
+    private long plantSeed;
+    private boolean guessFree;
+    /** Computed on first use once the mines are planted, dropped by {@link #reset(long)}. */
+    private BoardMetrics boardMetrics;
+
     public World(int x, int y, int difficulty) throws IndexOutOfBoundsException
     {
-        if (x > 0 && x <= 30 && y > 0 && y <= 30) {
-            ROWS = x;
-            COLUMNS = y;
-        } else {
-            throw new IndexOutOfBoundsException("Dimensions might be 30x30 at max. Current: " + x + "X" + y);
+        this(x, y, difficulty, MinePlanter.newSeed());
+    }
+
+    /**
+     * Creates a world whose mine layout is fully determined by the given seed.
+     */
+    public World(int x, int y, int difficulty, long seed) throws IndexOutOfBoundsException
+    {
+        this(x, y, difficulty, seed, minesFor(cellCount(x, y), difficulty));
+    }
+
+    /**
+     * Creates a seeded world with an explicit number of mines instead of the one of the difficulty,
+     * used for boards the difficulties cannot produce, like empty ones.
+     */
+    World(int x, int y, int difficulty, long seed, int mineCount) throws IndexOutOfBoundsException
+    {
+        this(x, y, difficulty, seed, mineCount, MineLayout.SEEDED);
+    }
+
+    /**
+     * Creates a world that lays out its mines the given way, deferred layouts wait for {@link #plantAround}.
+     */
+    public World(int x, int y, int difficulty, long seed, MineLayout layout) throws IndexOutOfBoundsException
+    {
+        this(x, y, difficulty, seed, minesFor(cellCount(x, y), difficulty), layout);
+    }
+
+    World(int x, int y, int difficulty, long seed, int mineCount, MineLayout layout) throws IndexOutOfBoundsException
+    {
+        this.seed = seed;
+        this.difficulty = difficulty;
+        this.layout = layout;
+        int cellCount = cellCount(x, y);
+        ROWS = x;
+        COLUMNS = y;
+        if (mineCount < 0 || mineCount > cellCount) {
+            throw new IllegalArgumentException("Mine count must be between 0 and " + cellCount + ". Current: " + mineCount);
         }
-        initialize(ROWS, COLUMNS, difficulty);
+        initialize(mineCount);
     }
 
     /**
-     * Populates the grid with blocks and randomly places mines.
+     * Restores a saved world from its bit planes, where bit {@code i % 64} of word {@code i / 64} stands for
+     * the cell with row-major index i. Revealed mines are shown as hit, all other revealed cells as uncovered.
      */
-    private void initialize(int x, int y, int difficulty)
+    World(int x, int y, int difficulty, long seed, long[] mines, long[] revealed, long[] marked,
+          int toCover, int marksLeft, int minesLeft) throws IndexOutOfBoundsException
     {
-        theWorld = new Block[ROWS][COLUMNS];
-        for (int i = 0; i < ROWS; i++)
-            theWorld[i] = new Block[COLUMNS];
+        this(x, y, difficulty, seed, MineLayout.SEEDED, seed, false, mines, revealed, marked, toCover, marksLeft, minesLeft);
+    }
+
+    /**
+     * Restores a saved world of the given layout, whose mines were planted from the given seed.
+     */
+    World(int x, int y, int difficulty, long seed, MineLayout layout, long plantSeed, boolean guessFree,
+          long[] mines, long[] revealed, long[] marked, int toCover, int marksLeft, int minesLeft) throws IndexOutOfBoundsException
+    {
+        this.seed = seed;
+        this.difficulty = difficulty;
+        this.layout = layout;
+        this.planted = true;
+        this.plantSeed = plantSeed;
+        this.guessFree = guessFree;
+        int cellCount = cellCount(x, y);
+        ROWS = x;
+        COLUMNS = y;
+        cells = new byte[cellCount];
+        adjacentFlags = new byte[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            if (isSet(mines, i)) {
+                cells[i] = (byte) Cell.MINE_BIT;
+                mineCount++;
+            }
+        }
+        countAdjacentMines();
+        for (int i = 0; i < cellCount; i++) {
+            if (isSet(revealed, i)) {
+                setState(i, Cell.isMine(cells[i]) ? MINE : Cell.adjacentMines(cells[i]) == 0 ? BlockType.BLANK : DISCOVERED);
+            } else if (isSet(marked, i)) {
+                setState(i, BlockType.MARKED);
+            }
+        }
+        this.toCover = toCover;
+        this.marksLeft = marksLeft;
+        this.minesLeft = minesLeft;
+    }
+
+    private static boolean isSet(long[] plane, int index) {
+        return (plane[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the number of cells of a board, checking that it fits in memory.
+     */
+    private static int cellCount(int x, int y) throws IndexOutOfBoundsException
+    {
+        if (x > 0 && y > 0 && (long) x * y <= MAX_CELLS) {
+            return x * y;
+        }
+        throw new IndexOutOfBoundsException("Dimensions might be " + MAX_CELLS + " cells at max. Current: " + x + "X" + y);
+    }
+
+    /**
+     * Allocates the packed grid, places exactly the given number of mines and stores the adjacency counts.
+     */
+    private void initialize(int minesToPlant)
+    {
+        cells = new byte[ROWS * COLUMNS];
+        adjacentFlags = new byte[ROWS * COLUMNS];
 
-        int minesToPlant = difficulty == 2 ? 2 * (x * y) / 5 : (x * y) / 4;
         mineCount = minesToPlant;
+        layOut();
+    }
+
+    /**
+     * Starts a new game on this board in place: every cell is covered again and the mines are laid out from the
+     * given seed exactly as on a new world of the same size, mine count and layout. Nothing is allocated for the
+     * cells, which is what {@link WorldPool} reuses boards for. A renderer tracking dirty cells has to redraw it all.
+     */
+    public void reset(long seed)
+    {
+        this.seed = seed;
+        Arrays.fill(cells, (byte) 0);
+        Arrays.fill(adjacentFlags, (byte) 0);
+        revealed.clear();
+        clearDirty();
+        changeLog = null;
+        planted = false;
+        guessFree = false;
+        boardMetrics = null;
+        layOut();
+    }
+
+    /**
+     * Sets the counters of a covered board and plants its mines unless the layout defers them.
+     */
+    private void layOut()
+    {
         minesLeft = mineCount;
-        toCover = x * y;
+        toCover = ROWS * COLUMNS;
         marksLeft = mineCount;
 
-        Random random = new Random();
-        while (minesToPlant > 0) {
-            int nextX = random.nextInt(ROWS);
-            int nextY = random.nextInt(COLUMNS);
-            if (theWorld[nextX][nextY] == null) {
-                theWorld[nextX][nextY] = new Block(nextX, nextY, MINE);
-                minesToPlant--;
+        if (layout == MineLayout.SEEDED) {
+            long start = Metrics.ENABLED ? System.nanoTime() : 0;
+            MinePlanter.plant(cells, mineCount, seed);
+            plantSeed = seed;
+            countAdjacentMines();
+            planted = true;
+            if (Metrics.ENABLED) {
+                Metrics.recordGeneration(System.nanoTime() - start);
             }
         }
-        for (int i = 0; i < ROWS; i++) {
-            for (int j = 0; j < COLUMNS; j++) {
-                if (theWorld[i][j] == null) {
-                    theWorld[i][j] = new Block(i, j, BlockType.BLANK);
+    }
+
+    /**
+     * Plants the mines of a deferred layout, keeping the given block and its neighbors free when the board has
+     * room for it, otherwise only the block itself.
+     *
+     * @param plantSeed The seed of the layout, the world's own seed or one found by {@link NoGuessGenerator}.
+     * @param guessFree Whether the layout is known to be solvable without guessing.
+     */
+    void plantAround(int x, int y, long plantSeed, boolean guessFree)
+    {
+        if (planted) {
+            throw new IllegalStateException("The mines are already planted");
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int fromX = Math.max(0, x - 1), toX = Math.min(ROWS - 1, x + 1);
+        int fromY = Math.max(0, y - 1), toY = Math.min(COLUMNS - 1, y + 1);
+        if (cells.length - (toX - fromX + 1) * (toY - fromY + 1) < mineCount) {
+            fromX = toX = x;
+            fromY = toY = y;
+        }
+        int zone = (toX - fromX + 1) * (toY - fromY + 1);
+        if (cells.length - zone < mineCount) {
+            zone = 0;
+            fromX = fromY = 0;
+            toX = toY = -1;
+        }
+        // Plant on the board without the zone, then spread the result around it
+        byte[] free = MinePlanter.scratchCells(cells.length - zone);
+        MinePlanter.plant(free, cells.length - zone, mineCount, plantSeed);
+        int j = 0;
+        for (int cx = 0; cx < ROWS; cx++) {
+            for (int cy = 0; cy < COLUMNS; cy++) {
+                if (cx < fromX || cx > toX || cy < fromY || cy > toY) {
+                    cells[indexOf(cx, cy)] |= free[j++];
                 }
             }
         }
+        countAdjacentMines();
+        planted = true;
+        this.plantSeed = plantSeed;
+        this.guessFree = guessFree;
+        if (Metrics.ENABLED) {
+            Metrics.recordGeneration(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the 3BV, openings and isolated numbers of the board, or null before its mines are planted.
+     * They depend on the mines only, so they are computed once, in linear time, and kept.
+     */
+    public BoardMetrics getBoardMetrics()
+    {
+        if (boardMetrics == null && planted) {
+            boardMetrics = BoardMetrics.of(this);
+        }
+        return boardMetrics;
+    }
+
+    public MineLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Returns false while a deferred layout waits for the first reveal.
+     */
+    public boolean isPlanted() {
+        return planted;
+    }
+
+    /**
+     * Returns the seed the mines were planted from: the world's own seed, or for a guess-free board the candidate
+     * {@link NoGuessGenerator} chose. Only meaningful once the mines are planted.
+     */
+    public long getPlantSeed() {
+        return plantSeed;
+    }
+
+    /**
+     * Returns true if the board was generated to be solvable without guessing.
+     */
+    public boolean isGuessFree() {
+        return guessFree;
+    }
+
+    /**
+     * Returns the number of mines planted on a board of the given size: a quarter on Medium, two fifths on Hard.
+     */
+    static int minesFor(int cellCount, int difficulty) {
+        return (int) (difficulty == 2 ? 2L * cellCount / 5 : cellCount / 4);
     }
 
+    /**
+     * Returns the row-major index of the given cell, the form the package-private methods take cells in.
+     */
+    int indexOf(int x, int y) {
+        return x * COLUMNS + y;
+    }
 
     /**
      * Returns true if all non-mine blocks have been uncovered.
@@ -77,24 +317,52 @@ public class World
      * Returns a string representation of the current board state.
      */
     @Override
-    public String toString()
+    public String toString() {
+        return toString(0, 0, ROWS, COLUMNS);
+    }
+
+    /**
+     * Returns a string representation of a window of the board, with the row and column headers of its position.
+     * The window is clipped to the board, so the cost depends on its size only.
+     */
+    public String toString(int top, int left, int height, int width)
     {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int bottom = Math.min(ROWS, top + height);
+        int right = Math.min(COLUMNS, left + width);
+        top = Math.max(0, top);
+        left = Math.max(0, left);
         StringBuilder sb = new StringBuilder();
 
         // Add Column headers
         sb.append("  ");
-        for (int i = 0; i < COLUMNS; i++) {
+        for (int i = left; i < right; i++) {
             sb.append(i).append(" ");
         }
 
         // Add Rows
-        for (int i = 0; i < ROWS; i++) {
+        for (int i = top; i < bottom; i++) {
             sb.append("\n").append(i).append(" ");
-            for (int j = 0; j < COLUMNS; j++) {
-                sb.append(theWorld[i][j].getCharacter()).append(" ");
+            for (int j = left; j < right; j++) {
+                sb.append(Cell.character(cells[indexOf(i, j)])).append(" ");
             }
         }
-        return sb.toString();
+        String board = sb.toString();
+        if (Metrics.ENABLED) {
+            Metrics.recordRender(System.nanoTime() - start, board.length());
+        }
+        return board;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the difficulty the world was generated with: 1 for Medium, 2 for Hard.
+     */
+    public int getDifficulty() {
+        return difficulty;
     }
 
     public int getMineCount() {
@@ -110,22 +378,30 @@ public class World
     }
 
     protected BlockType getState(int x, int y) {
-        return theWorld[x][y].getBlockType();
+        return Cell.state(cells[indexOf(x, y)]);
     }
 
     protected BlockType getState(Coordinate coordinate) {
-        return theWorld[coordinate.x()][coordinate.y()].getBlockType();
+        return getState(coordinate.x(), coordinate.y());
+    }
+
+    BlockType stateAt(int index) {
+        return Cell.state(cells[index]);
+    }
+
+    boolean isMineAt(int index) {
+        return Cell.isMine(cells[index]);
     }
 
     /**
      * Gets the original state (block type) of the specified coordinates in the Minesweeper world.
      */
     protected BlockType getOriginalState(int x, int y) {
-        return theWorld[x][y].getOriginalType();
+        return Cell.isMine(cells[indexOf(x, y)]) ? MINE : BlockType.BLANK;
     }
 
     protected BlockType getOriginalState(Coordinate coordinate) {
-        return theWorld[coordinate.x()][coordinate.y()].getOriginalType();
+        return getOriginalState(coordinate.x(), coordinate.y());
     }
 
     public void modifyBlock(Coordinate coordinate, BlockType blockType)
@@ -135,11 +411,14 @@ public class World
             return;
         }
 
-        if (blockType == DISCOVERED) {
-            theWorld[coordinate.x()][coordinate.y()].modify(blockType, getAdjacentMinesCount(coordinate));
-        } else {
-            theWorld[coordinate.x()][coordinate.y()].modify(blockType);
-        }
+        setState(indexOf(coordinate.x(), coordinate.y()), blockType);
+    }
+
+    /**
+     * Changes the visible state of a cell known to be on the board.
+     */
+    void modifyBlock(int index, BlockType blockType) {
+        setState(index, blockType);
     }
 
     public boolean isOutOfBounds(Coordinate coordinate) {
@@ -158,6 +437,10 @@ public class World
         return toCover;
     }
 
+    public int getMinesLeft() {
+        return minesLeft;
+    }
+
     public void decrementMarksLeft() {
         marksLeft--;
     }
@@ -188,61 +471,238 @@ public class World
      */
     public int getAdjacentMinesCount(Coordinate coordinate)
     {
-        int mines = 0;
+        return Cell.adjacentMines(cells[indexOf(coordinate.x(), coordinate.y())]);
+    }
 
-        // Iterate from -1 to +1 on both X and Y axes
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dy = -1; dy <= 1; dy++) {
-                // Skip the center point (0,0) because that is the block itself
-                if (dx == 0 && dy == 0) continue;
+    int adjacentMinesAt(int index) {
+        return Cell.adjacentMines(cells[index]);
+    }
 
-                int checkX = coordinate.x() + dx;
-                int checkY = coordinate.y() + dy;
+    /**
+     * Fills in the adjacency count of every cell. Mines never move after generation, so this is the
+     * only place the counts are computed.
+     */
+    private void countAdjacentMines() {
+        countAdjacentMines(cells, ROWS, COLUMNS);
+    }
 
-                // Check validity and if it is a mine
-                if (isValid(checkX, checkY) && getOriginalState(checkX, checkY) == MINE) {
-                    mines++;
+    /**
+     * Fills in the adjacency counts of a board of packed cells whose mines are planted, also for
+     * {@link SharedWorld}. Each row only writes its own cells, so large boards are counted row by row in parallel.
+     */
+    static void countAdjacentMines(byte[] cells, int rows, int columns)
+    {
+        if (rows * columns < PARALLEL_THRESHOLD) {
+            for (int x = 0; x < rows; x++) {
+                countAdjacentMines(cells, rows, columns, x);
+            }
+            return;
+        }
+        IntStream.range(0, rows).parallel().forEach(x -> countAdjacentMines(cells, rows, columns, x));
+    }
+
+    private static void countAdjacentMines(byte[] cells, int rows, int columns, int x)
+    {
+        for (int y = 0; y < columns; y++) {
+            int mines = 0;
+            for (int nx = Math.max(0, x - 1); nx <= Math.min(rows - 1, x + 1); nx++) {
+                for (int ny = Math.max(0, y - 1); ny <= Math.min(columns - 1, y + 1); ny++) {
+                    if (Cell.isMine(cells[nx * columns + ny])) {
+                        mines++;
+                    }
                 }
             }
+            int index = x * columns + y;
+            if (Cell.isMine(cells[index])) {
+                mines--; // the loop above also counted the mine itself
+            }
+            cells[index] = Cell.withAdjacentMines(cells[index], mines);
         }
-        return mines;
     }
 
     /**
-     * Recursively reveals safe areas (Flood Fill).
+     * Changes the visible state of a cell and keeps the adjacent flag counts of its neighbors up to date.
      */
-    public void check(Coordinate coordinate)
+    private void setState(int index, BlockType state)
     {
-        if (getOriginalState(coordinate) == MINE || getState(coordinate) == DISCOVERED) {
-            return;
+        byte cell = cells[index];
+        boolean wasMarked = Cell.state(cell) == BlockType.MARKED;
+        cells[index] = Cell.withState(cell, state);
+        if (changeLog != null && Cell.state(cell) != state) {
+            changeLog.add(index);
+            changeLog.add(Cell.state(cell).ordinal() << 3 | state.ordinal());
+        }
+        if (dirtyBits != null) {
+            markDirty(index);
+        }
+        if (wasMarked != (state == BlockType.MARKED)) {
+            int delta = wasMarked ? -1 : 1;
+            int x = index / COLUMNS;
+            int y = index % COLUMNS;
+            for (int nx = Math.max(0, x - 1); nx <= Math.min(ROWS - 1, x + 1); nx++) {
+                for (int ny = Math.max(0, y - 1); ny <= Math.min(COLUMNS - 1, y + 1); ny++) {
+                    adjacentFlags[indexOf(nx, ny)] += delta;
+                }
+            }
+            adjacentFlags[index] -= delta;
+        }
+    }
+
+    /**
+     * Starts appending every state change to the given list, or stops with null. Used by {@link UndoHistory}.
+     */
+    void setChangeLog(IntList changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Puts a cell back into an earlier state without any game logic, for undo and redo.
+     */
+    void restoreState(int index, BlockType state) {
+        setState(index, state);
+    }
+
+    /**
+     * Shifts the counters by the given amounts, for undo and redo.
+     */
+    void adjustCounters(int toCover, int marksLeft, int minesLeft)
+    {
+        this.toCover += toCover;
+        this.marksLeft += marksLeft;
+        this.minesLeft += minesLeft;
+    }
+
+    private void markDirty(int index)
+    {
+        long bit = 1L << index;
+        if ((dirtyBits[index >>> 6] & bit) == 0) {
+            dirtyBits[index >>> 6] |= bit;
+            dirty.add(index);
         }
+    }
 
-        int adjacentMines = getAdjacentMinesCount(coordinate);
-        decrementToCover();
-        if (adjacentMines == 0) {
-            modifyBlock(coordinate, BlockType.BLANK);
-            expand(coordinate);
-        } else {
-            modifyBlock(coordinate, DISCOVERED);
+    /**
+     * Starts or stops recording which cells change, for renderers that only redraw what changed.
+     */
+    public void setDirtyTracking(boolean enabled)
+    {
+        if (enabled && dirtyBits == null) {
+            dirtyBits = new long[(cells.length + 63) >>> 6];
+        } else if (!enabled) {
+            dirtyBits = null;
+            dirty.clear();
+        }
+    }
+
+    /**
+     * Returns the row-major indices of the cells changed since the last {@link #clearDirty()}, each listed once.
+     */
+    public IntList getDirtyCells() {
+        return dirty;
+    }
+
+    public void clearDirty()
+    {
+        if (dirtyBits != null) {
+            for (int i = 0; i < dirty.size(); i++) {
+                dirtyBits[dirty.get(i) >>> 6] = 0;
+            }
         }
+        dirty.clear();
+    }
+
+    /**
+     * Returns the packed cell at the given row-major index.
+     */
+    byte cellAt(int index) {
+        return cells[index];
+    }
+
+    /**
+     * Reveals the given block and flood fills the connected blank area around it.
+     * <p>
+     * The fill is iterative: the list of revealed cells doubles as the work queue, and a cell's
+     * state is switched before it is queued, so the board itself acts as the visited set.
+     *
+     * @return The cells revealed by this call, as row-major indices. The list is reused by the next
+     * call to {@code check}, {@code expand} or {@code forceExpand}.
+     */
+    public IntList check(Coordinate coordinate) {
+        return check(indexOf(coordinate.x(), coordinate.y()));
+    }
+
+    public IntList check(int x, int y) {
+        return check(indexOf(x, y));
+    }
+
+    IntList check(int index)
+    {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        revealed.clear();
+        if (!Cell.isMine(cells[index]) && Cell.state(cells[index]) != DISCOVERED) {
+            reveal(index);
+            floodFill(revealed.size() - 1);
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordCheck(System.nanoTime() - start, revealed.size());
+        }
+        return revealed;
+    }
+
+    /**
+     * Reveals all covered, mine-free neighbors of the given block and flood fills from them.
+     *
+     * @return The cells revealed by this call, see {@link #check(Coordinate)}.
+     */
+    public IntList expand(Coordinate coordinate) {
+        return expand(indexOf(coordinate.x(), coordinate.y()));
+    }
+
+    IntList expand(int index)
+    {
+        revealed.clear();
+        revealNeighbors(index);
+        floodFill(0);
+        return revealed;
+    }
+
+    /**
+     * Returns the cells revealed by the most recent {@code check}, {@code expand} or {@code forceExpand}.
+     */
+    public IntList getLastRevealed() {
+        return revealed;
     }
 
-    public void check(int x, int y)
+    private void reveal(int index)
     {
-        check(new Coordinate(x, y));
+        decrementToCover();
+        setState(index, Cell.adjacentMines(cells[index]) == 0 ? BlockType.BLANK : DISCOVERED);
+        revealed.add(index);
     }
 
     /**
-     * Triggers checks on all valid neighbors.
+     * Expands every blank cell in {@code revealed} starting at {@code from}, appending newly revealed cells.
      */
-    public void expand(Coordinate coordinate) {
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dy = -1; dy <= 1; dy++) {
-                if (dx == 0 && dy == 0) continue;
-                int nx = coordinate.x() + dx;
-                int ny = coordinate.y() + dy;
-                if (isValid(nx, ny) && getState(nx, ny) == BlockType.UNKNOWN) {
-                    check(nx, ny);
+    private void floodFill(int from)
+    {
+        for (int i = from; i < revealed.size(); i++) {
+            int index = revealed.get(i);
+            if (Cell.state(cells[index]) == BlockType.BLANK) {
+                revealNeighbors(index);
+            }
+        }
+    }
+
+    private void revealNeighbors(int index)
+    {
+        int x = index / COLUMNS;
+        int y = index % COLUMNS;
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(ROWS - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(COLUMNS - 1, y + 1); ny++) {
+                int neighbor = indexOf(nx, ny);
+                byte cell = cells[neighbor];
+                if (neighbor != index && !Cell.isMine(cell) && Cell.state(cell) == BlockType.UNKNOWN) {
+                    reveal(neighbor);
                 }
             }
         }
@@ -252,8 +712,13 @@ public class World
      * Helper to peek at a block and reveal it if it's a mine.
      */
     public int peekAndModifyIfMine(int x, int y) {
-        if (theWorld[x][y].getOriginalType() == BlockType.MINE) {
-            modifyBlock(new Coordinate(x, y), BlockType.MINE);
+        return peekAndModifyIfMine(indexOf(x, y));
+    }
+
+    private int peekAndModifyIfMine(int index)
+    {
+        if (Cell.isMine(cells[index])) {
+            setState(index, BlockType.MINE);
             decrementMinesLeft();
             decrementToCover();
             return -1;
@@ -265,52 +730,56 @@ public class World
      * Auto-expands neighbors if the number of flags matches adjacent mines (Chord).
      */
     public int forceExpand(Coordinate coordinate, BlockType currentState) {
-        if (currentState != BlockType.DISCOVERED || getNumberOfAdjacentFlags(coordinate) != getAdjacentMinesCount(coordinate)) {
-            modifyBlock(coordinate, currentState);
+        return forceExpand(indexOf(coordinate.x(), coordinate.y()), currentState);
+    }
+
+    int forceExpand(int index, BlockType currentState)
+    {
+        if (!Metrics.ENABLED) {
+            return chord(index, currentState);
+        }
+        long start = System.nanoTime();
+        int hitMines = chord(index, currentState);
+        // The revealed mines are listed too
+        Metrics.recordChord(System.nanoTime() - start, hitMines, hitMines < 0 ? 0 : revealed.size() - hitMines);
+        return hitMines;
+    }
+
+    private int chord(int index, BlockType currentState)
+    {
+        revealed.clear();
+        if (currentState != BlockType.DISCOVERED || adjacentFlags[index] != Cell.adjacentMines(cells[index])) {
+            setState(index, currentState);
             return -1;
         }
 
         int hitMines = 0;
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dy = -1; dy <= 1; dy++) {
-                if (dx == 0 && dy == 0) continue;
-
-                int nx = coordinate.x() + dx;
-                int ny = coordinate.y() + dy;
-
-                if (isValid(nx, ny)) {
-                    BlockType state = getState(nx, ny);
-                    if (state == BlockType.UNKNOWN) {
-                        if (peekAndModifyIfMine(nx, ny) == -1) hitMines++;
-                        else check(nx, ny); // Safe to check since we peeked for mines
-                    } else if (state == BlockType.MARKED && theWorld[nx][ny].getOriginalType() == BlockType.BLANK) {
-                        // Incorrectly marked safe spot
-                        modifyBlock(new Coordinate(nx, ny), BlockType.UNKNOWN);
+        int x = index / COLUMNS;
+        int y = index % COLUMNS;
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(ROWS - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(COLUMNS - 1, y + 1); ny++) {
+                int neighbor = indexOf(nx, ny);
+                if (neighbor == index) continue;
+
+                BlockType state = Cell.state(cells[neighbor]);
+                if (state == BlockType.UNKNOWN) {
+                    if (peekAndModifyIfMine(neighbor) == -1) {
+                        hitMines++;
+                        revealed.add(neighbor);
+                    } else {
+                        // Safe to reveal since we peeked for mines
+                        reveal(neighbor);
+                        floodFill(revealed.size() - 1);
                     }
+                } else if (state == BlockType.MARKED && !Cell.isMine(cells[neighbor])) {
+                    // Incorrectly marked safe spot
+                    setState(neighbor, BlockType.UNKNOWN);
                 }
             }
         }
 
-        modifyBlock(coordinate, BlockType.DISCOVERED);
-        System.out.println("Hit Mines: " + hitMines);
+        setState(index, BlockType.DISCOVERED);
         return hitMines;
     }
 
-    private int getNumberOfAdjacentFlags(Coordinate coordinate) {
-        int flags = 0;
-
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dy = -1; dy <= 1; dy++) {
-                if (dx == 0 && dy == 0) continue; // block itself
-
-                int nx = coordinate.x() + dx;
-                int ny = coordinate.y() + dy;
-                if (isValid(nx, ny) && getState(nx, ny) == BlockType.MARKED) {
-                    flags++;
-                }
-            }
-        }
-        return flags;
-    }
-
 }
@@ -0,0 +1,125 @@
+package minesweeper;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Boards kept for reuse by paths that play many games, keyed by their settings.
+ * <p>
+ * A released world is {@link World#reset(long) reset} in place for the next game with the same size, difficulty and
+ * layout, so repeated games reuse the same cell arrays instead of allocating new ones. At most
+ * {@code maxPerSettings} idle boards are kept per settings and at most {@code maxIdleCells} cells in all, further
+ * released ones are left to the garbage collector. Settings without idle boards are dropped, so a pool open to
+ * arbitrary sizes does not grow with them. The pool is thread-safe; a world must only be released once its game is over and nothing uses it anymore.
+ */
+public final class WorldPool
+{
+    private final ConcurrentHashMap<WorldPregenerator.Settings, ArrayDeque<World>> idle = new ConcurrentHashMap<>();
+    private final int maxPerSettings;
+    private final long maxIdleCells;
+    private final AtomicLong idleCells = new AtomicLong();
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+
+    public WorldPool() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public WorldPool(int maxPerSettings) {
+        this(maxPerSettings, Long.MAX_VALUE);
+    }
+
+    public WorldPool(int maxPerSettings, long maxIdleCells)
+    {
+        this.maxPerSettings = maxPerSettings;
+        this.maxIdleCells = maxIdleCells;
+    }
+
+    /**
+     * Returns a seeded board, laid out exactly as {@code new World(rows, columns, difficulty, seed)}.
+     */
+    public World acquire(int rows, int columns, int difficulty, long seed) {
+        return acquire(new WorldPregenerator.Settings(rows, columns, difficulty, MineLayout.SEEDED), seed);
+    }
+
+    public World acquire(WorldPregenerator.Settings settings, long seed)
+    {
+        ArrayDeque<World> worlds = idle.get(settings);
+        World world = null;
+        if (worlds != null) {
+            synchronized (worlds) {
+                world = worlds.pollLast();
+                if (worlds.isEmpty()) {
+                    // Under the deque's lock, so release never adds to a deque that has left the map
+                    idle.remove(settings, worlds);
+                }
+            }
+        }
+        if (world == null) {
+            created.increment();
+            return new World(settings.rows(), settings.columns(), settings.difficulty(), seed, settings.layout());
+        }
+        idleCells.addAndGet(-cellsOf(world));
+        reused.increment();
+        world.reset(seed);
+        return world;
+    }
+
+    /**
+     * Hands back a board whose game is over. Boards with a mine count other than their difficulty's are not kept.
+     */
+    public void release(World world)
+    {
+        long cells = cellsOf(world);
+        if (world.getMineCount() != World.minesFor(world.getRows() * world.getColumns(), world.getDifficulty())
+                || idleCells.get() + cells > maxIdleCells) {
+            return;
+        }
+        WorldPregenerator.Settings settings = WorldPregenerator.Settings.of(world);
+        while (true) {
+            ArrayDeque<World> worlds = idle.computeIfAbsent(settings, key -> new ArrayDeque<>());
+            synchronized (worlds) {
+                if (idle.get(settings) != worlds) {
+                    // Emptied and dropped by an acquire in the meantime
+                    continue;
+                }
+                if (worlds.size() < maxPerSettings && idleCells.addAndGet(cells) <= maxIdleCells) {
+                    worlds.addLast(world);
+                } else {
+                    if (worlds.size() < maxPerSettings) {
+                        idleCells.addAndGet(-cells);
+                    }
+                    if (worlds.isEmpty()) {
+                        idle.remove(settings, worlds);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private static long cellsOf(World world) {
+        return (long) world.getRows() * world.getColumns();
+    }
+
+    /**
+     * Returns the number of cells of the idle boards.
+     */
+    public long getIdleCells() {
+        return idleCells.get();
+    }
+
+    /**
+     * Returns the number of boards allocated because none was idle.
+     */
+    public long getCreated() {
+        return created.sum();
+    }
+
+    public long getReused() {
+        return reused.sum();
+    }
+}
@@ -0,0 +1,122 @@
+package minesweeper;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the next {@link World} in the background while the current game is played, so that another game with
+ * the same settings starts without waiting for its board.
+ * <p>
+ * A single daemon thread prepares one board ahead, with a fresh seed. Asking for a board with other settings
+ * cancels the prepared one and builds the requested board on the calling thread. Deferred layouts plant their
+ * mines at the first reveal, so for them only the allocation is done ahead; a guess-free search depends on the
+ * first reveal and cannot be.
+ */
+public final class WorldPregenerator implements AutoCloseable
+{
+    /** Boards larger than this are built on demand only, a prepared one would double the memory of a game. */
+    static final int MAX_PREPARED_CELLS = 1 << 25;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), task -> {
+                Thread thread = new Thread(task, "minesweeper-pregenerator");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private Settings prepared;
+    private Future<World> next;
+
+    /**
+     * The settings a board is built with.
+     */
+    public record Settings(
+            int rows,
+            int columns,
+            int difficulty,
+            MineLayout layout
+    ) {
+        public static Settings of(World world) {
+            return new Settings(world.getRows(), world.getColumns(), world.getDifficulty(), world.getLayout());
+        }
+
+        World build() {
+            return new World(rows, columns, difficulty, MinePlanter.newSeed(), layout);
+        }
+    }
+
+    /**
+     * Starts building a board with the given settings unless one is already prepared, cancelling a board
+     * prepared with other settings.
+     */
+    public synchronized void prepare(Settings settings)
+    {
+        if (settings.equals(prepared) && next != null && !next.isCancelled()) {
+            return;
+        }
+        cancel();
+        if ((long) settings.rows() * settings.columns() > MAX_PREPARED_CELLS) {
+            return;
+        }
+        try {
+            next = executor.submit(settings::build);
+            prepared = settings;
+        } catch (RejectedExecutionException exc) {
+            // A cancelled board is still being built and another one is queued, this board is built on demand
+        }
+    }
+
+    /**
+     * Returns a new board with the given settings: the prepared one if it matches, waiting for it to be finished,
+     * otherwise one built on the calling thread.
+     */
+    public synchronized World take(Settings settings)
+    {
+        if (next != null && settings.equals(prepared)) {
+            Future<World> world = next;
+            next = null;
+            prepared = null;
+            try {
+                return world.get();
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | CancellationException exc) {
+                // Built again below, which reports the failure to the caller
+            }
+        }
+        cancel();
+        return settings.build();
+    }
+
+    /**
+     * Returns true if a board with the given settings is ready to be taken without waiting.
+     */
+    public synchronized boolean isReady(Settings settings) {
+        return next != null && settings.equals(prepared) && next.isDone() && !next.isCancelled();
+    }
+
+    /**
+     * Drops the prepared board, interrupting it if it is still being built.
+     */
+    public synchronized void cancel()
+    {
+        if (next != null) {
+            next.cancel(true);
+            executor.purge();
+        }
+        next = null;
+        prepared = null;
+    }
+
+    @Override
+    public void close()
+    {
+        cancel();
+        executor.shutdownNow();
+    }
+}
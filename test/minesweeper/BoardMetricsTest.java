@@ -0,0 +1,171 @@
+package minesweeper;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * Checks the single-pass rating against a flood fill per opening on hand-built and seeded boards, and that the
+ * metrics a world shares with all its callers cannot be changed through their size classes.
+ */
+class BoardMetricsTest
+{
+    @Test
+    void openingSizesAreCopied()
+    {
+        int[] sizes = {1, 2};
+        BoardMetrics metrics = new BoardMetrics(3, 3, 0, 5, sizes);
+        sizes[0] = 9;
+        metrics.openingSizes()[1] = 9;
+        assertArrayEquals(new int[] {1, 2}, metrics.openingSizes());
+        assertNotSame(metrics.openingSizes(), metrics.openingSizes());
+    }
+
+    @Test
+    void cachedMetricsCannotBeChanged()
+    {
+        World world = new World(100, 100, 1, 3);
+        int[] sizes = world.getBoardMetrics().openingSizes();
+        sizes[0]++;
+        assertEquals(new World(100, 100, 1, 3).getBoardMetrics(), world.getBoardMetrics());
+    }
+
+    @Test
+    void equalMetricsHaveEqualHashCodes()
+    {
+        BoardMetrics a = new BoardMetrics(3, 3, 0, 5, new int[] {1, 2}), b = new BoardMetrics(3, 3, 0, 5, new int[] {1, 2});
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(a.toString(), b.toString());
+    }
+
+    /**
+     * Rates a board the obvious way: flood fill every opening, then count the numbered blocks no opening uncovers.
+     */
+    private static BoardMetrics bruteForce(World world)
+    {
+        int rows = world.getRows(), columns = world.getColumns();
+        boolean[] uncovered = new boolean[rows * columns];
+        int[] seenBy = new int[rows * columns];
+        Arrays.fill(seenBy, -1);
+        int[] histogram = new int[32];
+        int openings = 0, largest = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int start = 0; start < rows * columns; start++) {
+            if (world.isMineAt(start) || world.adjacentMinesAt(start) != 0 || seenBy[start] >= 0) {
+                continue;
+            }
+            int size = 0;
+            seenBy[start] = start;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int index = queue.poll();
+                size++;
+                uncovered[index] = true;
+                if (world.adjacentMinesAt(index) != 0) {
+                    continue;
+                }
+                for (int nx = index / columns - 1; nx <= index / columns + 1; nx++) {
+                    for (int ny = index % columns - 1; ny <= index % columns + 1; ny++) {
+                        if (world.isValid(nx, ny) && seenBy[nx * columns + ny] != start && !world.isMineAt(nx * columns + ny)) {
+                            // A numbered block bordering several openings is uncovered by each of them
+                            seenBy[nx * columns + ny] = start;
+                            queue.add(nx * columns + ny);
+                        }
+                    }
+                }
+            }
+            openings++;
+            histogram[31 - Integer.numberOfLeadingZeros(size)]++;
+            largest = Math.max(largest, size);
+        }
+        int isolated = 0;
+        for (int index = 0; index < rows * columns; index++) {
+            if (!world.isMineAt(index) && !uncovered[index]) {
+                isolated++;
+            }
+        }
+        return new BoardMetrics(openings + isolated, openings, isolated, largest,
+                Arrays.copyOf(histogram, 32 - Integer.numberOfLeadingZeros(largest)));
+    }
+
+    /**
+     * Returns an untouched board with mines where the layout shows '*', one string per row.
+     */
+    private static World board(String... layout)
+    {
+        int rows = layout.length, columns = layout[0].length();
+        long[] mines = new long[(rows * columns + 63) >>> 6];
+        int mineCount = 0;
+        for (int i = 0; i < rows * columns; i++) {
+            if (layout[i / columns].charAt(i % columns) == '*') {
+                mines[i >>> 6] |= 1L << i;
+                mineCount++;
+            }
+        }
+        return new World(rows, columns, 1, 0, mines, new long[mines.length], new long[mines.length],
+                rows * columns - mineCount, mineCount, mineCount);
+    }
+
+    @Test
+    void handBuiltBoards()
+    {
+        // Two openings of three blocks each, the blanks and the 1 next to the mine
+        assertEquals(new BoardMetrics(2, 2, 0, 3, new int[] {0, 2}), BoardMetrics.of(board("...*...")));
+        // Nothing but numbers around the mine
+        assertEquals(new BoardMetrics(8, 0, 8, 0, new int[0]), BoardMetrics.of(board("...", ".*.", "...")));
+        // 001*100
+        // 0022200   An opening of nine blocks in each top corner; the 2 between them touches no blank and is
+        // 111*111   isolated like the eleven numbers of the two bottom rows
+        // *12221*
+        // 111*111
+        World world = board(
+                "...*...",
+                ".......",
+                "...*...",
+                "*.....*",
+                "...*...");
+        assertEquals(new BoardMetrics(14, 2, 12, 9, new int[] {0, 0, 0, 2}), BoardMetrics.of(world));
+        assertEquals(BoardMetrics.of(world), bruteForce(world));
+        // No mines at all: one opening of the whole board
+        assertEquals(new BoardMetrics(1, 1, 0, 12, new int[] {0, 0, 0, 1}), BoardMetrics.of(board("....", "....", "....")));
+    }
+
+    @Test
+    void seededBoardsMatchTheFloodFill()
+    {
+        Random random = new Random(25);
+        for (int board = 0; board < 3000; board++) {
+            // Every tenth board a single row or column
+            int rows = board % 10 == 0 ? 1 : 1 + random.nextInt(40);
+            int columns = board % 10 == 5 ? 1 : 1 + random.nextInt(40);
+            World world = new World(rows, columns, 1 + board % 2, board);
+            assertEquals(bruteForce(world), BoardMetrics.of(world), rows + "x" + columns + ", seed " + board);
+        }
+    }
+
+    @Test
+    void sparseBoardsWithLargeOpeningsMatchTheFloodFill()
+    {
+        Random random = new Random(3);
+        for (int board = 0; board < 1000; board++) {
+            int rows = 1 + random.nextInt(60), columns = 1 + random.nextInt(60);
+            double density = random.nextDouble() * 0.2;
+            StringBuilder[] layout = new StringBuilder[rows];
+            for (int x = 0; x < rows; x++) {
+                layout[x] = new StringBuilder();
+                for (int y = 0; y < columns; y++) {
+                    layout[x].append(random.nextDouble() < density ? '*' : '.');
+                }
+            }
+            World world = board(Arrays.stream(layout).map(StringBuilder::toString).toArray(String[]::new));
+            assertEquals(bruteForce(world), BoardMetrics.of(world), rows + "x" + columns + ", board " + board);
+        }
+    }
+}
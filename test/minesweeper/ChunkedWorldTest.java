@@ -0,0 +1,185 @@
+package minesweeper;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link ChunkedWorld} against a {@link World} holding the same mines, with flood fills crossing tile borders,
+ * and at the edges of the int range of an endless world.
+ */
+class ChunkedWorldTest
+{
+    /** Three by three tiles, the last row and column of them partial. */
+    private static final int ROWS = 2 * ChunkedWorld.TILE_SIZE + 17;
+    private static final int COLUMNS = 2 * ChunkedWorld.TILE_SIZE + 40;
+
+    /**
+     * Returns a world with the mines of the given chunked board, nothing revealed.
+     */
+    private static World copyOf(ChunkedWorld chunked)
+    {
+        int cellCount = chunked.getRows() * chunked.getColumns();
+        long[] mines = new long[(cellCount + 63) >>> 6];
+        for (int i = 0; i < cellCount; i++) {
+            if (chunked.isMine(i / chunked.getColumns(), i % chunked.getColumns())) {
+                mines[i >>> 6] |= 1L << i;
+            }
+        }
+        int mineCount = (int) chunked.getMineCount();
+        return new World(chunked.getRows(), chunked.getColumns(), chunked.getDifficulty(), chunked.getSeed(), mines,
+                new long[mines.length], new long[mines.length], cellCount - mineCount, mineCount, mineCount);
+    }
+
+    private static void assertSameBoard(World world, ChunkedWorld chunked)
+    {
+        for (int x = 0; x < ROWS; x++) {
+            for (int y = 0; y < COLUMNS; y++) {
+                assertEquals(world.getState(x, y), chunked.getState(x, y), "(" + x + "," + y + ")");
+            }
+        }
+        assertEquals(world.toString(), chunked.toString(0, 0, ROWS, COLUMNS));
+    }
+
+    @Test
+    void floodFillsAcrossTileBordersMatchWorld()
+    {
+        for (int difficulty = 1; difficulty <= 2; difficulty++) {
+            ChunkedWorld chunked = new ChunkedWorld(ROWS, COLUMNS, difficulty, 42 + difficulty);
+            World world = copyOf(chunked);
+            assertEquals(chunked.getMineCount(), world.getMineCount());
+            for (int x = 0; x < ROWS; x++) {
+                for (int y = 0; y < COLUMNS; y++) {
+                    assertEquals(world.getAdjacentMinesCount(new Coordinate(x, y)), chunked.getAdjacentMinesCount(x, y));
+                }
+            }
+            // Every blank block next to a tile border, so the fills start on one tile and spread to the others
+            int fills = 0;
+            for (int x = 0; x < ROWS; x++) {
+                for (int y = 0; y < COLUMNS; y++) {
+                    boolean border = (x + 1) % ChunkedWorld.TILE_SIZE <= 1 || (y + 1) % ChunkedWorld.TILE_SIZE <= 1;
+                    if (border && !chunked.isMine(x, y) && chunked.getAdjacentMinesCount(x, y) == 0
+                            && chunked.getState(x, y) == BlockType.UNKNOWN) {
+                        int revealed = world.check(x, y).size();
+                        assertEquals(revealed, chunked.check(x, y));
+                        fills++;
+                    }
+                }
+            }
+            assertTrue(fills > 0);
+            assertSameBoard(world, chunked);
+            assertEquals(world.getToCover(), (long) ROWS * COLUMNS - chunked.getMineCount() - chunked.getRevealedCount());
+        }
+    }
+
+    @Test
+    void revealingEverySafeBlockWinsAndCompactsTheTiles()
+    {
+        ChunkedWorld chunked = new ChunkedWorld(ROWS, COLUMNS, 1, 7);
+        World world = copyOf(chunked);
+        for (int x = 0; x < ROWS; x++) {
+            for (int y = 0; y < COLUMNS; y++) {
+                if (!chunked.isMine(x, y) && chunked.getState(x, y) == BlockType.UNKNOWN) {
+                    world.check(x, y);
+                    chunked.check(x, y);
+                }
+            }
+        }
+        assertTrue(chunked.won());
+        assertEquals(0, chunked.getActiveTiles());
+        assertEquals(9, chunked.getCompactedTiles());
+        // Compacted tiles recompute their numbers from the mines
+        assertSameBoard(world, chunked);
+    }
+
+    @Test
+    void chordsMatchWorld()
+    {
+        ChunkedWorld chunked = new ChunkedWorld(ROWS, COLUMNS, 1, 9);
+        World world = copyOf(chunked);
+        Random random = new Random(9);
+        for (int move = 0; move < 2000; move++) {
+            int x = random.nextInt(ROWS), y = random.nextInt(COLUMNS);
+            if (chunked.getState(x, y) == BlockType.UNKNOWN && !chunked.isMine(x, y)) {
+                world.check(x, y);
+                chunked.check(x, y);
+            } else if (chunked.getState(x, y) == BlockType.UNKNOWN && chunked.mark(x, y)) {
+                world.modifyBlock(new Coordinate(x, y), BlockType.MARKED);
+            } else if (chunked.getState(x, y) == BlockType.DISCOVERED) {
+                assertEquals(world.forceExpand(new Coordinate(x, y), BlockType.DISCOVERED), chunked.forceExpand(x, y));
+            }
+        }
+        assertSameBoard(world, chunked);
+    }
+
+    /**
+     * Counts the mines around a block the slow way, without neighbors beyond the int range.
+     */
+    private static int countAround(ChunkedWorld world, int x, int y)
+    {
+        int mines = 0;
+        for (long nx = x - 1L; nx <= x + 1L; nx++) {
+            for (long ny = y - 1L; ny <= y + 1L; ny++) {
+                if ((nx != x || ny != y) && nx == (int) nx && ny == (int) ny && world.isMine((int) nx, (int) ny)) {
+                    mines++;
+                }
+            }
+        }
+        return mines;
+    }
+
+    @Test
+    void endlessWorldEndsAtTheIntRange()
+    {
+        int[] extremes = {Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -1, 0, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+        for (long seed = 1; seed <= 20; seed++) {
+            ChunkedWorld world = ChunkedWorld.endless(1, seed);
+            for (int x : extremes) {
+                for (int y : extremes) {
+                    assertEquals(countAround(world, x, y), world.getAdjacentMinesCount(x, y), "(" + x + "," + y + ")");
+                    if (world.isMine(x, y)) {
+                        assertEquals(0, world.check(x, y));
+                        continue;
+                    }
+                    world.check(x, y);
+                    assertTrue(world.getState(x, y) == BlockType.BLANK || world.getState(x, y) == BlockType.DISCOVERED);
+                    // The numbers of revealed blocks, held in tiles or recomputed, only count mines within the range
+                    assertEquals(countAround(world, x, y), world.getAdjacentMinesCount(x, y));
+                    assertEquals(world.getAdjacentMinesCount(x, y) == 0 ? BlockType.BLANK : BlockType.DISCOVERED,
+                            world.getState(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    void chordAtTheCornerOfTheIntRange()
+    {
+        for (long seed = 1; seed <= 50; seed++) {
+            ChunkedWorld world = ChunkedWorld.endless(2, seed);
+            int x = Integer.MAX_VALUE, y = Integer.MAX_VALUE;
+            if (world.isMine(x, y) || world.getAdjacentMinesCount(x, y) == 0) {
+                continue;
+            }
+            world.check(x, y);
+            long marks = 0;
+            for (int[] neighbor : new int[][] {{x - 1, y - 1}, {x - 1, y}, {x, y - 1}}) {
+                if (world.isMine(neighbor[0], neighbor[1])) {
+                    assertTrue(world.mark(neighbor[0], neighbor[1]));
+                    marks++;
+                }
+            }
+            assertEquals(marks, world.getAdjacentMinesCount(x, y));
+            assertEquals(0, world.forceExpand(x, y));
+            assertFalse(world.getState(x - 1, y - 1) == BlockType.UNKNOWN);
+            assertFalse(world.getState(x - 1, y) == BlockType.UNKNOWN);
+            assertFalse(world.getState(x, y - 1) == BlockType.UNKNOWN);
+            return;
+        }
+        throw new AssertionError("No numbered corner among the seeds");
+    }
+}
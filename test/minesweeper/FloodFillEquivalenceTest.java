@@ -0,0 +1,164 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the iterative flood fill of {@link World} against the recursive check/expand it replaced, on random boards
+ * with random marks: the state of every cell, {@code toCover} and the cells each call reports as revealed.
+ */
+class FloodFillEquivalenceTest
+{
+    private static final int BOARDS = 2000;
+
+    /**
+     * The recursive flood fill as {@code World} had it, on its own copy of the visible states.
+     */
+    private static final class RecursiveReference
+    {
+        private final World world;
+        private final BlockType[] states;
+        private int toCover;
+        private int[] revealed = new int[16];
+        private int revealedCount;
+
+        RecursiveReference(World world)
+        {
+            this.world = world;
+            states = new BlockType[world.getRows() * world.getColumns()];
+            Arrays.fill(states, BlockType.UNKNOWN);
+            toCover = states.length;
+        }
+
+        void check(int x, int y)
+        {
+            int index = world.indexOf(x, y);
+            if (world.isMineAt(index) || states[index] == BlockType.DISCOVERED) {
+                return;
+            }
+            toCover--;
+            record(index);
+            if (world.adjacentMinesAt(index) == 0) {
+                states[index] = BlockType.BLANK;
+                expand(x, y);
+            } else {
+                states[index] = BlockType.DISCOVERED;
+            }
+        }
+
+        void expand(int x, int y)
+        {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if (dx == 0 && dy == 0) continue;
+                    int nx = x + dx;
+                    int ny = y + dy;
+                    if (world.isValid(nx, ny) && states[world.indexOf(nx, ny)] == BlockType.UNKNOWN) {
+                        check(nx, ny);
+                    }
+                }
+            }
+        }
+
+        private void record(int index)
+        {
+            if (revealedCount == revealed.length) {
+                revealed = Arrays.copyOf(revealed, revealedCount << 1);
+            }
+            revealed[revealedCount++] = index;
+        }
+
+        int[] takeRevealed()
+        {
+            int[] sorted = Arrays.copyOf(revealed, revealedCount);
+            Arrays.sort(sorted);
+            revealedCount = 0;
+            return sorted;
+        }
+    }
+
+    @Test
+    void checkAndExpandMatchTheRecursiveFloodFill()
+    {
+        Random random = new Random(2);
+        for (int board = 0; board < BOARDS; board++) {
+            int rows = 1 + random.nextInt(30), columns = 1 + random.nextInt(30);
+            int mines = random.nextInt(rows * columns / 4 + 1);
+            World world = new World(rows, columns, 1, random.nextLong(), mines);
+            RecursiveReference reference = new RecursiveReference(world);
+            String context = rows + "x" + columns + " with " + mines + " mines, board " + board;
+
+            for (int marks = random.nextInt(rows * columns / 8 + 1); marks > 0; marks--) {
+                int x = random.nextInt(rows), y = random.nextInt(columns);
+                world.modifyBlock(new Coordinate(x, y), BlockType.MARKED);
+                reference.states[world.indexOf(x, y)] = BlockType.MARKED;
+            }
+            for (int moves = 1 + random.nextInt(10); moves > 0; moves--) {
+                int x = random.nextInt(rows), y = random.nextInt(columns);
+                IntList revealed;
+                if (random.nextInt(4) == 0) {
+                    revealed = world.expand(new Coordinate(x, y));
+                    reference.expand(x, y);
+                } else {
+                    revealed = world.check(x, y);
+                    reference.check(x, y);
+                }
+                int[] actual = revealed.toArray();
+                Arrays.sort(actual);
+                assertArrayEquals(reference.takeRevealed(), actual, "revealed cells, " + context);
+                assertEquals(reference.toCover, world.getToCover(), "toCover, " + context);
+                for (int index = 0; index < reference.states.length; index++) {
+                    assertEquals(reference.states[index], world.stateAt(index), "cell " + index + ", " + context);
+                }
+            }
+        }
+    }
+
+    /**
+     * A chord that is refused reveals nothing, so it must not leave the cells of the move before it reported.
+     */
+    @Test
+    void refusedChordReportsNothingRevealed()
+    {
+        Random random = new Random(19);
+        int refused = 0;
+        for (int board = 0; board < 200; board++) {
+            World world = new World(16, 16, 1, random.nextLong());
+            int x = random.nextInt(16), y = random.nextInt(16), index = world.indexOf(x, y);
+            if (world.isMineAt(index) || world.adjacentMinesAt(index) == 0) {
+                continue;
+            }
+            assertEquals(1, world.check(x, y).size());
+            // Too few marks around the number
+            assertEquals(-1, world.forceExpand(new Coordinate(x, y), BlockType.DISCOVERED));
+            assertEquals(0, world.getLastRevealed().size(), "board " + board);
+            assertEquals(BlockType.DISCOVERED, world.stateAt(index));
+
+            // A covered block, after a fill that revealed several
+            int blank = -1;
+            for (int i = 0; i < 16 * 16 && blank < 0; i++) {
+                if (!world.isMineAt(i) && world.adjacentMinesAt(i) == 0 && world.stateAt(i) == BlockType.UNKNOWN) {
+                    blank = i;
+                }
+            }
+            if (blank >= 0) {
+                assertTrue(world.check(blank / 16, blank % 16).size() > 1);
+                int covered = 0;
+                while (world.stateAt(covered) != BlockType.UNKNOWN) {
+                    covered++;
+                }
+                assertEquals(-1, world.forceExpand(new Coordinate(covered / 16, covered % 16), BlockType.UNKNOWN));
+                assertEquals(0, world.getLastRevealed().size(), "board " + board);
+                assertEquals(BlockType.UNKNOWN, world.stateAt(covered));
+            }
+            refused++;
+        }
+        assertTrue(refused > 50);
+    }
+}
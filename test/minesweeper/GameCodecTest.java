@@ -0,0 +1,276 @@
+package minesweeper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes games in the middle of play and checks that {@link GameCodec} and {@link SaveFile} read them back as they
+ * were, that saves of the older versions are still read, and that truncated or corrupt ones are refused.
+ */
+class GameCodecTest
+{
+    private static final int ROWS = 12;
+    private static final int COLUMNS = 15;
+
+    @TempDir
+    Path directory;
+
+    private static ByteBuffer encode(GameEngine engine, long journalEntries)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate((int) GameCodec.encodedSize(engine.getWorld()));
+        GameCodec.write(engine, journalEntries, buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * Plays one random move, mostly safe ones, now and then a mine.
+     */
+    private static void playRandomMove(GameEngine engine, Random random)
+    {
+        World world = engine.getWorld();
+        int x = random.nextInt(ROWS), y = random.nextInt(COLUMNS);
+        Command.Type type = switch (random.nextInt(8)) {
+            case 0, 1 -> Command.Type.FLAG;
+            case 2 -> Command.Type.UNFLAG;
+            case 3 -> Command.Type.CHORD;
+            default -> Command.Type.REVEAL;
+        };
+        if (type != Command.Type.REVEAL || !world.isPlanted() || !world.isMineAt(world.indexOf(x, y))
+                || random.nextInt(20) == 0) {
+            engine.play(type, x, y);
+        }
+    }
+
+    private static void assertSameGame(GameEngine expected, GameEngine actual, String position)
+    {
+        World expectedWorld = expected.getWorld(), world = actual.getWorld();
+        for (int i = 0; i < ROWS * COLUMNS; i++) {
+            assertEquals(expectedWorld.stateAt(i), world.stateAt(i), position + ", block " + i);
+            assertEquals(expectedWorld.isMineAt(i), world.isMineAt(i), position + ", block " + i);
+        }
+        assertEquals(expectedWorld.getDifficulty(), world.getDifficulty(), position);
+        assertEquals(expectedWorld.getSeed(), world.getSeed(), position);
+        assertEquals(expectedWorld.getLayout(), world.getLayout(), position);
+        assertEquals(expectedWorld.getPlantSeed(), world.getPlantSeed(), position);
+        assertEquals(expectedWorld.isGuessFree(), world.isGuessFree(), position);
+        assertEquals(expectedWorld.getMineCount(), world.getMineCount(), position);
+        assertEquals(expectedWorld.getToCover(), world.getToCover(), position);
+        assertEquals(expectedWorld.getMarksLeft(), world.getMarksLeft(), position);
+        assertEquals(expectedWorld.getMinesLeft(), world.getMinesLeft(), position);
+        assertEquals(expected.getLivesLeft(), actual.getLivesLeft(), position);
+        assertEquals(expected.getStatus(), actual.getStatus(), position);
+    }
+
+    /**
+     * Returns the block characters {@link BoardRenderer} draws without ANSI, a row of the board per line.
+     */
+    private static String rendered(World world)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new BoardRenderer(world, new PrintStream(bytes), false).render();
+        String[] lines = bytes.toString(StandardCharsets.US_ASCII).split("\n");
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < world.getRows(); i++) {
+            // The row label and a space, then every block followed by a space
+            String line = lines[i + 1];
+            for (int at = line.indexOf(' ') + 1; at < line.length(); at += 2) {
+                builder.append(line.charAt(at));
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    private void assertSaveFile(GameEngine engine, long journalEntries, String position) throws IOException
+    {
+        Path path = directory.resolve("game.save");
+        SaveFile.save(engine, path, journalEntries);
+        SaveFile save = SaveFile.open(path);
+        World world = engine.getWorld();
+        assertEquals(ROWS, save.getRows());
+        assertEquals(COLUMNS, save.getColumns());
+        assertEquals(world.getDifficulty(), save.getDifficulty());
+        assertEquals(world.getSeed(), save.getSeed());
+        assertEquals(engine.getStatus(), save.getStatus(), position);
+        assertEquals(world.getMineCount(), save.getMineCount());
+        assertEquals(world.getToCover(), save.getToCover(), position);
+        assertEquals(world.getMarksLeft(), save.getMarksLeft(), position);
+        assertEquals(world.getMinesLeft(), save.getMinesLeft(), position);
+        assertEquals(engine.getLivesLeft(), save.getLivesLeft(), position);
+        assertEquals(journalEntries, save.getJournalEntries(), position);
+        for (int x = 0; x < ROWS; x++) {
+            for (int y = 0; y < COLUMNS; y++) {
+                BlockType state = world.getState(x, y);
+                String block = position + ", (" + x + "," + y + ")";
+                assertEquals(world.isMineAt(world.indexOf(x, y)), save.isMine(x, y), block);
+                assertEquals(state == BlockType.BLANK || state == BlockType.DISCOVERED || state == BlockType.MINE,
+                        save.isRevealed(x, y), block);
+                assertEquals(state == BlockType.MARKED, save.isMarked(x, y), block);
+            }
+        }
+        String board = rendered(world);
+        assertEquals(board, save.render(0, 0, ROWS, COLUMNS), position);
+        // A region reaching past the edges is clipped to the board
+        String[] lines = board.split("\n");
+        StringBuilder clipped = new StringBuilder();
+        for (int x = ROWS - 3; x < ROWS; x++) {
+            clipped.append(lines[x], 0, 4).append('\n');
+        }
+        assertEquals(clipped.toString(), save.render(ROWS - 3, -2, 10, 6), position);
+        assertSameGame(engine, save.load(), position);
+    }
+
+    @Test
+    void gamesInPlayComeBackAsTheyWere() throws IOException
+    {
+        int positions = 0;
+        for (long seed = 1; seed <= 12; seed++) {
+            MineLayout layout = MineLayout.values()[(int) seed % 2];
+            GameEngine engine = new GameEngine(new World(ROWS, COLUMNS, seed % 3 == 0 ? 2 : 1, seed, layout));
+            Random random = new Random(seed);
+            for (int move = 1; move <= 300 && engine.getStatus() == GameStatus.PLAYING; move++) {
+                playRandomMove(engine, random);
+                if (engine.getWorld().isPlanted() && (move % 25 == 0 || engine.getStatus() != GameStatus.PLAYING)) {
+                    String position = "seed " + seed + ", move " + move;
+                    long journalEntries = move % 50 == 0 ? GameCodec.NO_JOURNAL : move;
+                    ByteBuffer buffer = encode(engine, journalEntries);
+                    assertEquals(GameCodec.encodedSize(engine.getWorld()), buffer.remaining());
+                    GameCodec.Header header = GameCodec.readHeader(buffer.duplicate());
+                    assertEquals(journalEntries, header.journalEntries(), position);
+                    assertEquals(layout, header.layout(), position);
+                    assertSameGame(engine, GameCodec.read(buffer), position);
+                    assertEquals(0, buffer.remaining());
+                    assertSaveFile(engine, journalEntries, position);
+                    positions++;
+                }
+            }
+        }
+        assertTrue(positions > 50);
+    }
+
+    @Test
+    void nothingIsSavedBeforeTheMinesArePlanted()
+    {
+        GameEngine engine = new GameEngine(new World(ROWS, COLUMNS, 1, 3, MineLayout.SAFE_START));
+        assertThrows(IllegalStateException.class, () -> SaveFile.save(engine, directory.resolve("game.save")));
+    }
+
+    /**
+     * Returns the game in the layout of version 1 or 2: no layout, guess-free flag or plant seed, and in version 1
+     * no journal entries either.
+     */
+    private static ByteBuffer downgrade(ByteBuffer current, int version)
+    {
+        ByteBuffer old = ByteBuffer.allocate(current.remaining() - (version == 1 ? 16 : 8));
+        old.putInt(current.getInt(0))
+                .putShort((short) version)
+                .putShort((short) 0)
+                .putInt(current.getInt(8))
+                .putInt(current.getInt(12))
+                .put(current.get(16))
+                .put(current.get(17))
+                .putShort((short) 0)
+                .put(current.array(), 20, 28);
+        if (version == 2) {
+            old.putLong(current.getLong(48));
+        }
+        return old.put(current.array(), GameCodec.HEADER_BYTES, current.remaining() - GameCodec.HEADER_BYTES).flip();
+    }
+
+    @Test
+    void olderVersionsAreReadAsSeededBoards() throws IOException
+    {
+        GameEngine engine = new GameEngine(new World(ROWS, COLUMNS, 1, 5));
+        Random random = new Random(5);
+        for (int move = 0; move < 40; move++) {
+            playRandomMove(engine, random);
+        }
+        ByteBuffer current = encode(engine, 17);
+        for (int version = 1; version <= 2; version++) {
+            ByteBuffer old = downgrade(current, version);
+            GameCodec.Header header = GameCodec.readHeader(old.duplicate());
+            assertEquals(version == 1 ? GameCodec.NO_JOURNAL : 17, header.journalEntries());
+            assertEquals(MineLayout.SEEDED, header.layout());
+            assertEquals(engine.getWorld().getSeed(), header.plantSeed());
+            assertSameGame(engine, GameCodec.read(old), "version " + version);
+
+            Path path = directory.resolve("version" + version + ".save");
+            Files.write(path, Arrays.copyOf(old.array(), old.limit()));
+            SaveFile save = SaveFile.open(path);
+            assertEquals(header.journalEntries(), save.getJournalEntries());
+            assertEquals(rendered(engine.getWorld()), save.render(0, 0, ROWS, COLUMNS));
+        }
+    }
+
+    private static void assertRefused(ByteBuffer buffer, String message)
+    {
+        IOException exc = assertThrows(IOException.class, () -> GameCodec.read(buffer.duplicate()));
+        assertTrue(exc.getMessage().startsWith(message), exc.getMessage());
+    }
+
+    private static ByteBuffer corrupt(ByteBuffer buffer, int offset, int value, int size)
+    {
+        ByteBuffer copy = ByteBuffer.wrap(buffer.array().clone());
+        switch (size) {
+            case 1 -> copy.put(offset, (byte) value);
+            case 2 -> copy.putShort(offset, (short) value);
+            default -> copy.putInt(offset, value);
+        }
+        return copy;
+    }
+
+    @Test
+    void truncatedAndCorruptGamesAreRefused() throws IOException
+    {
+        GameEngine engine = new GameEngine(new World(ROWS, COLUMNS, 1, 8));
+        engine.play(Command.Type.REVEAL, 0, 0);
+        ByteBuffer buffer = encode(engine, GameCodec.NO_JOURNAL);
+        int size = buffer.remaining();
+
+        for (int length : new int[] {0, 4, 47, 48, GameCodec.HEADER_BYTES - 1}) {
+            assertRefused(ByteBuffer.wrap(buffer.array(), 0, length), "Not a MineSweeper game");
+        }
+        for (int length : new int[] {GameCodec.HEADER_BYTES, GameCodec.HEADER_BYTES + 8, size - 1}) {
+            assertRefused(ByteBuffer.wrap(buffer.array(), 0, length), "Truncated game");
+        }
+        assertRefused(corrupt(buffer, 0, 0x4D535751, 4), "Not a MineSweeper game");
+        for (int version : new int[] {0, -1, GameCodec.VERSION + 1}) {
+            assertRefused(corrupt(buffer, 4, version, 2), "Unsupported game version " + version);
+        }
+        // Rows, columns, difficulty, status and layout out of range
+        int[][] fields = {
+                {8, 0, 4}, {8, -ROWS, 4}, {12, 0, 4}, {8, World.MAX_CELLS / COLUMNS + 1, 4},
+                {16, 0, 1}, {16, 3, 1}, {16, -1, 1}, {17, GameStatus.values().length, 1}, {17, -1, 1},
+                {18, MineLayout.values().length, 1}, {18, -1, 1}
+        };
+        for (int[] field : fields) {
+            assertRefused(corrupt(buffer, field[0], field[1], field[2]), "Corrupted game header");
+        }
+        // A mine more in the mine plane than the header counts
+        ByteBuffer extraMine = ByteBuffer.wrap(buffer.array().clone());
+        long mines = extraMine.getLong(GameCodec.HEADER_BYTES);
+        extraMine.putLong(GameCodec.HEADER_BYTES, mines | Long.lowestOneBit(~mines));
+        assertRefused(extraMine, "Corrupted game");
+
+        Path path = directory.resolve("corrupt.save");
+        Files.write(path, Arrays.copyOf(buffer.array(), size - 1));
+        assertThrows(IOException.class, () -> SaveFile.open(path));
+        Files.write(path, corrupt(buffer, 16, 7, 1).array());
+        assertThrows(IOException.class, () -> SaveFile.open(path));
+        assertSameGame(engine, GameCodec.read(buffer), "intact");
+    }
+}
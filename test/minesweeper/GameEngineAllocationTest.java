@@ -0,0 +1,83 @@
+package minesweeper;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the heap allocated by moves applied through {@link GameEngine#play}, which are meant to allocate nothing
+ * once the engine's lists have grown.
+ */
+class GameEngineAllocationTest
+{
+    private static final int MOVES = 10_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Reveals and chords the same blocks over and over, covering them again after every move.
+     */
+    private static int play(GameEngine engine, Coordinate opening, Coordinate chorded, int moves)
+    {
+        World world = engine.getWorld();
+        int revealed = 0;
+        for (int i = 0; i < moves; i++) {
+            Coordinate target = (i & 1) == 0 ? opening : chorded;
+            Command.Type type = (i & 1) == 0 ? Command.Type.REVEAL : Command.Type.CHORD;
+            assertEquals(MoveResult.Outcome.APPLIED, engine.play(type, target.x(), target.y()));
+            IntList last = engine.getLastRevealed();
+            revealed += last.size();
+            for (int k = 0; k < last.size(); k++) {
+                world.restoreState(last.get(k), BlockType.UNKNOWN);
+            }
+            world.adjustCounters(last.size(), 0, 0);
+        }
+        return revealed;
+    }
+
+    @Test
+    void revealsAndChordsAllocateNothing()
+    {
+        World world = new World(100, 100, 1, 42);
+        GameEngine engine = new GameEngine(world);
+        Coordinate chorded = null, opening = null;
+        for (int index = 0; index < 100 * 100 && (chorded == null || opening == null); index++) {
+            int x = index / 100, y = index % 100;
+            if (world.isMineAt(index) || x == 0 || y == 0 || x == 99 || y == 99) {
+                continue;
+            }
+            if (opening == null && world.adjacentMinesAt(index) == 0) {
+                opening = new Coordinate(x, y);
+            } else if (chorded == null && world.adjacentMinesAt(index) > 0) {
+                chorded = new Coordinate(x, y);
+            }
+        }
+        // Mark the mines around the chorded block and uncover it, so chording it reveals its other neighbors
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                if (world.isMineAt(world.indexOf(chorded.x() + dx, chorded.y() + dy))) {
+                    engine.play(Command.Type.FLAG, chorded.x() + dx, chorded.y() + dy);
+                }
+            }
+        }
+        engine.play(Command.Type.REVEAL, chorded.x(), chorded.y());
+
+        play(engine, opening, chorded, MOVES);
+        long before = allocatedBytes();
+        int revealed = play(engine, opening, chorded, MOVES);
+        long allocated = allocatedBytes() - before;
+
+        assertTrue(revealed >= MOVES, "every move uncovers blocks");
+        // Leaves room for the measurement itself, far below the bytes a single result per move would take
+        assertTrue(allocated < 1024, allocated + " bytes allocated by " + MOVES + " moves");
+        assertEquals(GameStatus.PLAYING, engine.getStatus());
+    }
+}
@@ -0,0 +1,60 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a game can only be accessed from the connection that started it.
+ */
+class GameServerTest
+{
+    @Test
+    void gamesAreOnlyAccessibleToTheirConnection() throws IOException
+    {
+        SessionCache sessions = new SessionCache(Files.createTempDirectory("minesweeper-sessions"),
+                GameServer.DEFAULT_RESIDENT_BYTES, GameServer.DEFAULT_IDLE);
+        try (GameServer server = new GameServer(0, sessions)) {
+            Set<Long> owner = new HashSet<>(), other = new HashSet<>();
+            String id = server.handle("NEW 9 9 1 5", owner).split(" ")[1];
+
+            for (String request : new String[] {"REVEAL " + id + " 0 0", "FLAG " + id + " 0 0", "CHORD " + id + " 0 0",
+                    "RESIGN " + id, "BOARD " + id, "END " + id}) {
+                assertEquals("ERR unknown game " + id, server.handle(request, other), request);
+            }
+            assertEquals(1, server.getSessionCount());
+
+            assertTrue(server.handle("BOARD " + id, owner).startsWith("BOARD 9"));
+            assertEquals("ENDED " + id, server.handle("END " + id, owner));
+            assertEquals(0, server.getSessionCount());
+            assertEquals("ERR unknown game " + id, server.handle("END " + id, owner));
+        }
+    }
+
+    @Test
+    void endedBoardsAreReused() throws IOException
+    {
+        SessionCache sessions = new SessionCache(Files.createTempDirectory("minesweeper-sessions"),
+                GameServer.DEFAULT_RESIDENT_BYTES, GameServer.DEFAULT_IDLE);
+        try (GameServer server = new GameServer(0, sessions)) {
+            Set<Long> owner = new HashSet<>();
+            String first = server.handle("NEW 16 30 1 5", owner);
+            String id = first.split(" ")[1];
+            server.handle("REVEAL " + id + " 3 4", owner);
+            assertEquals("ENDED " + id, server.handle("END " + id, owner));
+            assertEquals(16 * 30, server.getWorlds().getIdleCells());
+
+            String second = server.handle("NEW 16 30 1 5", owner);
+            assertEquals(1, server.getWorlds().getReused());
+            assertEquals(first.substring(first.indexOf(' ', 5)), second.substring(second.indexOf(' ', 5)));
+            String board = server.handle("BOARD " + second.split(" ")[1], owner);
+            assertTrue(board.substring(board.indexOf('\n') + 1).chars().allMatch(c -> c == '-' || c == '\n'), board);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package minesweeper;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Feeds malformed numbers and moves to {@link InputReader} and checks that each is reported once and skipped, so
+ * the reads after it see the input that follows, also when the input arrives a byte at a time.
+ */
+class InputReaderTest
+{
+    private static InputReader reader(String input) {
+        return new InputReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Returns a reader that gets a single byte per read, as a slow pipe might hand them over.
+     */
+    private static InputReader trickling(String input)
+    {
+        byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+        return new InputReader(new InputStream() {
+            private int position;
+
+            @Override
+            public int read() {
+                return position < bytes.length ? bytes[position++] : -1;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length)
+            {
+                if (position == bytes.length) {
+                    return -1;
+                }
+                buffer[offset] = bytes[position++];
+                return 1;
+            }
+        });
+    }
+
+    private static void assertMismatch(Runnable read) {
+        assertThrows(InputMismatchException.class, read::run);
+    }
+
+    private static void assertNumbersAfterMalformedTokens(InputReader reader)
+    {
+        assertEquals(12, reader.nextInt());
+        assertMismatch(reader::nextInt);                    // abc
+        assertEquals(7, reader.nextInt());
+        assertMismatch(reader::nextInt);                    // 1x2
+        assertEquals(-3, reader.nextInt());
+        assertMismatch(reader::nextInt);                    // -
+        assertMismatch(reader::nextInt);                    // +x
+        assertEquals(5, reader.nextInt());
+        assertMismatch(reader::nextInt);                    // 2147483648
+        assertEquals(Integer.MIN_VALUE, reader.nextInt());
+        assertEquals(Integer.MAX_VALUE, reader.nextInt());
+        assertMismatch(reader::nextInt);                    // -2147483649
+        assertMismatch(reader::nextInt);                    // 99999999999999999999
+        assertEquals(4, reader.nextInt());
+        assertEquals("end", reader.next());
+        assertThrows(NoSuchElementException.class, reader::nextInt);
+    }
+
+    @Test
+    void numbersAfterMalformedTokens()
+    {
+        String input = "12 abc 7\n1x2,-3;- +x\t5\r\n2147483648 -2147483648 +2147483647 -2147483649 "
+                + "99999999999999999999 4 end";
+        assertNumbersAfterMalformedTokens(reader(input));
+        assertNumbersAfterMalformedTokens(trickling(input));
+    }
+
+    @Test
+    void malformedTokenAtTheEndOfTheInput()
+    {
+        InputReader reader = reader("8 9z");
+        assertEquals(8, reader.nextInt());
+        assertMismatch(reader::nextInt);
+        assertThrows(NoSuchElementException.class, reader::nextInt);
+        assertThrows(NoSuchElementException.class, reader::next);
+    }
+
+    private static void assertMovesAfterMalformedMoves(InputReader reader)
+    {
+        assertTrue(reader.hasCommand());
+        assertEquals(new Command(Command.Type.REVEAL, 3, 4), reader.nextCommand());
+        assertTrue(reader.hasMoreCommands());
+        assertMismatch(reader::nextCommand);                // q 1 2, not a move
+        assertTrue(reader.hasMoreCommands());
+        assertMismatch(reader::nextCommand);                // m x 6, no row
+        assertTrue(reader.hasMoreCommands());
+        assertMismatch(reader::nextCommand);                // cc 1 2, not a single letter
+        assertTrue(reader.hasMoreCommands());
+        assertMismatch(reader::nextCommand);                // c 1 2x, no column
+        assertTrue(reader.hasMoreCommands());
+        assertMismatch(reader::nextCommand);                // x 1, short of the next move
+        assertTrue(reader.hasMoreCommands());
+        assertEquals(new Command(Command.Type.UNFLAG, 5, 6), reader.nextCommand());
+        assertFalse(reader.hasMoreCommands());
+
+        // A move cut short by the end of the line leaves the next line alone
+        assertTrue(reader.hasCommand());
+        assertMismatch(reader::nextCommand);                // m 2
+        assertFalse(reader.hasMoreCommands());
+        assertTrue(reader.hasCommand());
+        assertEquals(new Command(Command.Type.CHORD, 7, 7), reader.nextCommand());
+        assertFalse(reader.hasMoreCommands());
+
+        // A letter read on its own, then the rest of the batch given up
+        assertEquals('m', reader.nextLetter());
+        assertEquals(new Command(Command.Type.FLAG, 0, 1), reader.nextCommand('m'));
+        assertTrue(reader.hasMoreCommands());
+        reader.skipLine();
+        assertFalse(reader.hasCommand());
+        assertEquals(42, reader.nextInt());
+        assertThrows(NoSuchElementException.class, reader::hasCommand);
+    }
+
+    @Test
+    void movesAfterMalformedMoves()
+    {
+        String input = "c 3 4; q 1 2; m x 6; cc 1 2; c 1 2x; x 1; u 5 6\n"
+                + "m 2\n"
+                + "X,7,7\n"
+                + "M 0 1; c 9 9; m 8 8\n"
+                + "42";
+        assertMovesAfterMalformedMoves(reader(input));
+        assertMovesAfterMalformedMoves(trickling(input));
+    }
+
+    @Test
+    void tokensAcrossTheBufferBoundary()
+    {
+        // Pads the input so a number straddles the end of the first 64 KiB read
+        StringBuilder input = new StringBuilder();
+        while (input.length() < (1 << 16) - 3) {
+            input.append("1 ");
+        }
+        input.setLength((1 << 16) - 3);
+        if (input.charAt(input.length() - 1) != ' ') {
+            input.append(' ');
+        }
+        int ones = (input.length() + 1) / 2;
+        input.append("123456 q7 m 65 66\n");
+        InputReader reader = reader(input.toString());
+        for (int i = 0; i < ones; i++) {
+            assertEquals(1, reader.nextInt());
+        }
+        assertEquals(123456, reader.nextInt());
+        assertMismatch(reader::nextInt);
+        assertEquals(new Command(Command.Type.FLAG, 65, 66), reader.nextCommand());
+        assertFalse(reader.hasMoreCommands());
+        assertThrows(NoSuchElementException.class, reader::next);
+    }
+}
@@ -0,0 +1,131 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that a seed plants the same mines on one thread and on many, exactly the cells with the smallest keys,
+ * and that a safe start keeps the first block and its neighbors free.
+ */
+class MinePlanterTest
+{
+    /** Several stripes, the last one partial. */
+    private static final int LARGE = 3 * (1 << 18) + 1234;
+
+    private static <T> T onThreads(int threads, Supplier<T> task)
+    {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(task::get).get();
+        } catch (InterruptedException | ExecutionException exc) {
+            throw new AssertionError(exc);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static byte[] plant(int length, int count, long seed)
+    {
+        byte[] cells = new byte[length];
+        MinePlanter.plant(cells, count, seed);
+        return cells;
+    }
+
+    /**
+     * Plants by sorting all keys, in the order the class documents.
+     */
+    private static byte[] reference(int length, int count, long seed)
+    {
+        long[][] keys = new long[length][];
+        for (int i = 0; i < length; i++) {
+            keys[i] = new long[] {MinePlanter.key(seed, i), i};
+        }
+        Arrays.sort(keys, (a, b) -> {
+            int order = length < 512 ? Long.compare(a[0], b[0]) : Long.compareUnsigned(a[0], b[0]);
+            return order != 0 ? order : Long.compare(a[1], b[1]);
+        });
+        byte[] cells = new byte[length];
+        for (int i = 0; i < count; i++) {
+            cells[(int) keys[i][1]] |= Cell.MINE_BIT;
+        }
+        return cells;
+    }
+
+    private static int mines(byte[] cells)
+    {
+        int mines = 0;
+        for (byte cell : cells) {
+            mines += Cell.isMine(cell) ? 1 : 0;
+        }
+        return mines;
+    }
+
+    @Test
+    void oneThreadAndManyPlantTheSameMines()
+    {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        for (long seed = 1; seed <= 3; seed++) {
+            long s = seed;
+            for (int count : new int[] {1, LARGE / 4, LARGE * 2 / 5, LARGE - 1}) {
+                byte[] single = onThreads(1, () -> plant(LARGE, count, s));
+                byte[] parallel = onThreads(threads, () -> plant(LARGE, count, s));
+                assertArrayEquals(single, parallel, "seed " + seed + ", " + count + " mines");
+                assertEquals(count, mines(parallel));
+            }
+        }
+    }
+
+    @Test
+    void minesAreTheSmallestKeys()
+    {
+        for (int length : new int[] {1, 2, 9, 81, 480, 511, 512, 513, 4096, 100_000, LARGE}) {
+            for (long seed = -2; seed <= 2; seed++) {
+                int count = World.minesFor(length, 1 + (int) (seed & 1));
+                assertArrayEquals(reference(length, count, seed), plant(length, count, seed), length + " cells, seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void plantingIntoALongerArrayMatchesTheBoard()
+    {
+        byte[] scratch = new byte[1000];
+        Arrays.fill(scratch, 600, 1000, (byte) Cell.MINE_BIT);
+        MinePlanter.plant(scratch, 600, 150, 7);
+        assertArrayEquals(plant(600, 150, 7), Arrays.copyOf(scratch, 600));
+    }
+
+    @Test
+    void safeStartOnALargeBoardIsTheSameOnAnyNumberOfThreads()
+    {
+        int rows = 1000, columns = 800;
+        for (int difficulty = 1; difficulty <= 2; difficulty++) {
+            int d = difficulty;
+            Supplier<World> game = () -> {
+                World world = new World(rows, columns, d, 11, MineLayout.SAFE_START);
+                new GameEngine(world).play(Command.Type.REVEAL, 500, 0);
+                return world;
+            };
+            World single = onThreads(1, game), parallel = onThreads(8, game);
+            int mines = 0;
+            for (int i = 0; i < rows * columns; i++) {
+                assertEquals(single.isMineAt(i), parallel.isMineAt(i));
+                mines += parallel.isMineAt(i) ? 1 : 0;
+            }
+            assertEquals(parallel.getMineCount(), mines);
+            for (int x = 499; x <= 501; x++) {
+                for (int y = 0; y <= 1; y++) {
+                    assertFalse(parallel.isMineAt(parallel.indexOf(x, y)), "(" + x + "," + y + ")");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a journal continued from a save replays to the continued game, without the moves made after the
+ * save and abandoned, and that a guess-free board replays to the board that was played whatever its search found.
+ */
+class MoveJournalTest
+{
+    @TempDir
+    Path directory;
+
+    private static void play(GameEngine engine, MoveJournal journal, int x, int y) throws IOException
+    {
+        Command command = new Command(Command.Type.REVEAL, x, y);
+        journal.record(command);
+        engine.apply(command);
+    }
+
+    @Test
+    void continuedJournalDropsTheMovesAfterTheSave() throws IOException
+    {
+        Path journalPath = directory.resolve("game.journal"), savePath = directory.resolve("game.save");
+        GameEngine engine = new GameEngine(new World(16, 30, 1, 7));
+        MoveJournal journal = MoveJournal.create(journalPath, engine.getWorld());
+        play(engine, journal, 8, 15);
+        play(engine, journal, 0, 0);
+        journal.flush();
+        SaveFile.save(engine, savePath, journal.getEntryCount());
+        play(engine, journal, 15, 29);
+        play(engine, journal, 0, 29);
+        journal.close();
+
+        SaveFile save = SaveFile.open(savePath);
+        assertEquals(2, save.getJournalEntries());
+        GameEngine continued = save.load();
+        try (MoveJournal appended = MoveJournal.append(journalPath, continued.getWorld(), save.getJournalEntries())) {
+            assertEquals(2, appended.getEntryCount());
+            play(continued, appended, 15, 0);
+        }
+
+        GameEngine replayed = JournalReplay.replay(journalPath);
+        assertEquals(continued.getWorld().toString(), replayed.getWorld().toString());
+        assertEquals(continued.getWorld().getToCover(), replayed.getWorld().getToCover());
+        assertEquals(continued.getLivesLeft(), replayed.getLivesLeft());
+    }
+
+    @Test
+    void journalShorterThanTheSaveIsRejected() throws IOException
+    {
+        Path journalPath = directory.resolve("game.journal");
+        GameEngine engine = new GameEngine(new World(9, 9, 1, 3));
+        try (MoveJournal journal = MoveJournal.create(journalPath, engine.getWorld())) {
+            play(engine, journal, 4, 4);
+        }
+        assertThrows(IOException.class, () -> MoveJournal.append(journalPath, engine.getWorld(), 2));
+        assertTrue(Files.exists(journalPath));
+    }
+
+    @Test
+    void guessFreeBoardReplaysFromTheSeedItWasPlantedFrom() throws IOException
+    {
+        Path journalPath = directory.resolve("game.journal");
+        GameEngine engine = new GameEngine(new World(9, 9, 1, 11, MineLayout.NO_GUESS));
+        // No time for a single candidate: the board settles for a safe start, which a replay must not search again
+        engine.setSearchNanos(0);
+        try (MoveJournal journal = MoveJournal.create(journalPath, engine.getWorld())) {
+            play(engine, journal, 4, 4);
+            play(engine, journal, 0, 0);
+        }
+        World world = engine.getWorld();
+        assertFalse(world.isGuessFree());
+
+        try (JournalReplay replay = JournalReplay.open(journalPath)) {
+            assertTrue(replay.getHeader().planted());
+            assertEquals(world.getPlantSeed(), replay.getHeader().plantSeed());
+        }
+        World replayed = JournalReplay.replay(journalPath).getWorld();
+        assertEquals(world.getPlantSeed(), replayed.getPlantSeed());
+        assertEquals(world.isGuessFree(), replayed.isGuessFree());
+        for (int i = 0; i < 81; i++) {
+            assertEquals(world.isMineAt(i), replayed.isMineAt(i), "block " + i);
+        }
+        assertEquals(world.toString(), replayed.toString());
+    }
+
+    @Test
+    void savedGuessFreeBoardContinuesItsJournal() throws IOException
+    {
+        Path journalPath = directory.resolve("game.journal"), savePath = directory.resolve("game.save");
+        GameEngine engine = new GameEngine(new World(9, 9, 1, 12, MineLayout.NO_GUESS));
+        engine.setSearchNanos(0);
+        MoveJournal journal = MoveJournal.create(journalPath, engine.getWorld());
+        play(engine, journal, 4, 4);
+        journal.flush();
+        SaveFile.save(engine, savePath, journal.getEntryCount());
+        journal.close();
+
+        GameEngine continued = SaveFile.open(savePath).load();
+        assertEquals(MineLayout.NO_GUESS, continued.getWorld().getLayout());
+        assertEquals(engine.getWorld().getPlantSeed(), continued.getWorld().getPlantSeed());
+        try (MoveJournal appended = MoveJournal.append(journalPath, continued.getWorld(), 1)) {
+            play(continued, appended, 0, 0);
+        }
+        assertEquals(continued.getWorld().toString(), JournalReplay.replay(journalPath).getWorld().toString());
+    }
+
+    @Test
+    void versionOneJournalStillReplaysButIsNotContinued() throws IOException
+    {
+        Path journalPath = directory.resolve("game.journal");
+        GameEngine engine = new GameEngine(new World(9, 9, 1, 5, MineLayout.SAFE_START));
+        try (MoveJournal journal = MoveJournal.create(journalPath, engine.getWorld())) {
+            play(engine, journal, 4, 4);
+            play(engine, journal, 8, 8);
+        }
+        // Version 1 had no planting fields: drop the plant seed and clear the flags
+        byte[] bytes = Files.readAllBytes(journalPath);
+        ByteBuffer old = ByteBuffer.allocate(bytes.length - Long.BYTES);
+        old.put(bytes, 0, MoveJournal.VERSION_1_HEADER_BYTES).put(bytes, MoveJournal.HEADER_BYTES, bytes.length - MoveJournal.HEADER_BYTES);
+        old.putShort(4, (short) 1).put(18, (byte) 0);
+        Files.write(journalPath, old.array());
+
+        GameEngine replayed = JournalReplay.replay(journalPath);
+        assertEquals(engine.getWorld().toString(), replayed.getWorld().toString());
+        assertEquals(engine.getStatus(), replayed.getStatus());
+        assertThrows(IOException.class, () -> MoveJournal.append(journalPath, engine.getWorld(), 2));
+    }
+}
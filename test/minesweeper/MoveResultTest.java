@@ -0,0 +1,41 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that results of the same moves on the same board are equal, with the revealed blocks compared by content.
+ */
+class MoveResultTest
+{
+    @Test
+    void sameMovesOnTheSameBoardGiveEqualResults()
+    {
+        GameEngine first = new GameEngine(new World(16, 16, 1, 4)), second = new GameEngine(new World(16, 16, 1, 4));
+        World world = first.getWorld();
+        int opened = 0;
+        for (int index = 0; index < 16 * 16; index++) {
+            if (world.isMineAt(index) || world.stateAt(index) != BlockType.UNKNOWN) {
+                continue;
+            }
+            Command command = new Command(Command.Type.REVEAL, index / 16, index % 16);
+            MoveResult expected = first.apply(command), actual = second.apply(command);
+            assertEquals(expected, actual);
+            assertEquals(expected.hashCode(), actual.hashCode());
+            assertEquals(expected.toString(), actual.toString());
+            opened += expected.revealed().length > 1 ? 1 : 0;
+        }
+        assertTrue(opened > 0);
+
+        MoveResult result = new MoveResult(MoveResult.Outcome.APPLIED, new int[] {3, 4}, 0, 1, GameStatus.PLAYING);
+        assertEquals("MoveResult[outcome=APPLIED, revealed=[3, 4], minesHit=0, livesLeft=1, status=PLAYING]",
+                result.toString());
+        assertNotEquals(result, new MoveResult(MoveResult.Outcome.APPLIED, new int[] {4, 3}, 0, 1, GameStatus.PLAYING));
+        assertNotEquals(result, new MoveResult(MoveResult.Outcome.APPLIED, new int[] {3, 4}, 1, 1, GameStatus.PLAYING));
+        assertEquals(MoveResult.rejected(MoveResult.Outcome.GAME_OVER, 0, GameStatus.LOST),
+                new MoveResult(MoveResult.Outcome.GAME_OVER, new int[0], 0, 0, GameStatus.LOST));
+    }
+}
@@ -0,0 +1,76 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the guess-free search yields solvable boards deterministically when given the time, settles for a
+ * safe start when not, and is only run where it is supported. Nothing here depends on the speed of the machine.
+ */
+class NoGuessGeneratorTest
+{
+    private static final int MINES = World.minesFor(9 * 9, 1);
+
+    @Test
+    void searchWithoutTimeSettlesForTheGameSeed()
+    {
+        NoGuessGenerator.Result result = NoGuessGenerator.search(9, 9, 1, MINES, 1, 4, 4, NoGuessGenerator.MAX_CANDIDATES, 0);
+        assertFalse(result.found());
+        assertEquals(0, result.candidate());
+        assertEquals(1, result.seed());
+    }
+
+    @Test
+    void unboundedSearchIsDeterministicAndSolvable()
+    {
+        for (long seed = 1; seed <= 5; seed++) {
+            NoGuessGenerator.Result first = NoGuessGenerator.search(9, 9, 1, MINES, seed, 4, 4,
+                    NoGuessGenerator.MAX_CANDIDATES, Long.MAX_VALUE);
+            NoGuessGenerator.Result second = NoGuessGenerator.search(9, 9, 1, MINES, seed, 4, 4,
+                    NoGuessGenerator.MAX_CANDIDATES, Long.MAX_VALUE);
+            assertTrue(first.found(), "seed " + seed);
+            assertEquals(first.seed(), second.seed());
+            assertEquals(first.candidate(), second.candidate());
+            assertEquals(NoGuessGenerator.candidateSeed(seed, first.candidate()), first.seed());
+
+            World candidate = new World(9, 9, 1, first.seed(), MINES, MineLayout.SAFE_START);
+            assertTrue(NoGuessGenerator.solvable(candidate, 4, 4, new Solver(), () -> false), "seed " + seed);
+        }
+    }
+
+    @Test
+    void engineWithoutDeadlinePlantsTheSearchedBoard()
+    {
+        World world = new World(9, 9, 1, 3, MineLayout.NO_GUESS);
+        GameEngine engine = new GameEngine(world);
+        engine.setSearchNanos(Long.MAX_VALUE);
+        engine.apply(Command.reveal(4, 4));
+        NoGuessGenerator.Result result = NoGuessGenerator.search(9, 9, 1, MINES, 3, 4, 4,
+                NoGuessGenerator.MAX_CANDIDATES, Long.MAX_VALUE);
+        assertTrue(world.isGuessFree());
+        assertEquals(result.seed(), world.getPlantSeed());
+    }
+
+    @Test
+    void onlyMediumBoardsUpToTheLimitAreSupported()
+    {
+        assertTrue(NoGuessGenerator.isSupported(16, 30, 1));
+        assertFalse(NoGuessGenerator.isSupported(30, 30, 1));
+        assertFalse(NoGuessGenerator.isSupported(9, 9, 2));
+    }
+
+    @Test
+    void unsupportedBoardStartsSafelyWithoutSearching()
+    {
+        World world = new World(200, 200, 2, 5, MineLayout.NO_GUESS);
+        GameEngine engine = new GameEngine(world);
+        engine.apply(Command.reveal(100, 100));
+        assertTrue(world.isPlanted());
+        assertFalse(world.isGuessFree());
+        assertEquals(world.getSeed(), world.getPlantSeed());
+        assertFalse(world.isMineAt(world.indexOf(100, 100)));
+    }
+}
@@ -0,0 +1,268 @@
+package minesweeper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the exact probabilities against enumerating every mine layout of the frontier, and that a position the
+ * mine count contradicts yields NaN rather than numbers.
+ */
+class ProbabilityEngineTest
+{
+    private static final int MAX_FRONTIER = 20;
+
+    /**
+     * Returns the board with the given cells revealed and marked, a revealed mine showing as hit.
+     */
+    private static World restore(World board, long[] revealed, long[] marked)
+    {
+        int cellCount = board.getRows() * board.getColumns();
+        long[] mines = new long[revealed.length];
+        for (int i = 0; i < cellCount; i++) {
+            if (board.isMineAt(i)) {
+                mines[i >>> 6] |= 1L << i;
+            }
+        }
+        return new World(board.getRows(), board.getColumns(), board.getDifficulty(), board.getSeed(), mines, revealed,
+                marked, 0, 0, 0);
+    }
+
+    private static boolean isCovered(World world, int index)
+    {
+        BlockType state = world.stateAt(index);
+        return state == BlockType.UNKNOWN || state == BlockType.MARKED;
+    }
+
+    /**
+     * Enumerates every layout of the frontier that agrees with the numbers and weights it by the ways to place the
+     * remaining mines off the frontier.
+     *
+     * @return The chance of a mine per block, or null if the frontier is too large to enumerate.
+     */
+    private static double[] bruteForce(World world)
+    {
+        int rows = world.getRows(), columns = world.getColumns(), cellCount = rows * columns;
+        int[] slot = new int[cellCount];
+        int frontierSize = 0, covered = 0, exploded = 0;
+        for (int i = 0; i < cellCount; i++) {
+            slot[i] = -1;
+            if (world.stateAt(i) == BlockType.MINE) {
+                exploded++;
+            }
+            if (!isCovered(world, i)) {
+                continue;
+            }
+            covered++;
+            for (int n : neighbors(world, i)) {
+                if (world.stateAt(n) == BlockType.DISCOVERED) {
+                    slot[i] = frontierSize++;
+                    break;
+                }
+            }
+        }
+        if (frontierSize > MAX_FRONTIER) {
+            return null;
+        }
+        // Per number, the frontier blocks around it and the mines still missing there
+        int[] needs = new int[cellCount];
+        long[] masks = new long[cellCount];
+        int constraints = 0;
+        for (int i = 0; i < cellCount; i++) {
+            if (world.stateAt(i) != BlockType.DISCOVERED) continue;
+            long mask = 0;
+            int need = world.adjacentMinesAt(i);
+            for (int n : neighbors(world, i)) {
+                if (slot[n] >= 0) {
+                    mask |= 1L << slot[n];
+                } else if (world.stateAt(n) == BlockType.MINE) {
+                    need--;
+                }
+            }
+            masks[constraints] = mask;
+            needs[constraints++] = need;
+        }
+        long[] solutions = new long[frontierSize + 1];
+        long[][] withMine = new long[frontierSize][frontierSize + 1];
+        for (long layout = 0; layout < 1L << frontierSize; layout++) {
+            boolean valid = true;
+            for (int c = 0; c < constraints && valid; c++) {
+                valid = Long.bitCount(layout & masks[c]) == needs[c];
+            }
+            if (!valid) continue;
+            int k = Long.bitCount(layout);
+            solutions[k]++;
+            for (int v = 0; v < frontierSize; v++) {
+                if ((layout >>> v & 1) != 0) {
+                    withMine[v][k]++;
+                }
+            }
+        }
+        int interior = covered - frontierSize;
+        long remaining = world.getMineCount() - exploded;
+        BigInteger total = BigInteger.ZERO, interiorMines = BigInteger.ZERO;
+        BigInteger[] weights = new BigInteger[frontierSize + 1];
+        for (int k = 0; k <= frontierSize; k++) {
+            long rest = remaining - k;
+            weights[k] = rest < 0 || rest > interior ? BigInteger.ZERO : binomial(interior, (int) rest);
+            total = total.add(weights[k].multiply(BigInteger.valueOf(solutions[k])));
+            interiorMines = interiorMines.add(weights[k].multiply(BigInteger.valueOf(solutions[k] * rest)));
+        }
+        double[] probability = new double[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            if (!isCovered(world, i)) {
+                probability[i] = world.stateAt(i) == BlockType.MINE ? 1 : 0;
+            } else if (total.signum() == 0) {
+                probability[i] = Double.NaN;
+            } else if (slot[i] >= 0) {
+                BigInteger mines = BigInteger.ZERO;
+                for (int k = 0; k <= frontierSize; k++) {
+                    mines = mines.add(weights[k].multiply(BigInteger.valueOf(withMine[slot[i]][k])));
+                }
+                probability[i] = ratio(mines, total);
+            } else {
+                probability[i] = ratio(interiorMines, total.multiply(BigInteger.valueOf(interior)));
+            }
+        }
+        return probability;
+    }
+
+    private static int[] neighbors(World world, int index)
+    {
+        int rows = world.getRows(), columns = world.getColumns();
+        int x = index / columns, y = index % columns, count = 0;
+        int[] neighbors = new int[8];
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(rows - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(columns - 1, y + 1); ny++) {
+                if (nx != x || ny != y) {
+                    neighbors[count++] = nx * columns + ny;
+                }
+            }
+        }
+        return Arrays.copyOf(neighbors, count);
+    }
+
+    private static BigInteger binomial(int n, int k)
+    {
+        BigInteger result = BigInteger.ONE;
+        for (int i = 0; i < k; i++) {
+            result = result.multiply(BigInteger.valueOf(n - i)).divide(BigInteger.valueOf(i + 1));
+        }
+        return result;
+    }
+
+    private static double ratio(BigInteger numerator, BigInteger denominator)
+    {
+        return new BigDecimal(numerator).divide(new BigDecimal(denominator), MathContext.DECIMAL64).doubleValue();
+    }
+
+    private static void assertProbabilities(double[] expected, World world, String position)
+    {
+        ProbabilityEngine engine = new ProbabilityEngine(world);
+        assertTrue(engine.compute(), position);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], engine.probability(i), 1e-12, position + ", block " + i);
+        }
+    }
+
+    @Test
+    void probabilitiesMatchTheEnumeration()
+    {
+        Random random = new Random(10);
+        int positions = 0, largest = 0;
+        for (int board = 0; positions < 300; board++) {
+            int rows = 4 + random.nextInt(9), columns = 4 + random.nextInt(9);
+            World truth = new World(rows, columns, 1 + board % 2, board);
+            int cellCount = rows * columns;
+            // A few safe reveals and their flood fills, now and then a mine hit and some marks, right or wrong
+            for (int move = 1 + random.nextInt(3); move > 0; move--) {
+                int index = random.nextInt(cellCount);
+                if (!truth.isMineAt(index)) {
+                    truth.check(index / columns, index % columns);
+                }
+            }
+            long[] revealed = new long[(cellCount + 63) >>> 6], marked = new long[revealed.length];
+            for (int i = 0; i < cellCount; i++) {
+                BlockType state = truth.stateAt(i);
+                if (state == BlockType.BLANK || state == BlockType.DISCOVERED
+                        || (truth.isMineAt(i) && random.nextInt(30) == 0)) {
+                    revealed[i >>> 6] |= 1L << i;
+                } else if (random.nextInt(15) == 0) {
+                    marked[i >>> 6] |= 1L << i;
+                }
+            }
+            World world = restore(truth, revealed, marked);
+            double[] expected = bruteForce(world);
+            if (expected == null) {
+                continue;
+            }
+            assertProbabilities(expected, world, rows + "x" + columns + ", board " + board);
+            positions++;
+            ProbabilityEngine engine = new ProbabilityEngine(world);
+            engine.compute();
+            largest = Math.max(largest, engine.getFrontierCells().size());
+        }
+        assertTrue(largest >= 15, "Largest frontier " + largest);
+    }
+
+    /**
+     * A 3x3 board with its mine in the middle and a corner uncovered, a 1 with three covered neighbors. Claiming no
+     * mines contradicts the 1, claiming more than it and the five blocks off the frontier hold contradicts the rest.
+     */
+    private static World claiming(int mineCount)
+    {
+        long[] mines = {1L << 4};
+        long[] revealed = {1L << 8};
+        return new World(3, 3, 1, 0, mines, revealed, new long[1], 7, 1, 1) {
+            @Override
+            public int getMineCount() {
+                return mineCount;
+            }
+        };
+    }
+
+    @Test
+    void inconsistentMineCountYieldsNaN()
+    {
+        for (int mineCount : new int[] {-1, 0, 7, 9}) {
+            World world = claiming(mineCount);
+            ProbabilityEngine engine = new ProbabilityEngine(world);
+            assertTrue(engine.compute());
+            assertEquals(3, engine.getFrontierCells().size());
+            for (int i = 0; i < 8; i++) {
+                assertTrue(Double.isNaN(engine.probability(i)), mineCount + " mines, block " + i);
+            }
+            assertTrue(Double.isNaN(engine.getInteriorProbability()));
+            assertEquals(0, engine.probability(8));
+            assertArrayEquals(bruteForce(world), probabilities(engine, 9), mineCount + " mines");
+        }
+        // The counts that fit: the one mine next to the 1, or that one and all five others
+        for (int mineCount = 1; mineCount <= 6; mineCount++) {
+            assertProbabilities(bruteForce(claiming(mineCount)), claiming(mineCount), mineCount + " mines");
+        }
+        ProbabilityEngine engine = new ProbabilityEngine(claiming(1));
+        engine.compute();
+        assertEquals(1.0 / 3, engine.probability(4), 1e-12);
+        assertEquals(0, engine.getInteriorProbability());
+        engine = new ProbabilityEngine(claiming(6));
+        engine.compute();
+        assertEquals(1, engine.getInteriorProbability(), 1e-12);
+    }
+
+    private static double[] probabilities(ProbabilityEngine engine, int cellCount)
+    {
+        double[] probabilities = new double[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            probabilities[i] = engine.probability(i);
+        }
+        return probabilities;
+    }
+}
@@ -0,0 +1,104 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fills a cache past its weight bound and checks that the spilled games come back as they were played, and that
+ * the accesses are counted as hits and misses.
+ */
+class SessionCacheTest
+{
+    private static final int GAMES = 40;
+    private static final int RESIDENT_GAMES = 10;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Returns a game in progress, the same one for the same id.
+     */
+    private static GameEngine game(long id)
+    {
+        GameEngine engine = new GameEngine(new World(9, 9, 1, id, MineLayout.SAFE_START));
+        engine.play(Command.Type.REVEAL, 4, 4);
+        engine.play(Command.Type.FLAG, (int) (id % 9), 0);
+        engine.play(Command.Type.REVEAL, 0, (int) (id % 9));
+        return engine;
+    }
+
+    private static void assertSameGame(GameEngine expected, GameEngine actual)
+    {
+        World expectedWorld = expected.getWorld(), world = actual.getWorld();
+        assertEquals(expectedWorld.toString(), world.toString());
+        for (int i = 0; i < 81; i++) {
+            assertEquals(expectedWorld.isMineAt(i), world.isMineAt(i));
+        }
+        assertEquals(expectedWorld.getToCover(), world.getToCover());
+        assertEquals(expectedWorld.getMarksLeft(), world.getMarksLeft());
+        assertEquals(expectedWorld.getMinesLeft(), world.getMinesLeft());
+        assertEquals(expected.getLivesLeft(), actual.getLivesLeft());
+        assertEquals(expected.getStatus(), actual.getStatus());
+    }
+
+    private long spilledFiles() throws IOException
+    {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void spilledGamesComeBackUnchanged() throws IOException
+    {
+        long weight = SessionCache.weightOf(game(0).getWorld());
+        try (SessionCache cache = new SessionCache(directory, RESIDENT_GAMES * weight, Duration.ofHours(1))) {
+            for (long id = 0; id < GAMES; id++) {
+                cache.put(id, game(id));
+                assertTrue(cache.getResidentWeight() <= RESIDENT_GAMES * weight);
+            }
+            assertEquals(GAMES, cache.size());
+            long spilled = GAMES - cache.getResidentCount();
+            assertTrue(spilled >= GAMES - RESIDENT_GAMES);
+            assertEquals(spilled, cache.getEvictions());
+            assertEquals(spilled, spilledFiles());
+            assertEquals(0, cache.getHits() + cache.getMisses());
+
+            // The most recent game is on the heap, the oldest one was spilled first
+            assertEquals(GameStatus.PLAYING, cache.apply(GAMES - 1, GameEngine::getStatus));
+            assertEquals(1, cache.getHits());
+            assertEquals(0, cache.getMisses());
+            assertSameGame(game(0), cache.apply(0, engine -> engine));
+            assertEquals(1, cache.getMisses());
+            cache.apply(0, GameEngine::getStatus);
+            assertEquals(2, cache.getHits());
+
+            for (long id = 0; id < GAMES; id++) {
+                GameEngine expected = game(id);
+                cache.apply(id, engine -> {
+                    assertSameGame(expected, engine);
+                    return null;
+                });
+                assertTrue(cache.getResidentWeight() <= RESIDENT_GAMES * weight);
+            }
+            assertEquals(GAMES + 3, cache.getHits() + cache.getMisses());
+            // Every game read back was one spilled before, and its file is gone
+            assertEquals(cache.getMisses(), cache.getEvictions() - (GAMES - cache.getResidentCount()));
+            assertEquals(GAMES - cache.getResidentCount(), spilledFiles());
+
+            assertTrue(cache.remove(0));
+            assertNull(cache.apply(0, engine -> engine));
+        }
+        assertEquals(0, spilledFiles());
+    }
+}
@@ -0,0 +1,54 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lets several threads play random moves on one {@link SharedWorld} and checks that the counters, the cells and
+ * what the moves reported agree afterwards.
+ */
+class SharedWorldTest
+{
+    @Test
+    void layoutMatchesWorld()
+    {
+        for (int[] size : new int[][] {{1, 1}, {16, 30}, {700, 400}}) {
+            SharedWorld shared = new SharedWorld(size[0], size[1], 2, 9);
+            World world = new World(size[0], size[1], 2, 9);
+            for (int x = 0; x < size[0]; x++) {
+                for (int y = 0; y < size[1]; y++) {
+                    int index = world.indexOf(x, y);
+                    assertEquals(world.isMineAt(index), shared.getOriginalState(x, y) == BlockType.MINE);
+                    assertEquals(world.adjacentMinesAt(index), shared.getAdjacentMinesCount(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    void concurrentMovesKeepTheCountersConsistent() throws InterruptedException
+    {
+        int players = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        for (long seed = 0; seed < 5; seed++) {
+            SharedWorld world = new SharedWorld(300, 300, 1, seed);
+            LongAdder moves = new LongAdder(), reportedReveals = new LongAdder(), reportedHits = new LongAdder();
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+            Thread[] threads = new Thread[players];
+            for (int p = 0; p < players; p++) {
+                threads[p] = new Thread(() -> world.play(end, moves, reportedReveals, reportedHits));
+                threads[p].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertTrue(moves.sum() > 0);
+            assertNull(world.verify(reportedReveals.sum(), reportedHits.sum()), "seed " + seed);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Checks that the {@link Solver} takes the player's marks for guesses rather than for known mines.
+ */
+class SolverTest
+{
+    /**
+     * A 2x3 board with its only mine at (0,2) and the left two columns uncovered, so that both numbers read 1 and
+     * (0,2) and (1,2) are equally likely to hold the mine.
+     */
+    private static World board(boolean markMine)
+    {
+        long[] mines = {1L << 2};
+        long[] revealed = {1L | 1L << 1 | 1L << 3 | 1L << 4};
+        long[] marked = {markMine ? 1L << 2 : 1L << 5};
+        return new World(2, 3, 1, 0, mines, revealed, marked, 2, 0, 1);
+    }
+
+    @Test
+    void wrongMarkDoesNotMakeAMineSafe()
+    {
+        Solver solver = new Solver();
+        assertNotNull(solver.hint(new GameEngine(board(false))));
+        // Taking the mark on (1,2) for a mine would prove (0,2), the actual mine, safe
+        assertEquals(0.5, solver.getLastProbability(), 1e-9);
+    }
+
+    @Test
+    void correctMarkIsNotTakenAsProofEither()
+    {
+        Solver solver = new Solver();
+        solver.hint(new GameEngine(board(true)));
+        assertEquals(0.5, solver.getLastProbability(), 1e-9);
+    }
+}
@@ -0,0 +1,122 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plays random games with a small undo cap, so older moves are folded into a checkpoint, undoes them to the start
+ * and redoes them to the end, comparing every cell and counter with the game as it was after each move.
+ */
+class UndoHistoryTest
+{
+    private static final int ROWS = 20;
+    private static final int COLUMNS = 20;
+    private static final int MAX_CHANGES = 150;
+
+    /**
+     * The cells, counters, lives and status of a game.
+     */
+    private record Snapshot(byte[] cells, int toCover, int marksLeft, int minesLeft, int livesLeft, GameStatus status)
+    {
+        static Snapshot of(GameEngine engine)
+        {
+            World world = engine.getWorld();
+            byte[] cells = new byte[ROWS * COLUMNS];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = world.cellAt(i);
+            }
+            return new Snapshot(cells, world.getToCover(), world.getMarksLeft(), world.getMinesLeft(),
+                    engine.getLivesLeft(), engine.getStatus());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Snapshot s && Arrays.equals(cells, s.cells) && toCover == s.toCover
+                    && marksLeft == s.marksLeft && minesLeft == s.minesLeft && livesLeft == s.livesLeft && status == s.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(cells);
+        }
+    }
+
+    /**
+     * Plays mostly safe moves, sometimes a mine, and returns the game after the start and after every move that
+     * changed it.
+     */
+    private static List<Snapshot> play(GameEngine engine, Random random)
+    {
+        World world = engine.getWorld();
+        List<Snapshot> snapshots = new ArrayList<>();
+        snapshots.add(Snapshot.of(engine));
+        for (int move = 0; move < 400 && engine.getStatus() == GameStatus.PLAYING; move++) {
+            int x = random.nextInt(ROWS), y = random.nextInt(COLUMNS);
+            int index = world.indexOf(x, y);
+            Command.Type type = switch (random.nextInt(10)) {
+                case 0, 1 -> Command.Type.FLAG;
+                case 2 -> Command.Type.UNFLAG;
+                case 3, 4 -> Command.Type.CHORD;
+                default -> Command.Type.REVEAL;
+            };
+            if (type == Command.Type.REVEAL && world.isMineAt(index) && random.nextInt(40) != 0) {
+                continue;
+            }
+            engine.play(type, x, y);
+            Snapshot snapshot = Snapshot.of(engine);
+            if (!snapshot.equals(snapshots.get(snapshots.size() - 1))) {
+                snapshots.add(snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    @Test
+    void undoToTheStartAndRedoToTheEnd()
+    {
+        int folded = 0;
+        for (long seed = 1; seed <= 30; seed++) {
+            GameEngine engine = new GameEngine(new World(ROWS, COLUMNS, 1, seed));
+            engine.enableUndo(MAX_CHANGES);
+            List<Snapshot> snapshots = play(engine, new Random(seed));
+            int last = snapshots.size() - 1;
+
+            // Back move by move, and from the checkpoint at the bottom to the start at once
+            int at = last, checkpointTop = 0;
+            while (engine.undo()) {
+                Snapshot snapshot = Snapshot.of(engine);
+                if (snapshot.equals(snapshots.get(at - 1))) {
+                    at--;
+                } else {
+                    assertEquals(snapshots.get(0), snapshot, "seed " + seed + ", undo from move " + at);
+                    checkpointTop = at;
+                    at = 0;
+                }
+            }
+            assertEquals(0, at, "seed " + seed);
+            if (checkpointTop > 0) {
+                folded++;
+            }
+
+            // Forward again: to the top of the checkpoint at once, then move by move
+            if (engine.redo()) {
+                at = Math.max(1, checkpointTop);
+                assertEquals(snapshots.get(at), Snapshot.of(engine), "seed " + seed + ", redo to move " + at);
+            }
+            while (engine.redo()) {
+                assertEquals(snapshots.get(++at), Snapshot.of(engine), "seed " + seed + ", redo to move " + at);
+            }
+            assertEquals(last, at, "seed " + seed);
+            assertFalse(engine.canRedo());
+        }
+        assertTrue(folded > 0, "No game folded its history");
+    }
+}
@@ -0,0 +1,229 @@
+package minesweeper;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Scrolls, centers and follows windows on worlds and chunked boards and checks that they stay clipped to the board,
+ * and that the map agrees with counting the explored blocks of every area.
+ */
+class ViewportTest
+{
+    private static final int ROWS = 100;
+    private static final int COLUMNS = 300;
+
+    private static void assertWindow(Viewport viewport, int top, int left)
+    {
+        assertEquals(top, viewport.getTop(), "top");
+        assertEquals(left, viewport.getLeft(), "left");
+    }
+
+    @Test
+    void scrollingStopsAtTheEdges()
+    {
+        Viewport viewport = new Viewport(new World(ROWS, COLUMNS, 1, 1), 20, 40);
+        assertTrue(viewport.takeMoved());
+        assertFalse(viewport.takeMoved());
+
+        viewport.scroll(-5, -5);
+        assertWindow(viewport, 0, 0);
+        assertFalse(viewport.takeMoved());
+        viewport.scroll(30, 50);
+        assertWindow(viewport, 30, 50);
+        assertTrue(viewport.takeMoved());
+        viewport.scroll(1000, 1000);
+        assertWindow(viewport, ROWS - 20, COLUMNS - 40);
+        viewport.scroll(Integer.MAX_VALUE, Integer.MIN_VALUE);
+        assertWindow(viewport, ROWS - 20, 0);
+        viewport.scroll(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        assertWindow(viewport, 0, COLUMNS - 40);
+        assertTrue(viewport.takeMoved());
+        // Only one step is left, the rest is clipped
+        viewport.scroll(1, 1);
+        assertWindow(viewport, 1, COLUMNS - 40);
+    }
+
+    @Test
+    void windowLargerThanTheBoardIsClipped()
+    {
+        Viewport viewport = new Viewport(new World(9, 9, 1, 2), 20, 5);
+        assertEquals(9, viewport.getHeight());
+        assertEquals(5, viewport.getWidth());
+        viewport.scroll(10, 10);
+        assertWindow(viewport, 0, 4);
+        viewport.centerOn(8, 0);
+        assertWindow(viewport, 0, 0);
+        assertTrue(viewport.contains(8, 4));
+        assertFalse(viewport.contains(8, 5));
+        assertEquals("Rows 0-8 and columns 0-4 of 9x9, one map character per 1x1 blocks:", viewport.title());
+    }
+
+    @Test
+    void centeringAndFollowingMoveOnlyAsFarAsTheEdgesAllow()
+    {
+        World world = new World(ROWS, COLUMNS, 1, 3);
+        Viewport viewport = new Viewport(world, 21, 41);
+        viewport.centerOn(50, 150);
+        assertWindow(viewport, 40, 130);
+        assertTrue(viewport.contains(40, 130) && viewport.contains(60, 170));
+        assertFalse(viewport.contains(39, 130) || viewport.contains(61, 130));
+        assertFalse(viewport.contains(40, 129) || viewport.contains(40, 171));
+        viewport.centerOn(0, COLUMNS - 1);
+        assertWindow(viewport, 0, COLUMNS - 41);
+        viewport.centerOn(ROWS - 1, 0);
+        assertWindow(viewport, ROWS - 21, 0);
+
+        // A visible block leaves the window where it is, even on its border
+        viewport.takeMoved();
+        viewport.follow(ROWS - 21, 40);
+        assertWindow(viewport, ROWS - 21, 0);
+        assertFalse(viewport.takeMoved());
+        viewport.follow(30, 200);
+        assertWindow(viewport, 20, 180);
+        assertTrue(viewport.takeMoved());
+
+        // The row-major indices are the same blocks
+        Random random = new Random(3);
+        Viewport byIndex = new Viewport(world, 21, 41);
+        for (int move = 0; move < 200; move++) {
+            int x = random.nextInt(ROWS), y = random.nextInt(COLUMNS), index = world.indexOf(x, y);
+            if (move % 2 == 0) {
+                viewport.follow(x, y);
+                byIndex.follow(index);
+            } else {
+                viewport.centerOn(x, y);
+                byIndex.centerOn(index);
+            }
+            assertWindow(byIndex, viewport.getTop(), viewport.getLeft());
+            assertTrue(viewport.contains(x, y) && byIndex.contains(index));
+            int other = random.nextInt(ROWS * COLUMNS);
+            assertEquals(viewport.contains(other / COLUMNS, other % COLUMNS), byIndex.contains(other));
+        }
+    }
+
+    /**
+     * Checks every map character and the rows and columns marked as shown against the board itself.
+     */
+    private static void assertMap(World world, Viewport viewport)
+    {
+        int rows = world.getRows(), columns = world.getColumns();
+        String[] area = viewport.getAreaSize().split("x");
+        int areaRows = Integer.parseInt(area[0]), areaColumns = Integer.parseInt(area[1]);
+        assertEquals((rows + areaRows - 1) / areaRows, viewport.getMapRows());
+        assertEquals((columns + areaColumns - 1) / areaColumns, viewport.getMapColumns());
+        assertTrue(viewport.getMapRows() <= Viewport.MAX_MAP_ROWS && viewport.getMapColumns() <= Viewport.MAX_MAP_COLUMNS);
+        for (int i = 0; i < viewport.getMapRows(); i++) {
+            for (int j = 0; j < viewport.getMapColumns(); j++) {
+                int blocks = 0, explored = 0;
+                for (int x = i * areaRows; x < Math.min(rows, (i + 1) * areaRows); x++) {
+                    for (int y = j * areaColumns; y < Math.min(columns, (j + 1) * areaColumns); y++) {
+                        BlockType state = world.getState(x, y);
+                        blocks++;
+                        explored += state != BlockType.UNKNOWN && state != BlockType.IN_PROGRESS ? 1 : 0;
+                    }
+                }
+                char expected = explored == 0 ? '.' : explored == blocks ? '#' : explored * 2 < blocks ? '-' : '+';
+                assertEquals(expected, viewport.mapCharacter(i, j), "area (" + i + "," + j + ")");
+            }
+        }
+        for (int i = 0; i < viewport.getMapRows(); i++) {
+            boolean shown = false;
+            for (int x = i * areaRows; x < Math.min(rows, (i + 1) * areaRows); x++) {
+                shown |= viewport.contains(x, viewport.getLeft());
+            }
+            assertEquals(shown, viewport.isMapRowShown(i), "map row " + i);
+        }
+        for (int j = 0; j < viewport.getMapColumns(); j++) {
+            boolean shown = false;
+            for (int y = j * areaColumns; y < Math.min(columns, (j + 1) * areaColumns); y++) {
+                shown |= viewport.contains(viewport.getTop(), y);
+            }
+            assertEquals(shown, viewport.isMapColumnShown(j), "map column " + j);
+        }
+        String text = viewport.toString();
+        String window = world.toString(viewport.getTop(), viewport.getLeft(), viewport.getHeight(), viewport.getWidth());
+        assertTrue(text.startsWith(window + "\n" + viewport.title() + "\n"));
+        assertEquals(viewport.getMapRows() + 2, text.substring(window.length()).split("\n").length - 1);
+    }
+
+    @Test
+    void mapCountsTheExploredBlocksOfEveryArea()
+    {
+        for (int[] size : new int[][] {{ROWS, COLUMNS}, {7, 60}, {37, 49}, {12, 48}}) {
+            int rows = size[0], columns = size[1];
+            GameEngine engine = new GameEngine(new World(rows, columns, 1, rows + columns));
+            World world = engine.getWorld();
+            // A game that already has explored blocks before the viewport is created
+            engine.play(Command.Type.FLAG, 0, 0);
+            world.clearDirty();
+            Viewport viewport = new Viewport(world, 10, 30);
+            assertMap(world, viewport);
+
+            Random random = new Random(rows);
+            for (int move = 0; move < 300 && engine.getStatus() == GameStatus.PLAYING; move++) {
+                int x = random.nextInt(rows), y = random.nextInt(columns);
+                Command.Type type = switch (random.nextInt(6)) {
+                    case 0 -> Command.Type.FLAG;
+                    case 1 -> Command.Type.UNFLAG;
+                    case 2 -> Command.Type.CHORD;
+                    default -> Command.Type.REVEAL;
+                };
+                if (type == Command.Type.REVEAL && world.isMineAt(world.indexOf(x, y))) {
+                    continue;
+                }
+                engine.play(type, x, y);
+                boolean changed = viewport.update(world.getDirtyCells());
+                assertTrue(!changed || world.getDirtyCells().size() > 0);
+                world.clearDirty();
+                viewport.follow(x, y);
+                if (move % 20 == 0) {
+                    assertMap(world, viewport);
+                }
+            }
+            assertMap(world, viewport);
+        }
+    }
+
+    @Test
+    void chunkedBoardsScrollWithoutAMap()
+    {
+        int rows = 60_000, columns = 2_000_000_000;
+        ChunkedWorld chunked = new ChunkedWorld(rows, columns, 1, 5);
+        assertThrows(IllegalArgumentException.class, () -> new Viewport(ChunkedWorld.endless(1, 5), 20, 40));
+        Viewport viewport = new Viewport(chunked, 20, 40);
+        assertEquals(0, viewport.getMapRows());
+        assertEquals(0, viewport.getMapColumns());
+        assertFalse(viewport.update(new IntList()));
+
+        viewport.scroll(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertWindow(viewport, rows - 20, columns - 40);
+        viewport.scroll(Integer.MIN_VALUE, -100);
+        assertWindow(viewport, 0, columns - 140);
+        viewport.centerOn(rows - 1, columns - 1);
+        assertWindow(viewport, rows - 20, columns - 40);
+        viewport.centerOn(30_000, 1_000_000_000);
+        assertWindow(viewport, 30_000 - 10, 1_000_000_000 - 20);
+        viewport.follow(30_009, 1_000_000_019);
+        assertWindow(viewport, 30_000 - 10, 1_000_000_000 - 20);
+        viewport.follow(0, Integer.MAX_VALUE - 200_000_000);
+        assertWindow(viewport, 0, Integer.MAX_VALUE - 200_000_020);
+
+        chunked.check(viewport.getTop() + 5, viewport.getLeft() + 5);
+        assertEquals(chunked.toString(viewport.getTop(), viewport.getLeft(), 20, 40) + "\n" + viewport.title(),
+                viewport.toString());
+        assertEquals("Rows 0-19 and columns " + viewport.getLeft() + "-" + (viewport.getLeft() + 39) + " of "
+                + rows + "x" + columns + ".", viewport.title());
+
+        Viewport small = new Viewport(new ChunkedWorld(3, 3, 1, 5), 20, 40);
+        assertEquals(3, small.getHeight());
+        assertEquals(3, small.getWidth());
+        small.scroll(5, 5);
+        assertWindow(small, 0, 0);
+    }
+}
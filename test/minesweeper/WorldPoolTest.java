@@ -0,0 +1,41 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that pooled boards come back laid out like new ones and that the pool keeps to its bounds.
+ */
+class WorldPoolTest
+{
+    @Test
+    void reusedBoardMatchesANewOne()
+    {
+        WorldPool pool = new WorldPool();
+        World world = pool.acquire(16, 30, 1, 1);
+        world.check(8, 15);
+        pool.release(world);
+        World reused = pool.acquire(16, 30, 1, 2);
+        assertSame(world, reused);
+        assertEquals(new World(16, 30, 1, 2).toString(), reused.toString());
+        assertEquals(0, pool.getIdleCells());
+    }
+
+    @Test
+    void idleCellsAreBounded()
+    {
+        WorldPool pool = new WorldPool(4, 1000);
+        World first = pool.acquire(16, 30, 1, 1), second = pool.acquire(16, 30, 1, 2), third = pool.acquire(16, 30, 1, 3);
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        assertEquals(2 * 16 * 30, pool.getIdleCells());
+        assertSame(second, pool.acquire(16, 30, 1, 4));
+        assertSame(first, pool.acquire(16, 30, 1, 5));
+        assertNotSame(third, pool.acquire(16, 30, 1, 6));
+        assertEquals(0, pool.getIdleCells());
+    }
+}